@@ -0,0 +1,72 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to ingest an end-of-day file of sales one by one with {@code registerSale} versus
+ * as a single {@code registerSales} batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BatchRegistrationBenchmark {
+    private static final int CATALOG_SIZE = 1_000;
+
+    @Param({"100000", "500000"})
+    private int batchSize;
+
+    private SaleService saleService;
+    private List<Sale> batch;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        ProductService productService = new ProductServiceImpl();
+        saleService = new SaleServiceImpl(productService);
+        Product[] catalog = new Product[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog[i] = productService.addProduct(Product.builder()
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + i % 100)
+                    .stock(Integer.MAX_VALUE)
+                    .build());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(Sale.builder()
+                    .items(List.of(
+                            SaleItem.builder().product(catalog[random.nextInt(CATALOG_SIZE)]).quantity(1).build(),
+                            SaleItem.builder().product(catalog[random.nextInt(CATALOG_SIZE)]).quantity(2).build()))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int registerOneByOne() {
+        for (Sale sale : batch) {
+            saleService.registerSale(sale);
+        }
+        return batch.size();
+    }
+
+    @Benchmark
+    public int registerAsBatch() {
+        return saleService.registerSales(batch).size();
+    }
+}
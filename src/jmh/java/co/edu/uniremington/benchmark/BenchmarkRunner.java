@@ -0,0 +1,41 @@
+package co.edu.uniremington.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Standard benchmark run: every selected benchmark at each thread count, always with the
+ * GC profiler so allocation rates ({@code gc.alloc.rate.norm}) are reported next to the
+ * scores. Results are written as JSON to {@code target/jmh-result-<threads>t.json}.
+ *
+ * <p>Usage: {@code BenchmarkRunner [include-regex] [thread-counts]}, e.g.
+ * {@code BenchmarkRunner ProductService 1,4,16}.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        int[] threadCounts = args.length > 1
+                ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 4, 16};
+
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-result-" + threads + "t.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
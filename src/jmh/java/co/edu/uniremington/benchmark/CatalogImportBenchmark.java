@@ -0,0 +1,86 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.catalog.CatalogBinary;
+import co.edu.uniremington.catalog.CatalogCsv;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.impl.ColumnarProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load a whole catalog from CSV and from the binary format into a presized
+ * {@link ColumnarProductService}, compared with adding the same products one by one.
+ * Use {@code -p catalogSize=2000000} for the full-size catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogImportBenchmark {
+    @Param({"200000"})
+    private int catalogSize;
+
+    private Path directory;
+    private Path csv;
+    private Path binary;
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(Product.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()).toString())
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + random.nextInt(10_000) / 100.0)
+                    .stock(random.nextInt(1_000))
+                    .build());
+        }
+        ProductService source = new ColumnarProductService(catalogSize);
+        source.addProducts(products);
+        directory = Files.createTempDirectory("catalog-benchmark");
+        csv = directory.resolve("catalog.csv");
+        binary = directory.resolve("catalog.bin");
+        CatalogCsv.exportFrom(source, csv);
+        CatalogBinary.exportFrom(source, binary);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(binary);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long importCsv() throws IOException {
+        return CatalogCsv.importInto(new ColumnarProductService(catalogSize), csv);
+    }
+
+    @Benchmark
+    public long importBinary() throws IOException {
+        return CatalogBinary.importInto(new ColumnarProductService(catalogSize), binary);
+    }
+
+    @Benchmark
+    public ProductService addOneByOne() {
+        ProductService productService = new ColumnarProductService();
+        for (Product product : products) {
+            productService.addProduct(product);
+        }
+        return productService;
+    }
+}
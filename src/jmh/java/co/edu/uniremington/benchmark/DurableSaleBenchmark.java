@@ -0,0 +1,71 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.persistence.DurableStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable sale throughput: every operation returns only after its journal entry has
+ * been forced to disk, so the score depends on how many sales share each fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DurableSaleBenchmark {
+    private Path directory;
+    private DurableStore store;
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable-store");
+        store = DurableStore.open(directory);
+        product = store.productService().addProduct(Product.builder()
+                .name("Coffee")
+                .description("Ground coffee")
+                .price(10.0)
+                .stock(Integer.MAX_VALUE)
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Sale registerSaleSingleThread() {
+        return registerSale();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Sale registerSaleGroupCommit() {
+        return registerSale();
+    }
+
+    private Sale registerSale() {
+        return store.saleService().registerSale(Sale.builder()
+                .items(List.of(SaleItem.builder().product(product).quantity(1).build()))
+                .build());
+    }
+}
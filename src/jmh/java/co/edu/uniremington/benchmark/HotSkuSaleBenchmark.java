@@ -0,0 +1,80 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ColumnarProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import co.edu.uniremington.service.impl.ShardedProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of three-item sales that all draw from a handful of hot products, so
+ * concurrent sales keep reserving overlapping sets of products. {@code map} reserves
+ * every item at once under ordered striped locks; {@code columnar} and {@code sharded}
+ * (four shards) reserve item by item and compensate. Run it with several benchmark
+ * threads, e.g. {@code -Djmh.args="HotSku 1,4,16"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class HotSkuSaleBenchmark {
+    private static final int ITEMS_PER_SALE = 3;
+
+    @Param({"map", "columnar", "sharded"})
+    private String implementation;
+
+    @Param({"4"})
+    private int hotProducts;
+
+    private ProductService productService;
+    private SaleService saleService;
+    private Product[] hot;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        productService = switch (implementation) {
+            case "map" -> new ProductServiceImpl();
+            case "columnar" -> new ColumnarProductService();
+            case "sharded" -> new ShardedProductService(4);
+            default -> throw new IllegalArgumentException(implementation);
+        };
+        saleService = new SaleServiceImpl(productService);
+        hot = new Product[hotProducts];
+        for (int i = 0; i < hotProducts; i++) {
+            hot[i] = productService.addProduct(Product.builder()
+                    .name("Hot product " + i)
+                    .description("Promoted product " + i)
+                    .price(1 + i)
+                    .stock(Integer.MAX_VALUE)
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (productService instanceof ShardedProductService sharded) {
+            sharded.close();
+        }
+    }
+
+    @Benchmark
+    public Sale registerSale() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SaleItem[] items = new SaleItem[ITEMS_PER_SALE];
+        for (int i = 0; i < ITEMS_PER_SALE; i++) {
+            items[i] = SaleItem.builder().product(hot[random.nextInt(hotProducts)]).quantity(1).build();
+        }
+        return saleService.registerSale(Sale.builder().items(List.of(items)).build());
+    }
+}
@@ -0,0 +1,97 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link ProductService} over catalogs of increasing size. Every product has
+ * some sales recorded and one in a hundred is out of stock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ProductServiceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    private ProductService productService;
+    private String[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productService = new ProductServiceImpl();
+        ids = new String[catalogSize];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < catalogSize; i++) {
+            Product product = productService.addProduct(Product.builder()
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + random.nextInt(10_000) / 100.0)
+                    .stock(i % 100 == 0 ? 0 : 1 + random.nextInt(1_000))
+                    .build());
+            ids[i] = product.getId();
+            productService.incrementProductSales(product.getId(), 1 + random.nextInt(10_000));
+        }
+    }
+
+    @Benchmark
+    public Product addProduct() {
+        return productService.addProduct(Product.builder()
+                .name("New product")
+                .description("Added during the benchmark")
+                .price(9.99)
+                .stock(10)
+                .build());
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productService.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Product> findByPredicate() {
+        return productService.findByPredicate(product -> product.getPrice() > 99.0);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Product> findOutOfStock() {
+        return productService.findOutOfStock();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Product> findLowStock() {
+        return productService.findLowStock(5);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Product> findByPriceRange() {
+        return productService.findByPriceRange(50.0, 50.5);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Product> findByNamePrefix() {
+        return productService.findByNamePrefix("product 99");
+    }
+
+    @Benchmark
+    public Optional<Product> getMostSoldProduct() {
+        return productService.getMostSoldProduct();
+    }
+}
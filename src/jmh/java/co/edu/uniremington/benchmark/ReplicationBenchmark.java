@@ -0,0 +1,91 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.persistence.DurableStore;
+import co.edu.uniremington.persistence.Replica;
+import co.edu.uniremington.persistence.Replicator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time for a new replica to receive the state of a durable store over localhost and
+ * catch up with it. The catch-up rate is the score divided into the entries applied,
+ * one per product, one per product with sales and one per sale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReplicationBenchmark {
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
+    @Param({"20000"})
+    private int catalogSize;
+
+    @Param({"100000"})
+    private int saleCount;
+
+    private Path directory;
+    private DurableStore store;
+    private Replicator replicator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("replication-benchmark");
+        store = DurableStore.open(directory);
+        replicator = Replicator.start(store, 0);
+        List<Product> catalog = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            catalog.add(Product.builder()
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + i % 100)
+                    .stock(Integer.MAX_VALUE / 2)
+                    .build());
+        }
+        List<Product> added = store.productService().addProducts(catalog);
+        SplittableRandom random = new SplittableRandom(42);
+        store.saleService().registerSales(Stream.generate(() -> Sale.builder()
+                        .items(List.of(SaleItem.builder()
+                                .product(added.get(random.nextInt(added.size())))
+                                .quantity(1 + random.nextInt(3))
+                                .build()))
+                        .build())
+                .limit(saleCount));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        replicator.close();
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long catchUp() throws IOException, InterruptedException {
+        try (Replica replica = Replica.connect("localhost", replicator.port())) {
+            if (!replica.awaitSequence(replicator.sequence(), TIMEOUT)) {
+                throw new IllegalStateException("La réplica no se puso al día");
+            }
+            return replica.appliedEntries();
+        }
+    }
+}
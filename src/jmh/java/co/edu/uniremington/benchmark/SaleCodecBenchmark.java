@@ -0,0 +1,124 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.codec.ProductDictionary;
+import co.edu.uniremington.codec.SaleCodec;
+import co.edu.uniremington.codec.SaleView;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of {@link SaleCodec} over 10,000 registered sales of one to five
+ * items, compared with reading the totals from the sale objects. {@code viewTotals} sums
+ * totals straight from the encoded bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleCodecBenchmark {
+    private static final int CATALOG_SIZE = 1_000;
+    private static final int SALES = 10_000;
+
+    private ProductService productService;
+    private SaleCodec codec;
+    private List<Sale> sales;
+    private ByteBuffer encoded;
+    private int[] offsets;
+    private ByteBuffer scratch;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        productService = new ProductServiceImpl();
+        SaleService saleService = new SaleServiceImpl(productService);
+        Product[] catalog = new Product[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog[i] = productService.addProduct(Product.builder()
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + i % 100)
+                    .stock(Integer.MAX_VALUE)
+                    .build());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        sales = new ArrayList<>(SALES);
+        for (int i = 0; i < SALES; i++) {
+            List<SaleItem> items = new ArrayList<>();
+            for (int j = 1 + random.nextInt(5); j > 0; j--) {
+                items.add(SaleItem.builder()
+                        .product(catalog[random.nextInt(CATALOG_SIZE)])
+                        .quantity(1 + random.nextInt(5))
+                        .build());
+            }
+            sales.add(saleService.registerSale(Sale.builder().items(items).build()));
+        }
+
+        codec = new SaleCodec(new ProductDictionary());
+        encoded = ByteBuffer.allocate(sales.stream().mapToInt(codec::maxEncodedSize).sum());
+        offsets = new int[SALES];
+        for (int i = 0; i < SALES; i++) {
+            offsets[i] = encoded.position();
+            codec.encode(sales.get(i), encoded);
+        }
+        encoded.flip();
+        scratch = ByteBuffer.allocate(1024);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        scratch.clear();
+        codec.encode(sales.get(next++ % SALES), scratch);
+        return scratch;
+    }
+
+    @Benchmark
+    public Sale decode() {
+        ByteBuffer in = encoded.duplicate().position(offsets[next++ % SALES]);
+        return codec.decode(in, id -> productService.findById(id).orElse(null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SALES)
+    public double viewTotals() {
+        double sum = 0;
+        for (int offset : offsets) {
+            sum += codec.view(encoded, offset).total();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SALES)
+    public double objectTotals() {
+        double sum = 0;
+        for (Sale sale : sales) {
+            sum += sale.getTotal();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void viewItems(Blackhole blackhole) {
+        SaleView view = codec.view(encoded, offsets[next++ % SALES]);
+        for (int i = 0; i < view.itemCount(); i++) {
+            blackhole.consume(view.productIndex(i));
+            blackhole.consume(view.quantity(i));
+            blackhole.consume(view.subtotal(i));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link SaleService} over a catalog of 10,000 products and sales histories of
+ * increasing size spread over the last two years. The services are rebuilt before every
+ * iteration so that sales registered while measuring do not accumulate across iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SaleServiceBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"0", "100000", "1000000"})
+    private int salesHistory;
+
+    private SaleService saleService;
+    private Product[] catalog;
+    private LocalDateTime now;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ProductService productService = new ProductServiceImpl();
+        saleService = new SaleServiceImpl(productService);
+        catalog = new Product[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog[i] = productService.addProduct(Product.builder()
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + i % 100)
+                    .stock(Integer.MAX_VALUE)
+                    .build());
+        }
+
+        now = LocalDateTime.now();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < salesHistory; i++) {
+            Product product = catalog[random.nextInt(CATALOG_SIZE)];
+            int quantity = 1 + random.nextInt(5);
+            saleService.registerSale(Sale.builder()
+                    .id("H" + i)
+                    .code("SALE-H" + i)
+                    .date(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60)))
+                    .items(List.of(SaleItem.builder()
+                            .product(product)
+                            .quantity(quantity)
+                            .subtotal(quantity * product.getPrice())
+                            .build()))
+                    .total(quantity * product.getPrice())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public Sale registerSale() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return saleService.registerSale(Sale.builder()
+                .items(List.of(
+                        SaleItem.builder().product(catalog[random.nextInt(CATALOG_SIZE)]).quantity(1).build(),
+                        SaleItem.builder().product(catalog[random.nextInt(CATALOG_SIZE)]).quantity(2).build(),
+                        SaleItem.builder().product(catalog[random.nextInt(CATALOG_SIZE)]).quantity(3).build()))
+                .build());
+    }
+
+    @Benchmark
+    public double calculateAverageSalesByPeriod() {
+        return saleService.calculateAverageSalesByPeriod(now.minusMonths(1), now);
+    }
+}
@@ -0,0 +1,87 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.analytics.SalesAnalytics;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalability of {@link SalesAnalytics} with the parallelism of the pool it runs on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SalesAnalyticsBenchmark {
+    private static final int CATALOG_SIZE = 1_000;
+
+    @Param({"1000000"})
+    private int salesHistory;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private SalesAnalytics analytics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Product[] catalog = new Product[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog[i] = Product.builder().id("P" + i).name("Product " + i).price(1 + i % 50).build();
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Sale> history = new ArrayList<>(salesHistory);
+        for (int i = 0; i < salesHistory; i++) {
+            int size = 1 + random.nextInt(4);
+            List<SaleItem> items = new ArrayList<>(size);
+            double total = 0;
+            for (int j = 0; j < size; j++) {
+                Product product = catalog[random.nextInt(CATALOG_SIZE)];
+                int quantity = 1 + random.nextInt(3);
+                items.add(new SaleItem(product, quantity, product.getPrice() * quantity));
+                total += product.getPrice() * quantity;
+            }
+            history.add(new Sale("S" + i, "SALE-" + i, now.minusMinutes(random.nextInt(365 * 24 * 60)), items, total));
+        }
+        pool = new ForkJoinPool(parallelism);
+        analytics = SalesAnalytics.of(history, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Double> revenueByProduct() {
+        return analytics.revenueByProduct();
+    }
+
+    @Benchmark
+    public Map<LocalDateTime, Double> revenueByHour() {
+        return analytics.revenueByHour();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> basketSizeDistribution() {
+        return analytics.basketSizeDistribution();
+    }
+
+    @Benchmark
+    public Map<SalesAnalytics.ProductPair, Long> coOccurrences() {
+        return analytics.coOccurrences();
+    }
+}
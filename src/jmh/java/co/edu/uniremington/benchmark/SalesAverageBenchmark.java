@@ -0,0 +1,109 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.analytics.SalesReports;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time-indexed {@link SaleService#calculateAverageSalesByPeriod} against
+ * the full scan over the sales history it replaced and the averages materialized by
+ * {@link SalesReports}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SalesAverageBenchmark {
+    @Param({"100000", "1000000", "10000000"})
+    private int salesHistory;
+
+    private SaleService saleService;
+    private SalesReports reports;
+    private List<Sale> history;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProductService productService = new ProductServiceImpl();
+        reports = new SalesReports();
+        saleService = new SaleServiceImpl(productService, reports);
+        Product product = productService.addProduct(Product.builder()
+                .name("Coffee")
+                .description("Ground coffee")
+                .price(10.0)
+                .stock(Integer.MAX_VALUE)
+                .build());
+
+        now = LocalDateTime.now();
+        history = new ArrayList<>(salesHistory);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < salesHistory; i++) {
+            int quantity = 1 + random.nextInt(5);
+            Sale sale = Sale.builder()
+                    .id(Integer.toString(i))
+                    .code("SALE-" + i)
+                    .date(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60)))
+                    .items(List.of(SaleItem.builder()
+                            .product(product)
+                            .quantity(quantity)
+                            .subtotal(quantity * product.getPrice())
+                            .build()))
+                    .total(quantity * product.getPrice())
+                    .build();
+            history.add(saleService.registerSale(sale));
+        }
+    }
+
+    @Benchmark
+    public double indexedYearlyAverage() {
+        return saleService.calculateAverageSalesByPeriod(now.minusYears(1), now);
+    }
+
+    @Benchmark
+    public double indexedWeeklyAverage() {
+        return saleService.calculateAverageSalesByPeriod(now.minusWeeks(1), now);
+    }
+
+    @Benchmark
+    public double materializedYearlyAverage() {
+        return reports.report(SalesReports.Period.YEAR).dailyAverage();
+    }
+
+    @Benchmark
+    public double materializedWeeklyAverage() {
+        return reports.report(SalesReports.Period.WEEK).dailyAverage();
+    }
+
+    @Benchmark
+    public double scanYearlyAverage() {
+        return scanAverage(now.minusYears(1), now);
+    }
+
+    @Benchmark
+    public double scanWeeklyAverage() {
+        return scanAverage(now.minusWeeks(1), now);
+    }
+
+    private double scanAverage(LocalDateTime start, LocalDateTime end) {
+        double total = history.stream()
+                .filter(sale -> !sale.getDate().isBefore(start) && !sale.getDate().isAfter(end))
+                .mapToDouble(Sale::getTotal)
+                .sum();
+        return total / (ChronoUnit.DAYS.between(start, end) + 1);
+    }
+}
@@ -0,0 +1,94 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.analytics.sketch.SalesSketches;
+import co.edu.uniremington.analytics.sketch.SpaceSaving.HeavyHitter;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping {@link SalesSketches} up to date and of querying them, next to the
+ * exact {@code getMostSoldProduct} of the product service, over 100,000 recent sales of
+ * a catalog of 10,000 products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalesSketchesBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int SALES = 100_000;
+
+    private SalesSketches sketches;
+    private ProductService productService;
+    private List<Sale> sales;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        productService = new ProductServiceImpl();
+        Product[] catalog = new Product[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog[i] = productService.addProduct(Product.builder()
+                    .name("Product " + i)
+                    .price(1 + i % 100)
+                    .stock(Integer.MAX_VALUE)
+                    .build());
+        }
+        sketches = new SalesSketches();
+        sales = new ArrayList<>(SALES);
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < SALES; i++) {
+            Product product = catalog[random.nextInt(CATALOG_SIZE)];
+            int quantity = 1 + random.nextInt(5);
+            Sale sale = new Sale("S" + i, null, now, List.of(new SaleItem(product, quantity, product.getPrice() * quantity)),
+                    product.getPrice() * quantity);
+            sales.add(sale);
+            sketches.record(sale);
+            productService.incrementProductSales(product.getId(), quantity);
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        sketches.record(sales.get(next++ % SALES));
+    }
+
+    @Benchmark
+    public List<HeavyHitter> topProducts() {
+        return sketches.topProducts(10);
+    }
+
+    @Benchmark
+    public long estimatedQuantity() {
+        return sketches.estimatedQuantity(sales.get(next++ % SALES).getItems().get(0).getProduct().getId());
+    }
+
+    @Benchmark
+    public long distinctProducts() {
+        return sketches.distinctProducts();
+    }
+
+    @Benchmark
+    public double totalQuantile() {
+        return sketches.totalQuantile(0.99);
+    }
+
+    @Benchmark
+    public Optional<Product> exactMostSold() {
+        return productService.getMostSoldProduct();
+    }
+}
@@ -0,0 +1,74 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import co.edu.uniremington.service.impl.ShardedProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sale throughput of {@link ShardedProductService} by shard count, against the
+ * unsharded {@link ProductServiceImpl} ({@code shards = 0}). A fifth of the sales go to
+ * a handful of promoted products to reproduce hot-SKU contention. Run it with several
+ * benchmark threads, e.g. {@code -Djmh.args="ShardedStore 1,4,16"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ShardedStoreBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int HOT_PRODUCTS = 8;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int shards;
+
+    private ProductService productService;
+    private SaleService saleService;
+    private Product[] catalog;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        productService = shards == 0 ? new ProductServiceImpl() : new ShardedProductService(shards);
+        saleService = new SaleServiceImpl(productService);
+        catalog = new Product[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog[i] = productService.addProduct(Product.builder()
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + i % 100)
+                    .stock(Integer.MAX_VALUE)
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (productService instanceof ShardedProductService sharded) {
+            sharded.close();
+        }
+    }
+
+    @Benchmark
+    public Sale registerSale() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Product first = random.nextInt(5) == 0
+                ? catalog[random.nextInt(HOT_PRODUCTS)]
+                : catalog[random.nextInt(CATALOG_SIZE)];
+        return saleService.registerSale(Sale.builder()
+                .items(List.of(
+                        SaleItem.builder().product(first).quantity(1).build(),
+                        SaleItem.builder().product(catalog[random.nextInt(CATALOG_SIZE)]).quantity(2).build()))
+                .build());
+    }
+}
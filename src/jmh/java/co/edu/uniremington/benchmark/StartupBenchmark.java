@@ -0,0 +1,125 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.StartupProbe;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.persistence.DurableStore;
+import co.edu.uniremington.persistence.StoreImage;
+import co.edu.uniremington.service.impl.ColumnarProductService;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to first sale of a freshly launched JVM: each operation runs {@link StartupProbe}
+ * in a new process that starts either from a {@link StoreImage} or by recovering a
+ * {@link DurableStore} snapshot of the same catalog, and waits for it to exit.
+ *
+ * <p>With {@code -p archive=cds} the process runs from the jar with the class data
+ * sharing archive built by {@code mvn -Pcds package}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+    private static final Path JAR = Path.of("target", "functional_store-1.0-SNAPSHOT.jar");
+    private static final Path ARCHIVE = Path.of("target", "store.jsa");
+    private static final int SALES = 10_000;
+
+    @Param({"image", "store"})
+    private String source;
+
+    @Param({"none"})
+    private String archive;
+
+    @Param({"200000"})
+    private int catalogSize;
+
+    private Path directory;
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("startup-benchmark");
+        SplittableRandom random = new SplittableRandom(42);
+        List<Product> catalog = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            catalog.add(Product.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()).toString())
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1 + random.nextInt(10_000) / 100.0)
+                    .stock(1_000_000)
+                    .build());
+        }
+        List<Sale> sales = new ArrayList<>(SALES);
+        for (int i = 0; i < SALES; i++) {
+            var items = List.of(SaleItem.builder().product(catalog.get(random.nextInt(catalogSize))).quantity(1).build());
+            sales.add(Sale.builder().items(items).build());
+        }
+
+        Path target;
+        if (source.equals("image")) {
+            var products = new ColumnarProductService(catalogSize);
+            var saleService = new SaleServiceImpl(products);
+            products.addProducts(catalog);
+            saleService.registerSales(sales);
+            target = directory.resolve("store.img");
+            StoreImage.write(target, products, saleService);
+        } else {
+            target = directory.resolve("store");
+            try (DurableStore store = DurableStore.open(target)) {
+                store.productService().addProducts(catalog);
+                store.saleService().registerSales(sales);
+                store.checkpoint();
+            }
+        }
+
+        command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (archive.equals("cds")) {
+            if (!Files.exists(JAR) || !Files.exists(ARCHIVE)) {
+                throw new IllegalStateException("Run mvn -Pcds package first");
+            }
+            command.addAll(List.of("-XX:SharedArchiveFile=" + ARCHIVE, "-Xlog:cds=off", "-classpath", JAR.toString()));
+        } else {
+            command.addAll(List.of("-classpath", System.getProperty("java.class.path")));
+        }
+        command.addAll(List.of(StartupProbe.class.getName(), source, target.toString()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstSale() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("StartupProbe exited with " + exitCode);
+        }
+        return exitCode;
+    }
+}
@@ -0,0 +1,76 @@
+package co.edu.uniremington.benchmark;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.impl.ColumnarProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Readers, optimistic price edits and stock reservations running at the same time over a
+ * few hot products. Price edits go through {@link ProductService#updateProduct(String,
+ * java.util.function.UnaryOperator)}, so they retry whenever a sale or another edit
+ * changes the product between the read and the write.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionedUpdateBenchmark {
+    @Param({"map", "columnar"})
+    private String implementation;
+
+    @Param({"1", "16"})
+    private int hotProducts;
+
+    private ProductService productService;
+    private String[] ids;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        productService = implementation.equals("map") ? new ProductServiceImpl() : new ColumnarProductService();
+        ids = new String[hotProducts];
+        for (int i = 0; i < hotProducts; i++) {
+            ids[i] = productService.addProduct(Product.builder()
+                    .name("Hot product " + i)
+                    .description("Contended product " + i)
+                    .price(10.0)
+                    .stock(Integer.MAX_VALUE / 2)
+                    .build()).getId();
+        }
+    }
+
+    private String anyId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public Optional<Product> read() {
+        return productService.findById(anyId());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public Optional<Product> editPrice() {
+        return productService.updateProduct(anyId(), product -> product.toBuilder().price(product.getPrice() + 0.01).build());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public boolean sell() {
+        String id = anyId();
+        boolean reserved = productService.reserveStock(id, 1);
+        productService.releaseStock(id, 1);
+        return reserved;
+    }
+}
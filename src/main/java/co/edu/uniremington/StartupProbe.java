@@ -0,0 +1,109 @@
+package co.edu.uniremington;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.persistence.DurableStore;
+import co.edu.uniremington.persistence.StoreImage;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Starts a store, registers one sale and reports the time elapsed since the JVM was
+ * launched, which is what a restarted instance takes to become useful.
+ *
+ * <p>Usage: {@code StartupProbe image <file>} starts from a {@link StoreImage},
+ * {@code StartupProbe store <directory>} recovers a {@link DurableStore}, and without
+ * arguments it builds a small image in a temporary directory and starts from it, which
+ * is the training run used to create the class data sharing archive.
+ */
+public final class StartupProbe {
+    private static final int TRAINING_PRODUCTS = 1_000;
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1 && args[0].equals("image")) {
+            sellFromImage(Path.of(args[1]));
+        } else if (args.length > 1 && args[0].equals("store")) {
+            sellFromStore(Path.of(args[1]));
+        } else {
+            train();
+        }
+        System.out.println("Tiempo hasta la primera venta: " + sinceLaunch().toMillis() + " ms");
+    }
+
+    private static void sellFromImage(Path file) throws IOException {
+        StoreImage image = StoreImage.open(file);
+        sellOne(image.productService(), image.saleService(), image.productId(0));
+    }
+
+    private static void sellFromStore(Path directory) throws IOException {
+        try (DurableStore store = DurableStore.open(directory)) {
+            String productId = store.productService().streamAll()
+                    .findFirst()
+                    .map(Product::getId)
+                    .orElseThrow(() -> new IllegalStateException("La tienda no tiene productos"));
+            sellOne(store.productService(), store.saleService(), productId);
+        }
+    }
+
+    private static void train() throws IOException {
+        Path directory = Files.createTempDirectory("store-startup");
+        try {
+            ProductService products = new ProductServiceImpl();
+            SaleService sales = new SaleServiceImpl(products);
+            for (int i = 0; i < TRAINING_PRODUCTS; i++) {
+                Product product = products.addProduct(Product.builder()
+                        .name("Producto " + i)
+                        .description("Producto de entrenamiento")
+                        .price(1 + i % 100)
+                        .stock(100)
+                        .build());
+                sellOne(products, sales, product.getId());
+            }
+            Path image = directory.resolve("store.img");
+            StoreImage.write(image, products, sales);
+            sellFromImage(image);
+            try (DurableStore store = DurableStore.open(directory.resolve("store"))) {
+                store.productService().addProducts(products.findAll());
+                sellOne(store.productService(), store.saleService(), products.findAll().get(0).getId());
+                store.checkpoint();
+            }
+            sellFromStore(directory.resolve("store"));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static void sellOne(ProductService products, SaleService sales, String productId) {
+        Product product = products.findById(productId)
+                .orElseThrow(() -> new IllegalStateException("Producto no encontrado: " + productId));
+        sales.registerSale(Sale.builder()
+                .items(List.of(SaleItem.builder().product(product).quantity(1).build()))
+                .build());
+    }
+
+    private static Duration sinceLaunch() {
+        Instant launch = ProcessHandle.current().info().startInstant()
+                .orElseGet(() -> Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime()));
+        return Duration.between(launch, Instant.now());
+    }
+}
@@ -1,28 +1,106 @@
 package co.edu.uniremington;
 
+import co.edu.uniremington.analytics.SalesReports;
+import co.edu.uniremington.analytics.sketch.SalesSketches;
+import co.edu.uniremington.events.StoreEventBus;
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.http.StoreHttpServer;
+import co.edu.uniremington.metrics.Metrics;
 import co.edu.uniremington.model.Product;
 import co.edu.uniremington.model.Sale;
 import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.persistence.DurableStore;
+import co.edu.uniremington.persistence.Replica;
+import co.edu.uniremington.persistence.Replicator;
+import co.edu.uniremington.persistence.StoreImage;
 import co.edu.uniremington.service.ProductService;
 import co.edu.uniremington.service.SaleService;
 import co.edu.uniremington.service.impl.ProductServiceImpl;
 import co.edu.uniremington.service.impl.SaleServiceImpl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 public class StoreApplication {
+    private static final int EVENT_BUFFER = 1 << 16;
+    private static final int EVENT_BATCH_SIZE = 256;
+    private static final Duration EVENT_MAX_DELAY = Duration.ofMillis(50);
+
     private final Scanner scanner;
     private final ProductService productService;
     private final SaleService saleService;
+    private final DurableStore store;
+    private final Replicator replicator;
+    private final StoreEventBus events;
+    private final SalesSketches trends;
+    private final SalesReports reports;
+    private boolean reportsLoaded;
 
     public StoreApplication() {
         this.scanner = new Scanner(System.in);
-        this.productService = new ProductServiceImpl();
-        this.saleService = new SaleServiceImpl(productService);
+        this.trends = new SalesSketches();
+        this.reports = new SalesReports();
+        // Trends, and the reports once loaded, are updated in batches off the threads that
+        // change the store. Trends may drop events under load; the reports never do
+        this.events = new StoreEventBus(ForkJoinPool.commonPool(), EVENT_BUFFER);
+        events.subscribe(EVENT_BATCH_SIZE, EVENT_MAX_DELAY, trends::publishAll);
+        String dataDirectory = System.getProperty("store.dir");
+        String imageFile = System.getProperty("store.image");
+        if (dataDirectory == null && imageFile != null) {
+            StoreImage image = openImage(Path.of(imageFile), events);
+            this.store = null;
+            this.replicator = null;
+            this.productService = image.productService();
+            this.saleService = image.saleService();
+        } else if (dataDirectory == null) {
+            this.store = null;
+            this.replicator = null;
+            this.productService = new ProductServiceImpl(events);
+            this.saleService = new SaleServiceImpl(productService, events);
+        } else {
+            this.store = openStore(Path.of(dataDirectory), events);
+            this.replicator = startReplication(store, Integer.getInteger("store.replication.port"));
+            this.productService = store.productService();
+            this.saleService = store.saleService();
+        }
+    }
+
+    private static DurableStore openStore(Path directory, StoreEventSink events) {
+        try {
+            return DurableStore.open(directory, Duration.ofMinutes(5), events);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Replicator startReplication(DurableStore store, Integer port) {
+        if (port == null) {
+            return null;
+        }
+        try {
+            Replicator replicator = Replicator.start(store, port);
+            System.out.println("Replicación disponible en el puerto " + replicator.port());
+            return replicator;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static StoreImage openImage(Path file, StoreEventSink events) {
+        try {
+            return StoreImage.open(file, events);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     public void start() {
@@ -32,6 +110,58 @@ public class StoreApplication {
             if (option == 0) break;
             processOption(option);
         }
+        closeStore();
+    }
+
+    /**
+     * Serves the store over HTTP instead of the console menu until the process is
+     * stopped.
+     */
+    public void serve(int port) throws IOException {
+        StoreHttpServer server = StoreHttpServer.start(port, productService, saleService, reports());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            closeStore();
+        }));
+        System.out.println("Tienda disponible en http://localhost:" + server.port());
+    }
+
+    /**
+     * Writes the current catalog and sales history as an image that later instances can
+     * start from with {@code -Dstore.image}.
+     */
+    public void writeImage(Path file) throws IOException {
+        StoreImage.write(file, productService, saleService);
+        closeStore();
+        System.out.println("Imagen de la tienda escrita en " + file);
+    }
+
+    /**
+     * Returns the reports, built from the catalog and history the first time they are
+     * needed and then kept up to date by every event published after that. Loading them
+     * on first use keeps an image from being read whole at startup.
+     */
+    private SalesReports reports() {
+        if (!reportsLoaded) {
+            reports.follow(events, productService, saleService);
+            reportsLoaded = true;
+        }
+        return reports;
+    }
+
+    private void closeStore() {
+        try {
+            if (replicator != null) {
+                replicator.close();
+            }
+            if (store != null) {
+                store.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            events.close();
+        }
     }
 
     private void showMenu() {
@@ -46,6 +176,9 @@ public class StoreApplication {
         System.out.println("8. Ver promedios de ventas");
         System.out.println("9. Ver producto más vendido");
         System.out.println("10. Ver producto menos vendido");
+        System.out.println("11. Ver métricas");
+        System.out.println("12. Ver tendencias de la última hora");
+        System.out.println("13. Ver reportes por periodo");
         System.out.println("0. Salir");
         System.out.print("Seleccione una opción: ");
     }
@@ -66,6 +199,9 @@ public class StoreApplication {
             case 8 -> showSalesAverages();
             case 9 -> showMostSoldProduct();
             case 10 -> showLeastSoldProduct();
+            case 11 -> showMetrics();
+            case 12 -> showTrends();
+            case 13 -> showReports();
             default -> System.out.println("Opción inválida");
         }
     }
@@ -96,14 +232,19 @@ public class StoreApplication {
 
         if (!items.isEmpty()) {
             Sale sale = Sale.builder().items(items).build();
-            sale = saleService.registerSale(sale);
+            try {
+                sale = saleService.registerSale(sale);
+            } catch (IllegalStateException e) {
+                System.out.println("No se pudo registrar la venta: " + e.getMessage());
+                return;
+            }
             System.out.println("Venta registrada con código: " + sale.getCode());
             System.out.println("Total: $" + sale.getTotal());
         }
     }
 
     private void showAllSales() {
-        saleService.findAll().forEach(sale -> {
+        saleService.streamAll().forEach(sale -> {
             System.out.println("\nCódigo: " + sale.getCode());
             System.out.println("Fecha: " + sale.getDate());
             System.out.println("Total: $" + sale.getTotal());
@@ -160,15 +301,19 @@ public class StoreApplication {
                         .stock(stockStr.isEmpty() ? product.getStock() : Integer.parseInt(stockStr))
                         .build();
 
-                productService.updateProduct(updatedProduct);
-                System.out.println("Producto actualizado exitosamente");
+                try {
+                    productService.updateProduct(updatedProduct, product.getVersion());
+                    System.out.println("Producto actualizado exitosamente");
+                } catch (ConcurrentModificationException e) {
+                    System.out.println("El producto cambió mientras se editaba, intente de nuevo");
+                }
             },
             () -> System.out.println("Producto no encontrado")
         );
     }
 
     private void showAllProducts() {
-        productService.findAll().forEach(this::printProduct);
+        productService.streamAll().forEach(this::printProduct);
     }
 
     private void findProductById() {
@@ -193,9 +338,26 @@ public class StoreApplication {
 
     private void showSalesAverages() {
         System.out.println("\nPromedios de ventas:");
-        System.out.printf("Semanal: $%.2f%n", saleService.calculateWeeklyAverage());
-        System.out.printf("Mensual: $%.2f%n", saleService.calculateMonthlyAverage());
-        System.out.printf("Anual: $%.2f%n", saleService.calculateYearlyAverage());
+        for (SalesReports.Period period : SalesReports.Period.values()) {
+            System.out.printf("%s: $%.2f%n", period.label(), reports().report(period).dailyAverage());
+        }
+    }
+
+    private void showReports() {
+        for (SalesReports.Period period : SalesReports.Period.values()) {
+            SalesReports.PeriodReport report = reports().report(period);
+            System.out.printf("%n%s (%s a %s)%n", period.label(), report.start(), report.end());
+            System.out.printf("Ventas: %d, total: $%.2f, promedio diario: $%.2f%n",
+                    report.sales(), report.revenue(), report.dailyAverage());
+            report.bestSeller().ifPresent(seller -> printSeller("Más vendido", seller));
+            report.worstSeller().ifPresent(seller -> printSeller("Menos vendido", seller));
+        }
+        System.out.println("\nProductos sin stock: " + reports().outOfStockCount());
+    }
+
+    private void printSeller(String title, SalesReports.Seller seller) {
+        String name = productService.findById(seller.productId()).map(Product::getName).orElse(seller.productId());
+        System.out.println(title + ": " + name + " (" + seller.units() + " unidades)");
     }
 
     private void showMostSoldProduct() {
@@ -220,6 +382,30 @@ public class StoreApplication {
                 );
     }
 
+    private void showMetrics() {
+        if (!Metrics.ENABLED) {
+            System.out.println("Las métricas están desactivadas (use -Dstore.metrics=true)");
+            return;
+        }
+        System.out.print(Metrics.dump());
+    }
+
+    private void showTrends() {
+        // Trends are fed by a subscriber that drops events when it falls behind
+        System.out.println("Eventos descartados por retraso (las tendencias los omiten): " + events.droppedEvents());
+        long sales = trends.salesCount();
+        if (sales == 0) {
+            System.out.println("No hay ventas en la última hora");
+            return;
+        }
+        System.out.println("Ventas (aprox.): " + sales);
+        System.out.println("Productos distintos vendidos (aprox.): " + trends.distinctProducts());
+        System.out.printf("Total de venta: mediana $%.2f, p90 $%.2f, p99 $%.2f%n",
+                trends.totalQuantile(0.5), trends.totalQuantile(0.9), trends.totalQuantile(0.99));
+        System.out.println("Productos más vendidos (aprox.):");
+        trends.topProducts(5).forEach(hitter -> System.out.println("  " + hitter.key() + ": " + hitter.count() + " unidades"));
+    }
+
     private void printProduct(Product product) {
         System.out.println("\nID: " + product.getId());
         System.out.println("Nombre: " + product.getName());
@@ -228,7 +414,60 @@ public class StoreApplication {
         System.out.println("Stock: " + product.getStock());
     }
 
-    public static void main(String[] args) {
-        new StoreApplication().start();
+    /**
+     * Runs a hot standby of the store replicated from {@code primary} ({@code host:port}),
+     * reporting its lag until the primary goes away. The replicated state is then
+     * written as a new durable store in {@code promoteTo}, if given, so that it can take
+     * over with {@code -Dstore.dir}. A replica that had not caught up is only promoted
+     * with {@code force}.
+     */
+    private static void runReplica(String primary, Path promoteTo, boolean force) throws IOException {
+        int separator = primary.lastIndexOf(':');
+        try (Replica replica = Replica.connect(primary.substring(0, separator), Integer.parseInt(primary.substring(separator + 1)))) {
+            System.out.println("Réplica conectada a " + primary);
+            boolean caughtUp = false;
+            while (replica.isConnected()) {
+                try {
+                    replica.awaitSequence(Long.MAX_VALUE, Duration.ofSeconds(5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (!caughtUp && replica.catchUpTime().isPresent()) {
+                    caughtUp = true;
+                    System.out.printf("Puesta al día en %d ms (%.0f registros/s)%n",
+                            replica.catchUpTime().get().toMillis(), replica.catchUpRate());
+                }
+                System.out.printf("Secuencia aplicada: %d, retraso: %d registros, %d us%n",
+                        replica.appliedSequence(), replica.lagEntries(), replica.lagMicros());
+            }
+            System.out.println("Se perdió la conexión con la tienda principal");
+            replica.failure().ifPresent(failure -> System.out.println(failure.getMessage() + ": " + failure.getCause()));
+            if (promoteTo != null && !force && !replica.isCaughtUp()) {
+                System.out.printf("La réplica no está al día (secuencia aplicada %d, retraso %d registros): "
+                        + "no se promueve sin --force%n", replica.appliedSequence(), replica.lagEntries());
+            } else if (promoteTo != null) {
+                replica.promote(promoteTo, force).close();
+                System.out.println("Réplica promovida: inicie la tienda con -Dstore.dir=" + promoteTo);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("http")) {
+            // The JDK server writes headers and body separately; without TCP_NODELAY every
+            // response waits for the client's delayed ACK (~40 ms). Read once, on startup.
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            new StoreApplication().serve(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+        } else if (args.length > 1 && args[0].equals("replica")) {
+            runReplica(args[1], args.length > 2 ? Path.of(args[2]) : null,
+                    args.length > 3 && args[3].equals("--force"));
+        } else if (args.length > 1 && args[0].equals("image")) {
+            new StoreApplication().writeImage(Path.of(args[1]));
+        } else {
+            new StoreApplication().start();
+        }
     }
 }
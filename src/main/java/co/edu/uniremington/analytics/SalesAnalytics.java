@@ -0,0 +1,150 @@
+package co.edu.uniremington.analytics;
+
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.SaleService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reports over an immutable snapshot of the sales history, computed with parallel streams.
+ *
+ * <p>Each report partitions the snapshot across the fork-join pool. Every worker
+ * aggregates its part into a private map, and the partial maps are merged at the end, so
+ * hot keys never become a point of contention between workers. The snapshot is taken once
+ * when the instance is created; sales registered afterwards are not reflected.
+ */
+public final class SalesAnalytics {
+    /**
+     * Unordered pair of products bought in the same sale; {@code first} sorts before {@code second}.
+     */
+    public record ProductPair(String first, String second) {
+        public static ProductPair of(String a, String b) {
+            return a.compareTo(b) <= 0 ? new ProductPair(a, b) : new ProductPair(b, a);
+        }
+    }
+
+    private final List<Sale> sales;
+    private final ForkJoinPool pool;
+
+    private SalesAnalytics(List<Sale> sales, ForkJoinPool pool) {
+        this.sales = sales;
+        this.pool = pool;
+    }
+
+    public static SalesAnalytics of(Collection<Sale> sales) {
+        return of(sales, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Snapshots {@code sales} and runs every report on {@code pool}.
+     */
+    public static SalesAnalytics of(Collection<Sale> sales, ForkJoinPool pool) {
+        return new SalesAnalytics(List.copyOf(sales), pool);
+    }
+
+    public static SalesAnalytics of(SaleService saleService) {
+        return of(saleService.findAll());
+    }
+
+    public int size() {
+        return sales.size();
+    }
+
+    public Map<String, Double> revenueByProduct() {
+        return run(() -> items()
+                .collect(Collectors.groupingBy(item -> item.getProduct().getId(),
+                        Collectors.summingDouble(SaleItem::getSubtotal))));
+    }
+
+    public Map<LocalDate, Double> revenueByDay() {
+        return run(() -> dated()
+                .collect(Collectors.groupingBy(sale -> sale.getDate().toLocalDate(),
+                        Collectors.summingDouble(Sale::getTotal))));
+    }
+
+    /**
+     * Revenue per calendar hour, keyed by the start of the hour.
+     */
+    public Map<LocalDateTime, Double> revenueByHour() {
+        return run(() -> dated()
+                .collect(Collectors.groupingBy(sale -> sale.getDate().truncatedTo(ChronoUnit.HOURS),
+                        Collectors.summingDouble(Sale::getTotal))));
+    }
+
+    /**
+     * Number of sales per basket size, where the size of a basket is the total number of
+     * units it contains.
+     */
+    public Map<Integer, Long> basketSizeDistribution() {
+        return run(() -> sales.parallelStream()
+                .collect(Collectors.groupingBy(
+                        sale -> sale.getItems().stream().mapToInt(SaleItem::getQuantity).sum(),
+                        Collectors.counting())));
+    }
+
+    /**
+     * Number of sales in which each pair of distinct products was bought together.
+     */
+    public Map<ProductPair, Long> coOccurrences() {
+        return run(() -> sales.parallelStream()
+                .flatMap(SalesAnalytics::pairs)
+                .collect(Collectors.groupingBy(pair -> pair, Collectors.counting())));
+    }
+
+    /**
+     * The {@code n} pairs of products most often bought together, most frequent first.
+     */
+    public List<Map.Entry<ProductPair, Long>> topCoOccurrences(int n) {
+        return coOccurrences().entrySet().stream()
+                .sorted(Map.Entry.<ProductPair, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(entry -> entry.getKey().first())
+                        .thenComparing(entry -> entry.getKey().second()))
+                .limit(n)
+                .toList();
+    }
+
+    private Stream<SaleItem> items() {
+        return sales.parallelStream().flatMap(sale -> sale.getItems().stream());
+    }
+
+    private Stream<Sale> dated() {
+        return sales.parallelStream().filter(sale -> sale.getDate() != null);
+    }
+
+    private static Stream<ProductPair> pairs(Sale sale) {
+        String[] ids = sale.getItems().stream()
+                .map(item -> item.getProduct().getId())
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+        Stream.Builder<ProductPair> pairs = Stream.builder();
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                pairs.add(new ProductPair(ids[i], ids[j]));
+            }
+        }
+        return pairs.build();
+    }
+
+    /**
+     * Parallel streams run on the pool of the thread that starts them, so reports meant
+     * for a dedicated pool are started from one of its workers.
+     */
+    private <T> T run(Supplier<T> report) {
+        if (pool == ForkJoinPool.commonPool()) {
+            return report.get();
+        }
+        return pool.submit(report::get).join();
+    }
+}
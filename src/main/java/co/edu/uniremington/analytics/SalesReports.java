@@ -0,0 +1,348 @@
+package co.edu.uniremington.analytics;
+
+import co.edu.uniremington.events.StoreEvent;
+import co.edu.uniremington.events.StoreEventBus;
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Weekly, monthly and yearly sales reports kept up to date from the events of the store
+ * services instead of being computed from the sales history on every read.
+ *
+ * <p>Sales are added up in one bucket per day. Each period is a sliding window over the
+ * buckets from the same day of the previous week, month or year up to today, with its
+ * revenue, sales count and units sold per product ranked to find the best and worst
+ * sellers. A sale updates the bucket of its day and the windows that contain it; when
+ * the day changes, the buckets that enter and leave each window are added and
+ * subtracted, and those older than a year are dropped. Reports are rebuilt after every
+ * event, or once per batch given to {@link #publishAll}, so reading one costs the same
+ * regardless of the history.
+ *
+ * <p>Updates take the instance monitor, so the store should feed the reports through
+ * {@link #follow}, a lossless {@link StoreEventBus} subscription, rather than publish to
+ * them while it applies each change: a single dropped event would leave the totals
+ * wrong until the next reload. Reports then trail the services by the events still
+ * queued.
+ *
+ * <p>Periods are resolved to whole days, read from the sale dates like the rest of the
+ * store. The worst seller of a period is the product with the fewest units among those
+ * sold in it.
+ */
+public final class SalesReports implements StoreEventSink {
+    public enum Period {
+        WEEK("Semanal"),
+        MONTH("Mensual"),
+        YEAR("Anual");
+
+        private final String label;
+
+        Period(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        /**
+         * Returns the first day of the period that ends on {@code end}.
+         */
+        public LocalDate start(LocalDate end) {
+            return switch (this) {
+                case WEEK -> end.minusWeeks(1);
+                case MONTH -> end.minusMonths(1);
+                case YEAR -> end.minusYears(1);
+            };
+        }
+    }
+
+    public record Seller(String productId, long units) {
+    }
+
+    /**
+     * Sales between {@code start} and {@code end}, both included. The daily average
+     * divides the revenue by the days of the period, like
+     * {@link SaleService#calculateAverageSalesByPeriod}.
+     */
+    public record PeriodReport(Period period, LocalDate start, LocalDate end, long sales, double revenue,
+                               double dailyAverage, Optional<Seller> bestSeller, Optional<Seller> worstSeller) {
+    }
+
+    /**
+     * How far back a sale reloaded from the history may have been registered while its
+     * event was still on its way.
+     */
+    private static final int EVENT_BATCH_SIZE = 256;
+    private static final Duration RELOAD_OVERLAP = Duration.ofMinutes(1);
+    private static final Comparator<Seller> BY_UNITS = Comparator
+            .comparingLong(Seller::units)
+            .thenComparing(Seller::productId);
+
+    private final Clock clock;
+    private final NavigableMap<Long, Day> days = new TreeMap<>();
+    private final Window[] windows = new Window[Period.values().length];
+    private final Set<String> outOfStock = new HashSet<>();
+    /** Recent sales recorded by {@link #reload} whose event may still be delivered. */
+    private final Set<String> reloadedSales = new HashSet<>();
+    private long endOfDayMillis;
+    private volatile Snapshot snapshot;
+
+    public SalesReports() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public SalesReports(Clock clock) {
+        this.clock = clock;
+        synchronized (this) {
+            reset(LocalDate.now(clock));
+        }
+    }
+
+    @Override
+    public synchronized void publish(StoreEvent event) {
+        if (apply(event)) {
+            refresh();
+        }
+    }
+
+    /**
+     * Applies a batch of events and rebuilds the reports once.
+     */
+    @Override
+    public synchronized void publishAll(List<StoreEvent> events) {
+        boolean changed = false;
+        for (StoreEvent event : events) {
+            changed |= apply(event);
+        }
+        if (changed) {
+            refresh();
+        }
+    }
+
+    private boolean apply(StoreEvent event) {
+        return switch (event) {
+            case StoreEvent.SaleRegistered registered -> {
+                if (reloadedSales.remove(registered.sale().getId())) {
+                    yield false;
+                }
+                advance(LocalDate.now(clock));
+                record(registered.sale());
+                yield true;
+            }
+            case StoreEvent.StockChanged stock -> stock.currentStock() == 0
+                    ? outOfStock.add(stock.productId())
+                    : outOfStock.remove(stock.productId());
+        };
+    }
+
+    /**
+     * Keeps the reports up to date with every event published to {@code events} from now
+     * on and then rebuilds them from the services, which may have been loaded without
+     * publishing their events, e.g. from a snapshot or an image. The services may take
+     * traffic meanwhile: a sale registered around the reload is counted once, whether
+     * its event arrives before or after it.
+     */
+    public void follow(StoreEventBus events, ProductService productService, SaleService saleService) {
+        events.subscribeLossless(EVENT_BATCH_SIZE, this::publishAll);
+        reload(productService, saleService);
+    }
+
+    /**
+     * Discards the reports and rebuilds them from the current catalog and sales history.
+     * Sales dated in the last {@link #RELOAD_OVERLAP} are remembered so that their
+     * events, if still queued, are not counted again.
+     */
+    public synchronized void reload(ProductService productService, SaleService saleService) {
+        reset(LocalDate.now(clock));
+        reloadedSales.clear();
+        for (Product product : productService.findOutOfStock()) {
+            outOfStock.add(product.getId());
+        }
+        LocalDateTime recent = LocalDateTime.now(clock).minus(RELOAD_OVERLAP);
+        saleService.streamAll().forEach(sale -> {
+            record(sale);
+            if (sale.getDate() == null || !sale.getDate().isBefore(recent)) {
+                reloadedSales.add(sale.getId());
+            }
+        });
+        refresh();
+    }
+
+    public PeriodReport report(Period period) {
+        return current().reports()[period.ordinal()];
+    }
+
+    public long outOfStockCount() {
+        return current().outOfStock();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (clock.millis() < current.expiresMillis()) {
+            return current;
+        }
+        synchronized (this) {
+            advance(LocalDate.now(clock));
+            refresh();
+            return snapshot;
+        }
+    }
+
+    private void reset(LocalDate today) {
+        days.clear();
+        outOfStock.clear();
+        for (Period period : Period.values()) {
+            windows[period.ordinal()] = new Window(period.start(today).toEpochDay(), today.toEpochDay());
+        }
+        endOfDayMillis = endOfDay(today);
+        refresh();
+    }
+
+    private void record(Sale sale) {
+        long day = sale.getDate() == null ? windows[0].end : sale.getDate().toLocalDate().toEpochDay();
+        if (day < windows[Period.YEAR.ordinal()].start) {
+            return;
+        }
+        Day bucket = days.computeIfAbsent(day, ignored -> new Day());
+        bucket.add(sale, 1);
+        for (Window window : windows) {
+            if (window.start <= day && day <= window.end) {
+                window.add(sale, 1);
+            }
+        }
+    }
+
+    /**
+     * Slides every window so it ends on {@code today}. Does nothing if the clock went
+     * back.
+     */
+    private void advance(LocalDate today) {
+        long end = today.toEpochDay();
+        if (end <= windows[0].end) {
+            return;
+        }
+        for (Period period : Period.values()) {
+            Window window = windows[period.ordinal()];
+            long start = period.start(today).toEpochDay();
+            for (Day entering : days.subMap(window.end, false, end, true).values()) {
+                window.add(entering, 1);
+            }
+            for (Day leaving : days.subMap(window.start, true, start, false).values()) {
+                window.add(leaving, -1);
+            }
+            window.start = start;
+            window.end = end;
+        }
+        days.headMap(windows[Period.YEAR.ordinal()].start).clear();
+        endOfDayMillis = endOfDay(today);
+    }
+
+    private long endOfDay(LocalDate today) {
+        return today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private void refresh() {
+        PeriodReport[] reports = new PeriodReport[windows.length];
+        for (Period period : Period.values()) {
+            reports[period.ordinal()] = windows[period.ordinal()].report(period);
+        }
+        snapshot = new Snapshot(endOfDayMillis, reports, outOfStock.size());
+    }
+
+    /**
+     * Reports as of the day before {@code expiresMillis}, when the windows must slide.
+     */
+    private record Snapshot(long expiresMillis, PeriodReport[] reports, long outOfStock) {
+    }
+
+    /**
+     * Sales of one day: the revenue, the number of sales and the units sold per product.
+     */
+    private static class Day {
+        double revenue;
+        long sales;
+        final Map<String, Long> units = new HashMap<>();
+
+        void add(Sale sale, int sign) {
+            revenue += sign * sale.getTotal();
+            sales += sign;
+            for (SaleItem item : sale.getItems()) {
+                addUnits(item.getProduct().getId(), sign * (long) item.getQuantity());
+            }
+        }
+
+        void add(Day day, int sign) {
+            revenue += sign * day.revenue;
+            sales += sign * day.sales;
+            day.units.forEach((productId, units) -> addUnits(productId, sign * units));
+        }
+
+        void addUnits(String productId, long delta) {
+            units.merge(productId, delta, (current, added) -> current + added == 0 ? null : current + added);
+        }
+    }
+
+    /**
+     * A {@link Day} spanning the days from {@code start} to {@code end} that also keeps
+     * its products ranked by units sold.
+     */
+    private static final class Window extends Day {
+        long start;
+        long end;
+        final TreeSet<Seller> ranking = new TreeSet<>(BY_UNITS);
+
+        Window(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        void add(Day day, int sign) {
+            super.add(day, sign);
+            if (sales == 0) {
+                // Drop the rounding error left by subtracting the revenue of expired days
+                revenue = 0;
+            }
+        }
+
+        @Override
+        void addUnits(String productId, long delta) {
+            Long previous = units.get(productId);
+            if (previous != null) {
+                ranking.remove(new Seller(productId, previous));
+            }
+            super.addUnits(productId, delta);
+            Long current = units.get(productId);
+            if (current != null) {
+                ranking.add(new Seller(productId, current));
+            }
+        }
+
+        PeriodReport report(Period period) {
+            long dayCount = end - start + 1;
+            return new PeriodReport(period, LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(end), sales, revenue,
+                    revenue / dayCount,
+                    ranking.isEmpty() ? Optional.empty() : Optional.of(ranking.last()),
+                    ranking.isEmpty() ? Optional.empty() : Optional.of(ranking.first()));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package co.edu.uniremington.analytics.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch of per-key counts in {@code depth × width} longs. An estimate is
+ * never lower than the true count and, with probability {@code 1 - 2^-depth}, exceeds it
+ * by at most {@code 2 / width} of the total counted.
+ */
+public final class CountMinSketch implements Sketch<CountMinSketch> {
+    private final int depth;
+    private final int mask;
+    private final long[] counters;
+    private long total;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Dimensiones inválidas: " + depth + "x" + width);
+        }
+        this.depth = depth;
+        int columns = Integer.highestOneBit(Math.max(width, 2) * 2 - 1);
+        this.mask = columns - 1;
+        this.counters = new long[depth * columns];
+    }
+
+    public void add(String key, long count) {
+        add(Hashing.hash64(key), count);
+    }
+
+    void add(long hash, long count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[row * (mask + 1) + ((h1 + row * h2) & mask)] += count;
+        }
+        total += count;
+    }
+
+    public long estimate(String key) {
+        long hash = Hashing.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * (mask + 1) + ((h1 + row * h2) & mask)]);
+        }
+        return estimate;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    @Override
+    public void merge(CountMinSketch other) {
+        Hashing.requireCompatible(other.depth == depth && other.mask == mask);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+    }
+}
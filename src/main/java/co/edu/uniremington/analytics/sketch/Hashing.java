@@ -0,0 +1,34 @@
+package co.edu.uniremington.analytics.sketch;
+
+/**
+ * 64-bit string hash shared by the sketches: FNV-1a over the chars followed by the
+ * MurmurHash3 finalizer, so that every bit depends on every char. It does not depend on
+ * {@link String#hashCode()} and is stable across JVMs, which keeps sketches built by
+ * different instances mergeable.
+ */
+final class Hashing {
+    private Hashing() {
+    }
+
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    static void requireCompatible(boolean compatible) {
+        if (!compatible) {
+            throw new IllegalArgumentException("Los sketches no son compatibles");
+        }
+    }
+}
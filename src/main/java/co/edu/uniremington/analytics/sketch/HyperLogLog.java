@@ -0,0 +1,70 @@
+package co.edu.uniremington.analytics.sketch;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog estimate of the number of distinct keys in {@code 2^precision} one-byte
+ * registers, with a standard error of about {@code 1.04 / sqrt(2^precision)}: 1.6% with
+ * the default precision of 12, in 4 KB. Small cardinalities use linear counting.
+ */
+public final class HyperLogLog implements Sketch<HyperLogLog> {
+    public static final int DEFAULT_PRECISION = 12;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precisión fuera de rango: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(String key) {
+        add(Hashing.hash64(key));
+    }
+
+    void add(long hash) {
+        int register = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    @Override
+    public void merge(HyperLogLog other) {
+        Hashing.requireCompatible(other.precision == precision);
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+}
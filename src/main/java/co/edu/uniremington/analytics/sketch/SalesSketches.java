@@ -0,0 +1,180 @@
+package co.edu.uniremington.analytics.sketch;
+
+import co.edu.uniremington.analytics.sketch.SpaceSaving.HeavyHitter;
+import co.edu.uniremington.events.StoreEvent;
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Approximate live view of the sales of the last {@code window}, fed by the
+ * {@link StoreEvent.SaleRegistered} events of a sale service:
+ *
+ * <ul>
+ *   <li>units sold per product, from a {@link CountMinSketch};</li>
+ *   <li>the best-selling products, from {@link SpaceSaving};</li>
+ *   <li>distinct products sold, from a {@link HyperLogLog};</li>
+ *   <li>quantiles of the sale totals, from a {@link TDigest}.</li>
+ * </ul>
+ *
+ * <p>Every sketch lives in a {@link SlidingWindow}, so memory is fixed by the window
+ * parameters and not by the number of sales or products. Recording a sale costs a few
+ * hash computations under the instance monitor; queries merge the live buckets. Sales
+ * dated outside the window are ignored. Dates are read as UTC, like the sales time index.
+ *
+ * <p>Queries contend for the same monitor, so the store should feed the sketches through
+ * a {@link co.edu.uniremington.events.StoreEventBus} subscriber, which records each batch
+ * of sales with {@link #publishAll} off the threads that register them.
+ */
+public class SalesSketches implements StoreEventSink {
+    public static final Duration DEFAULT_WINDOW = Duration.ofHours(1);
+    public static final int DEFAULT_BUCKETS = 12;
+    private static final int COUNT_MIN_DEPTH = 4;
+    private static final int COUNT_MIN_WIDTH = 1024;
+    private static final int HEAVY_HITTERS = 64;
+    /**
+     * Taken first by {@link #merge} when both instances have the same identity hash, so
+     * two opposite merges never lock them in different orders.
+     */
+    private static final Object TIE_LOCK = new Object();
+
+    private final Clock clock;
+    private final SlidingWindow<CountMinSketch> quantities;
+    private final SlidingWindow<SpaceSaving> heavyHitters;
+    private final SlidingWindow<HyperLogLog> distinctProducts;
+    private final SlidingWindow<TDigest> totals;
+
+    public SalesSketches() {
+        this(DEFAULT_WINDOW, DEFAULT_BUCKETS, Clock.systemDefaultZone());
+    }
+
+    public SalesSketches(Duration window, int buckets, Clock clock) {
+        this.clock = clock;
+        this.quantities = new SlidingWindow<>(window, buckets, () -> new CountMinSketch(COUNT_MIN_DEPTH, COUNT_MIN_WIDTH));
+        this.heavyHitters = new SlidingWindow<>(window, buckets, () -> new SpaceSaving(HEAVY_HITTERS));
+        this.distinctProducts = new SlidingWindow<>(window, buckets, HyperLogLog::new);
+        this.totals = new SlidingWindow<>(window, buckets, TDigest::new);
+    }
+
+    @Override
+    public void publish(StoreEvent event) {
+        if (event instanceof StoreEvent.SaleRegistered registered) {
+            record(registered.sale());
+        }
+    }
+
+    /**
+     * Records the sales of a batch under a single acquisition of the monitor.
+     */
+    @Override
+    public synchronized void publishAll(List<StoreEvent> events) {
+        for (StoreEvent event : events) {
+            publish(event);
+        }
+    }
+
+    public synchronized void record(Sale sale) {
+        long now = now();
+        long time = sale.getDate() == null ? now : millis(sale.getDate());
+        CountMinSketch quantity = quantities.bucketAt(time, now);
+        if (quantity == null) {
+            return;
+        }
+        SpaceSaving hitters = heavyHitters.bucketAt(time, now);
+        HyperLogLog distinct = distinctProducts.bucketAt(time, now);
+        for (SaleItem item : sale.getItems()) {
+            String productId = item.getProduct().getId();
+            long hash = Hashing.hash64(productId);
+            quantity.add(hash, item.getQuantity());
+            hitters.add(productId, item.getQuantity());
+            distinct.add(hash);
+        }
+        totals.bucketAt(time, now).add(sale.getTotal());
+    }
+
+    /**
+     * Estimated units of a product sold in the window; never lower than the true value.
+     */
+    public synchronized long estimatedQuantity(String productId) {
+        long[] sum = new long[1];
+        quantities.forEachLive(now(), sketch -> sum[0] += sketch.estimate(productId));
+        return sum[0];
+    }
+
+    /**
+     * Up to {@code n} of the best-selling products of the window, best first.
+     */
+    public synchronized List<HeavyHitter> topProducts(int n) {
+        return heavyHitters.merged(now()).top(n);
+    }
+
+    /**
+     * Approximate counterpart of {@code ProductService.getMostSoldProduct()} restricted
+     * to the window.
+     */
+    public Optional<String> mostSoldProductId() {
+        return topProducts(1).stream().findFirst().map(HeavyHitter::key);
+    }
+
+    public synchronized long distinctProducts() {
+        return distinctProducts.merged(now()).estimate();
+    }
+
+    /**
+     * Estimated sale total below which a fraction {@code q} of the sales of the window
+     * fall, or {@code NaN} if there were none.
+     */
+    public synchronized double totalQuantile(double q) {
+        return totals.merged(now()).quantile(q);
+    }
+
+    public synchronized long salesCount() {
+        return totals.merged(now()).count();
+    }
+
+    /**
+     * Adds the sketches of another instance, e.g. another store node, created with the
+     * same window and buckets.
+     */
+    public void merge(SalesSketches other) {
+        int thisHash = System.identityHashCode(this);
+        int otherHash = System.identityHashCode(other);
+        if (thisHash == otherHash && this != other) {
+            synchronized (TIE_LOCK) {
+                mergeLocked(this, other);
+            }
+        } else if (thisHash < otherHash) {
+            mergeLocked(this, other);
+        } else {
+            mergeLocked(other, this);
+        }
+    }
+
+    private void mergeLocked(SalesSketches first, SalesSketches second) {
+        SalesSketches other = first == this ? second : first;
+        synchronized (first) {
+            synchronized (second) {
+                long now = now();
+                quantities.merge(other.quantities, now);
+                heavyHitters.merge(other.heavyHitters, now);
+                distinctProducts.merge(other.distinctProducts, now);
+                totals.merge(other.totals, now);
+            }
+        }
+    }
+
+    private long now() {
+        return millis(LocalDateTime.now(clock));
+    }
+
+    private static long millis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
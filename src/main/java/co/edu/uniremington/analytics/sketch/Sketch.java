@@ -0,0 +1,18 @@
+package co.edu.uniremington.analytics.sketch;
+
+/**
+ * Fixed-size summary of a stream that can absorb the summary of another part of the
+ * stream, e.g. another time bucket or another store instance. Sketches are not thread
+ * safe; their owner synchronizes access.
+ */
+public interface Sketch<S extends Sketch<S>> {
+    /**
+     * Adds everything {@code other} summarizes to this sketch. Both must have been created
+     * with the same parameters.
+     *
+     * @throws IllegalArgumentException if the sketches are not compatible
+     */
+    void merge(S other);
+
+    void clear();
+}
@@ -0,0 +1,90 @@
+package co.edu.uniremington.analytics.sketch;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ring of sketches, each summarizing one fixed interval of time, that together cover the
+ * most recent {@code window}. The bucket of an interval is reused as soon as the
+ * interval falls out of the window, so memory does not grow with time. Queries merge the
+ * buckets still inside the window into a fresh sketch.
+ *
+ * <p>Buckets are aligned to multiples of the bucket length since the epoch, so windows
+ * of different instances with the same parameters can be merged bucket by bucket.
+ */
+public final class SlidingWindow<S extends Sketch<S>> {
+    private final long bucketMillis;
+    private final Supplier<S> factory;
+    private final S[] buckets;
+    private final long[] intervals;
+
+    @SuppressWarnings("unchecked")
+    public SlidingWindow(Duration window, int bucketCount, Supplier<S> factory) {
+        if (bucketCount <= 0 || window.toMillis() < bucketCount) {
+            throw new IllegalArgumentException("Ventana inválida: " + window + " en " + bucketCount + " intervalos");
+        }
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.factory = factory;
+        this.buckets = (S[]) new Sketch<?>[bucketCount];
+        this.intervals = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = factory.get();
+            intervals[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Returns the sketch of the interval containing {@code epochMillis}, or {@code null}
+     * if that interval is already out of the window that ends at {@code nowMillis}.
+     */
+    public S bucketAt(long epochMillis, long nowMillis) {
+        long interval = Math.floorDiv(epochMillis, bucketMillis);
+        if (interval <= Math.floorDiv(nowMillis, bucketMillis) - buckets.length) {
+            return null;
+        }
+        int slot = (int) Math.floorMod(interval, (long) buckets.length);
+        if (intervals[slot] < interval) {
+            buckets[slot].clear();
+            intervals[slot] = interval;
+        } else if (intervals[slot] > interval) {
+            return null;
+        }
+        return buckets[slot];
+    }
+
+    /**
+     * Merges the buckets inside the window that ends at {@code nowMillis}.
+     */
+    public S merged(long nowMillis) {
+        S merged = factory.get();
+        forEachLive(nowMillis, merged::merge);
+        return merged;
+    }
+
+    public void forEachLive(long nowMillis, Consumer<S> action) {
+        long oldest = Math.floorDiv(nowMillis, bucketMillis) - buckets.length;
+        for (int i = 0; i < buckets.length; i++) {
+            if (intervals[i] > oldest) {
+                action.accept(buckets[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the buckets of {@code other}, which must cover the same window with the same
+     * number of buckets.
+     */
+    public void merge(SlidingWindow<S> other, long nowMillis) {
+        Hashing.requireCompatible(other.bucketMillis == bucketMillis && other.buckets.length == buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            if (other.intervals[i] == Long.MIN_VALUE) {
+                continue;
+            }
+            S bucket = bucketAt(other.intervals[i] * bucketMillis, nowMillis);
+            if (bucket != null) {
+                bucket.merge(other.buckets[i]);
+            }
+        }
+    }
+}
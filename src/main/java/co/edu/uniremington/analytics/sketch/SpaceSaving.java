@@ -0,0 +1,175 @@
+package co.edu.uniremington.analytics.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Space-Saving summary of the heaviest keys of a stream in {@code capacity} counters.
+ * When a new key arrives and every counter is taken, it replaces the key with the
+ * smallest count and inherits that count as its possible overestimation. Any key whose
+ * true count exceeds {@code total / capacity} is guaranteed to be kept.
+ */
+public final class SpaceSaving implements Sketch<SpaceSaving> {
+    /**
+     * Estimated count of a key; the true count lies between {@code count - error} and
+     * {@code count}.
+     */
+    public record HeavyHitter(String key, long count, long error) {
+    }
+
+    private static final Comparator<HeavyHitter> HEAVIEST_FIRST = Comparator
+            .comparingLong(HeavyHitter::count).reversed()
+            .thenComparing(HeavyHitter::key);
+
+    private final int capacity;
+    private final Map<String, Integer> slots;
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+
+    /**
+     * Counters are kept in a min-heap on {@code counts}, so incrementing a key or
+     * replacing the smallest one takes {@code O(log capacity)}.
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    public void add(String key, long count) {
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += count;
+            siftDown(slot);
+        } else if (size < capacity) {
+            put(size++, key, count, 0);
+        } else {
+            slots.remove(keys[0]);
+            long floor = counts[0];
+            put(0, key, floor + count, floor);
+        }
+    }
+
+    private void put(int slot, String key, long count, long error) {
+        keys[slot] = key;
+        counts[slot] = count;
+        errors[slot] = error;
+        slots.put(key, slot);
+        if (slot == 0) {
+            siftDown(slot);
+        } else {
+            siftUp(slot);
+        }
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (counts[parent] <= counts[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                if (counts[child] < counts[smallest]) {
+                    smallest = child;
+                }
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        long count = counts[a];
+        long error = errors[a];
+        keys[a] = keys[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        keys[b] = key;
+        counts[b] = count;
+        errors[b] = error;
+        slots.put(keys[a], a);
+        slots.put(keys[b], b);
+    }
+
+    private HeavyHitter hitter(int slot) {
+        return new HeavyHitter(keys[slot], counts[slot], errors[slot]);
+    }
+
+    private HeavyHitter hitterOf(String key, long floor) {
+        Integer slot = slots.get(key);
+        return slot == null ? new HeavyHitter(key, floor, floor) : hitter(slot);
+    }
+
+    /**
+     * Returns up to {@code n} keys, heaviest first.
+     */
+    public List<HeavyHitter> top(int n) {
+        return IntStream.range(0, size)
+                .mapToObj(this::hitter)
+                .sorted(HEAVIEST_FIRST)
+                .limit(n)
+                .toList();
+    }
+
+    /**
+     * Merges as described by Agarwal et al., "Mergeable Summaries": a key missing from
+     * a full summary is assumed to have that summary's smallest count, and only the
+     * {@code capacity} heaviest keys of the union are kept.
+     */
+    @Override
+    public void merge(SpaceSaving other) {
+        Hashing.requireCompatible(other.capacity == capacity);
+        long floor = floor();
+        long otherFloor = other.floor();
+        Set<String> union = new HashSet<>(slots.keySet());
+        union.addAll(other.slots.keySet());
+        List<HeavyHitter> merged = new ArrayList<>(union.size());
+        for (String key : union) {
+            HeavyHitter mine = hitterOf(key, floor);
+            HeavyHitter theirs = other.hitterOf(key, otherFloor);
+            merged.add(new HeavyHitter(key, mine.count() + theirs.count(), mine.error() + theirs.error()));
+        }
+        merged.sort(HEAVIEST_FIRST);
+        clear();
+        for (HeavyHitter hitter : merged.subList(0, Math.min(capacity, merged.size()))) {
+            put(size++, hitter.key(), hitter.count(), hitter.error());
+        }
+    }
+
+    private long floor() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    @Override
+    public void clear() {
+        slots.clear();
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+}
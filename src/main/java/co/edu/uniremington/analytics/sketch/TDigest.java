@@ -0,0 +1,159 @@
+package co.edu.uniremington.analytics.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning and Ertl) for quantiles of a stream of doubles. Values are
+ * buffered and periodically merged into at most about {@code compression} centroids,
+ * which are kept small near the tails so extreme quantiles stay accurate. Memory is
+ * fixed by the compression.
+ */
+public final class TDigest implements Sketch<TDigest> {
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private final double[] means;
+    private final double[] weights;
+    private int centroids;
+    private final double[] bufferedMeans;
+    private final double[] bufferedWeights;
+    private int buffered;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compresión demasiado baja: " + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferedMeans = new double[capacity * 5];
+        this.bufferedWeights = new double[capacity * 5];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double value, double weight) {
+        if (buffered == bufferedMeans.length) {
+            compress();
+        }
+        bufferedMeans[buffered] = value;
+        bufferedWeights[buffered++] = weight;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public long count() {
+        return Math.round(totalWeight);
+    }
+
+    /**
+     * Estimates the value below which a fraction {@code q} of the values fall, or
+     * {@code NaN} if the digest is empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("El cuantil debe estar entre 0 y 1: " + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double rank = q * totalWeight;
+        if (rank < weights[0] / 2) {
+            return min + (means[0] - min) * rank / (weights[0] / 2);
+        }
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (rank < cumulative + step) {
+                return means[i] + (means[i + 1] - means[i]) * (rank - cumulative) / step;
+            }
+            cumulative += step;
+        }
+        double last = weights[centroids - 1] / 2;
+        double fraction = last == 0 ? 1 : Math.min(1, (rank - cumulative) / last);
+        return means[centroids - 1] + (max - means[centroids - 1]) * fraction;
+    }
+
+    /**
+     * Sorts the buffered values together with the centroids and merges neighbours as long
+     * as the merged centroid stays within the size the k1 scale function allows at its
+     * quantile.
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, n);
+        double[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferedMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferedWeights, 0, allWeights, centroids, buffered);
+        buffered = 0;
+        Integer[] order = new Integer[n];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        centroids = 0;
+        double mergedWeight = 0;
+        double limit = totalWeight * quantileLimit(0);
+        for (int i : order) {
+            double weight = allWeights[i];
+            if (centroids > 0 && mergedWeight + weight <= limit) {
+                int last = centroids - 1;
+                weights[last] += weight;
+                means[last] += (allMeans[i] - means[last]) * weight / weights[last];
+            } else {
+                if (centroids > 0) {
+                    limit = totalWeight * quantileLimit(mergedWeight / totalWeight);
+                }
+                means[centroids] = allMeans[i];
+                weights[centroids++] = weight;
+            }
+            mergedWeight += weight;
+        }
+    }
+
+    /**
+     * Largest quantile a centroid starting at quantile {@code q} may reach:
+     * {@code k1⁻¹(k1(q) + 1)} with {@code k1(q) = δ / 2π · asin(2q - 1)}.
+     */
+    private double quantileLimit(double q) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * Math.min(q, 1) - 1) + 1;
+        return k >= compression / 4 ? 1 : (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    @Override
+    public void merge(TDigest other) {
+        Hashing.requireCompatible(other.compression == compression);
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    @Override
+    public void clear() {
+        centroids = 0;
+        buffered = 0;
+        totalWeight = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,162 @@
+package co.edu.uniremington.archive;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cold tier of the sales history: sales moved off the heap into compressed,
+ * memory-mapped columnar segment files ({@code sales-<yyyy-MM>-<n>.seg}), one per
+ * month of sale dates and archiving run.
+ *
+ * <p>Only the block index of each segment stays on the heap, so archived history costs
+ * a few bytes per thousand sales. Lookups decode one block; the most recently decoded
+ * block is kept to serve neighbouring lookups. Dates are kept with millisecond
+ * precision.
+ *
+ * <p>The archive is independent of the durable store: its segments are not part of
+ * snapshots, the journal or replication, so it is only meant for services that are not
+ * persisted through {@code DurableStore}.
+ */
+public final class SalesArchive {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("sales-(\\d{4}-\\d{2})-(\\d+)\\.seg");
+
+    private record CachedBlock(SalesSegment segment, int index, SalesSegment.Block block) {
+    }
+
+    @FunctionalInterface
+    public interface RevenueVisitor {
+        void visit(LocalDateTime date, double total);
+    }
+
+    private final Path directory;
+    private final List<SalesSegment> segments = new CopyOnWriteArrayList<>();
+    private volatile CachedBlock lastBlock;
+    private long nextSequence;
+
+    private SalesArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public static SalesArchive open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SalesArchive archive = new SalesArchive(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    archive.segments.add(SalesSegment.open(file));
+                    archive.nextSequence = Math.max(archive.nextSequence, Long.parseLong(name.group(2)) + 1);
+                }
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Writes {@code sales} to new segments, one per month of their dates. Sales without a
+     * date are not archived. Once this returns the sales can be read from the archive.
+     */
+    public synchronized void append(Collection<Sale> sales) throws IOException {
+        Map<YearMonth, List<Sale>> byMonth = sales.stream()
+                .filter(sale -> sale.getDate() != null)
+                .collect(Collectors.groupingBy(sale -> YearMonth.from(sale.getDate()), TreeMap::new,
+                        Collectors.toList()));
+        for (Map.Entry<YearMonth, List<Sale>> month : byMonth.entrySet()) {
+            List<Sale> sorted = new ArrayList<>(month.getValue());
+            sorted.sort(Comparator.comparing(Sale::getId));
+            Path file = directory.resolve("sales-" + month.getKey() + "-" + nextSequence++ + ".seg");
+            segments.add(SalesSegment.write(file, sorted));
+        }
+    }
+
+    public Optional<Sale> findById(String id, Function<String, Product> products) {
+        for (SalesSegment segment : segments) {
+            int index = segment.blockOf(id);
+            if (index < 0) {
+                continue;
+            }
+            SalesSegment.Block block = block(segment, index);
+            int row = block.indexOf(id);
+            if (row >= 0) {
+                return Optional.of(block.sale(row, products));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private SalesSegment.Block block(SalesSegment segment, int index) {
+        CachedBlock cached = lastBlock;
+        if (cached != null && cached.segment() == segment && cached.index() == index) {
+            return cached.block();
+        }
+        SalesSegment.Block block = segment.block(index);
+        lastBlock = new CachedBlock(segment, index, block);
+        return block;
+    }
+
+    /**
+     * Iterates the archived sales with ids greater than {@code cursor}, or all of them
+     * when it is {@code null}, in id order across segments.
+     */
+    public Iterator<Sale> iteratorAfter(String cursor, Function<String, Product> products) {
+        List<Iterator<Sale>> sources = new ArrayList<>(segments.size());
+        for (SalesSegment segment : segments) {
+            sources.add(segment.iteratorAfter(cursor, products));
+        }
+        return SortedMerge.merge(sources, Comparator.comparing(Sale::getId));
+    }
+
+    public Stream<Sale> stream(Function<String, Product> products) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iteratorAfter(null, products),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Visits the date and total of every archived sale, without building the sales.
+     */
+    public void forEachRevenue(RevenueVisitor visitor) {
+        for (SalesSegment segment : segments) {
+            for (int i = 0; i < segment.blockCount(); i++) {
+                SalesSegment.Block block = segment.block(i);
+                for (int row = 0; row < block.size(); row++) {
+                    visitor.visit(block.date(row), block.total(row));
+                }
+            }
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (SalesSegment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+}
@@ -0,0 +1,454 @@
+package co.edu.uniremington.archive;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable file of archived sales sorted by id, memory-mapped for reading.
+ *
+ * <p>Sales are stored in blocks of up to {@value #BLOCK_SIZE}. Inside a block every field
+ * is laid out as its own column (ids, codes, dates as delta-encoded epoch millis,
+ * totals, item counts, product ids through a per-block dictionary, quantities and
+ * subtotals) and the block is deflated as a whole, so similar values sit next to each
+ * other and compress well. A footer lists the offset and the first and last id of
+ * every block, which is all that is kept on the heap: a lookup decodes a single block.
+ *
+ * <pre>
+ * [int magic][int version]
+ * [int rawLength][int compressedLength][deflated block]...
+ * footer: [int blocks]([int offset][string firstId][string lastId])... [long minDate][long maxDate][int sales]
+ * [long footerOffset]
+ * </pre>
+ */
+final class SalesSegment {
+    static final int BLOCK_SIZE = 4_096;
+    private static final int MAGIC = 0x53414C53;
+    private static final int VERSION = 1;
+
+    private final Path file;
+    private final MappedByteBuffer data;
+    private final int[] offsets;
+    private final String[] firstIds;
+    private final String[] lastIds;
+    private final long minDate;
+    private final long maxDate;
+    private final int sales;
+
+    private SalesSegment(Path file, MappedByteBuffer data, int[] offsets, String[] firstIds, String[] lastIds,
+                         long minDate, long maxDate, int sales) {
+        this.file = file;
+        this.data = data;
+        this.offsets = offsets;
+        this.firstIds = firstIds;
+        this.lastIds = lastIds;
+        this.minDate = minDate;
+        this.maxDate = maxDate;
+        this.sales = sales;
+    }
+
+    /**
+     * Writes {@code sortedSales}, which must be sorted by id and dated, to {@code file}
+     * through a temporary file, so a crash never leaves a partial segment behind.
+     */
+    static SalesSegment write(Path file, List<Sale> sortedSales) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        int blocks = (sortedSales.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        writeInt(footer, blocks);
+        long minDate = Long.MAX_VALUE;
+        long maxDate = Long.MIN_VALUE;
+        Deflater deflater = new Deflater();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip());
+            for (int block = 0; block < blocks; block++) {
+                List<Sale> rows = sortedSales.subList(block * BLOCK_SIZE,
+                        Math.min(sortedSales.size(), (block + 1) * BLOCK_SIZE));
+                for (Sale sale : rows) {
+                    long date = toMillis(sale.getDate());
+                    minDate = Math.min(minDate, date);
+                    maxDate = Math.max(maxDate, date);
+                }
+                byte[] raw = encodeBlock(rows);
+                deflater.reset();
+                deflater.setInput(raw);
+                deflater.finish();
+                byte[] compressed = new byte[raw.length + 64];
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                writeInt(footer, Math.toIntExact(channel.position()));
+                writeString(footer, rows.get(0).getId());
+                writeString(footer, rows.get(rows.size() - 1).getId());
+                channel.write(ByteBuffer.allocate(8).putInt(raw.length).putInt(length).flip());
+                channel.write(ByteBuffer.wrap(compressed, 0, length));
+            }
+            long footerOffset = channel.position();
+            writeLong(footer, minDate);
+            writeLong(footer, maxDate);
+            writeInt(footer, sortedSales.size());
+            writeLong(footer, footerOffset);
+            channel.write(ByteBuffer.wrap(footer.toByteArray()));
+            channel.force(true);
+        } finally {
+            deflater.end();
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(file);
+    }
+
+    static SalesSegment open(Path file) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < 16 || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Segmento de ventas inválido: " + file);
+        }
+        ByteBuffer footer = data.duplicate().position((int) data.getLong(data.limit() - 8));
+        int blocks = footer.getInt();
+        int[] offsets = new int[blocks];
+        String[] firstIds = new String[blocks];
+        String[] lastIds = new String[blocks];
+        for (int i = 0; i < blocks; i++) {
+            offsets[i] = footer.getInt();
+            firstIds[i] = readString(footer);
+            lastIds[i] = readString(footer);
+        }
+        return new SalesSegment(file, data, offsets, firstIds, lastIds,
+                footer.getLong(), footer.getLong(), footer.getInt());
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int size() {
+        return sales;
+    }
+
+    int blockCount() {
+        return offsets.length;
+    }
+
+    LocalDateTime minDate() {
+        return fromMillis(minDate);
+    }
+
+    LocalDateTime maxDate() {
+        return fromMillis(maxDate);
+    }
+
+    /**
+     * Returns the only block that may hold {@code id}, or -1 if it is outside every block.
+     */
+    int blockOf(String id) {
+        int index = Arrays.binarySearch(firstIds, id);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 && id.compareTo(lastIds[index]) <= 0 ? index : -1;
+    }
+
+    /**
+     * Returns the first block holding ids greater than {@code cursor}.
+     */
+    int firstBlockAfter(String cursor) {
+        int index = Arrays.binarySearch(lastIds, cursor);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    Block block(int index) {
+        ByteBuffer header = data.duplicate().position(offsets[index]);
+        int rawLength = header.getInt();
+        int compressedLength = header.getInt();
+        ByteBuffer compressed = header.slice(header.position(), compressedLength);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length < rawLength) {
+                throw new IllegalStateException("Bloque truncado en el segmento " + file);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Bloque dañado en el segmento " + file, e);
+        } finally {
+            inflater.end();
+        }
+        return Block.decode(ByteBuffer.wrap(raw));
+    }
+
+    /**
+     * Iterates the sales with ids greater than {@code cursor}, or all of them when it is
+     * {@code null}, decoding one block at a time.
+     */
+    Iterator<Sale> iteratorAfter(String cursor, Function<String, Product> products) {
+        int firstBlock = cursor == null ? 0 : firstBlockAfter(cursor);
+        return new Iterator<>() {
+            private int blockIndex = firstBlock;
+            private Block block;
+            private int row;
+
+            @Override
+            public boolean hasNext() {
+                while (block == null || row >= block.size()) {
+                    if (blockIndex >= offsets.length) {
+                        return false;
+                    }
+                    block = block(blockIndex++);
+                    row = cursor == null ? 0 : block.firstRowAfter(cursor);
+                }
+                return true;
+            }
+
+            @Override
+            public Sale next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return block.sale(row++, products);
+            }
+        };
+    }
+
+    private static byte[] encodeBlock(List<Sale> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 64);
+        writeVarLong(out, rows.size());
+        rows.forEach(sale -> writeString(out, sale.getId()));
+        rows.forEach(sale -> writeString(out, sale.getCode()));
+        long previous = 0;
+        for (Sale sale : rows) {
+            long date = toMillis(sale.getDate());
+            writeVarLong(out, zigZag(date - previous));
+            previous = date;
+        }
+        rows.forEach(sale -> writeLong(out, Double.doubleToRawLongBits(sale.getTotal())));
+        rows.forEach(sale -> writeVarLong(out, sale.getItems().size()));
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> productIds = new ArrayList<>();
+        List<Integer> references = new ArrayList<>();
+        for (Sale sale : rows) {
+            for (SaleItem item : sale.getItems()) {
+                references.add(dictionary.computeIfAbsent(item.getProduct().getId(), id -> {
+                    productIds.add(id);
+                    return productIds.size() - 1;
+                }));
+            }
+        }
+        writeVarLong(out, productIds.size());
+        productIds.forEach(id -> writeString(out, id));
+        references.forEach(reference -> writeVarLong(out, reference));
+        rows.forEach(sale -> sale.getItems().forEach(item -> writeVarLong(out, item.getQuantity())));
+        rows.forEach(sale -> sale.getItems().forEach(item ->
+                writeLong(out, Double.doubleToRawLongBits(item.getSubtotal()))));
+        return out.toByteArray();
+    }
+
+    /**
+     * One decoded block, kept as columns; {@code Sale} objects are only built for the
+     * rows that are read.
+     */
+    static final class Block {
+        private final String[] ids;
+        private final String[] codes;
+        private final long[] dates;
+        private final double[] totals;
+        private final int[] itemStarts;
+        private final String[] productIds;
+        private final int[] itemProducts;
+        private final int[] quantities;
+        private final double[] subtotals;
+
+        private Block(String[] ids, String[] codes, long[] dates, double[] totals, int[] itemStarts,
+                      String[] productIds, int[] itemProducts, int[] quantities, double[] subtotals) {
+            this.ids = ids;
+            this.codes = codes;
+            this.dates = dates;
+            this.totals = totals;
+            this.itemStarts = itemStarts;
+            this.productIds = productIds;
+            this.itemProducts = itemProducts;
+            this.quantities = quantities;
+            this.subtotals = subtotals;
+        }
+
+        static Block decode(ByteBuffer in) {
+            int size = (int) readVarLong(in);
+            String[] ids = new String[size];
+            String[] codes = new String[size];
+            long[] dates = new long[size];
+            double[] totals = new double[size];
+            int[] itemStarts = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                ids[i] = readString(in);
+            }
+            for (int i = 0; i < size; i++) {
+                codes[i] = readString(in);
+            }
+            long date = 0;
+            for (int i = 0; i < size; i++) {
+                date += unZigZag(readVarLong(in));
+                dates[i] = date;
+            }
+            for (int i = 0; i < size; i++) {
+                totals[i] = Double.longBitsToDouble(in.getLong());
+            }
+            for (int i = 0; i < size; i++) {
+                itemStarts[i + 1] = itemStarts[i] + (int) readVarLong(in);
+            }
+            String[] productIds = new String[(int) readVarLong(in)];
+            for (int i = 0; i < productIds.length; i++) {
+                productIds[i] = readString(in);
+            }
+            int items = itemStarts[size];
+            int[] itemProducts = new int[items];
+            int[] quantities = new int[items];
+            double[] subtotals = new double[items];
+            for (int i = 0; i < items; i++) {
+                itemProducts[i] = (int) readVarLong(in);
+            }
+            for (int i = 0; i < items; i++) {
+                quantities[i] = (int) readVarLong(in);
+            }
+            for (int i = 0; i < items; i++) {
+                subtotals[i] = Double.longBitsToDouble(in.getLong());
+            }
+            return new Block(ids, codes, dates, totals, itemStarts, productIds, itemProducts, quantities, subtotals);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int indexOf(String id) {
+            return Arrays.binarySearch(ids, id);
+        }
+
+        int firstRowAfter(String cursor) {
+            int index = Arrays.binarySearch(ids, cursor);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        LocalDateTime date(int row) {
+            return fromMillis(dates[row]);
+        }
+
+        double total(int row) {
+            return totals[row];
+        }
+
+        /**
+         * Builds the sale of a row. Products are resolved by id; a product that no
+         * longer exists is represented by its id alone.
+         */
+        Sale sale(int row, Function<String, Product> products) {
+            SaleItem[] items = new SaleItem[itemStarts[row + 1] - itemStarts[row]];
+            for (int i = 0; i < items.length; i++) {
+                int item = itemStarts[row] + i;
+                String productId = productIds[itemProducts[item]];
+                Product product = products.apply(productId);
+                items[i] = new SaleItem(product != null ? product : Product.builder().id(productId).build(),
+                        quantities[item], subtotals[item]);
+            }
+            return new Sale(ids[row], codes[row], fromMillis(dates[row]), Arrays.asList(items), totals[row]);
+        }
+    }
+
+    private static long toMillis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        writeInt(out, (int) (value >>> 32));
+        writeInt(out, (int) value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package co.edu.uniremington.archive;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Lazily merges iterators that are each sorted into one sorted iterator, reading one
+ * element ahead from each source.
+ */
+public final class SortedMerge {
+    private SortedMerge() {
+    }
+
+    public static <T> Iterator<T> merge(List<Iterator<T>> sources, Comparator<? super T> order) {
+        if (sources.size() == 1) {
+            return sources.get(0);
+        }
+        record Head<T>(T value, Iterator<T> source) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> order.compare(a.value(), b.value()));
+        for (Iterator<T> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head<>(source.next(), source));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                Head<T> head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.source().hasNext()) {
+                    heads.add(new Head<>(head.source().next(), head.source()));
+                }
+                return head.value();
+            }
+        };
+    }
+}
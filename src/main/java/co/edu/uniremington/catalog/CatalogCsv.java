@@ -0,0 +1,218 @@
+package co.edu.uniremington.catalog;
+
+import co.edu.uniremington.catalog.MappedChunks.Range;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Catalog in CSV with the header {@code id,name,description,price,stock}. Fields that
+ * contain commas or quotes are quoted, doubling the quotes inside; an empty unquoted
+ * field is {@code null} and {@code ""} is the empty string. Products without id get one
+ * when imported.
+ *
+ * <p>Records never span lines, so an import splits the file at line boundaries into
+ * chunks that are parsed and inserted in parallel. Line breaks inside names or
+ * descriptions are therefore rejected on export.
+ */
+public final class CatalogCsv {
+    static final String HEADER = "id,name,description,price,stock";
+    static final int CHUNK_BYTES = 8 << 20;
+    private static final int SCAN_WINDOW = 64 << 10;
+
+    private CatalogCsv() {
+    }
+
+    /**
+     * Adds every product of {@code file} to {@code productService}. Nothing is added
+     * unless the whole file parses.
+     *
+     * @return the number of products imported
+     * @throws IllegalArgumentException if the file is not a catalog in this format
+     */
+    public static long importInto(ProductService productService, Path file) throws IOException {
+        return importInto(productService, file, CHUNK_BYTES);
+    }
+
+    static long importInto(ProductService productService, Path file, int chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = nextLineStart(channel, 0, size);
+            byte[] header = MappedChunks.read(channel, new Range(0, start));
+            if (!new String(header, StandardCharsets.UTF_8).strip().equals(HEADER)) {
+                throw new IllegalArgumentException("El archivo no es un catálogo CSV: se esperaba la cabecera " + HEADER);
+            }
+            List<Range> ranges = new ArrayList<>();
+            while (start < size) {
+                long end = start + chunkBytes >= size ? size : nextLineStart(channel, start + chunkBytes, size);
+                ranges.add(new Range(start, end));
+                start = end;
+            }
+            return MappedChunks.importRanges(channel, ranges, CatalogCsv::parse, productService);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) {
+        for (long window = from; window < size; window += SCAN_WINDOW) {
+            byte[] bytes = MappedChunks.read(channel, new Range(window, Math.min(size, window + SCAN_WINDOW)));
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] == '\n') {
+                    return window + i + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    static List<Product> parse(byte[] bytes, long offset) {
+        List<Product> products = new ArrayList<>(bytes.length / 64);
+        String[] fields = new String[5];
+        int position = 0;
+        while (position < bytes.length) {
+            int lineStart = position;
+            int field = 0;
+            while (true) {
+                if (field == fields.length) {
+                    throw invalid(offset + lineStart, "tiene más de " + fields.length + " campos");
+                }
+                int end;
+                if (position < bytes.length && bytes[position] == '"') {
+                    StringBuilder value = new StringBuilder();
+                    end = readQuoted(bytes, position + 1, value, offset + lineStart);
+                    fields[field++] = value.toString();
+                } else {
+                    end = position;
+                    while (end < bytes.length && bytes[end] != ',' && bytes[end] != '\n' && bytes[end] != '\r') {
+                        end++;
+                    }
+                    fields[field++] = end == position ? null : new String(bytes, position, end - position, StandardCharsets.UTF_8);
+                }
+                if (end < bytes.length && bytes[end] == ',') {
+                    position = end + 1;
+                    continue;
+                }
+                position = end;
+                break;
+            }
+            if (position < bytes.length && bytes[position] == '\r') {
+                position++;
+            }
+            if (position < bytes.length) {
+                if (bytes[position] != '\n') {
+                    throw invalid(offset + lineStart, "tiene texto después de un campo entre comillas");
+                }
+                position++;
+            }
+            if (field == 1 && fields[0] == null) {
+                continue;
+            }
+            if (field != fields.length) {
+                throw invalid(offset + lineStart, "tiene " + field + " campos y se esperaban " + fields.length);
+            }
+            products.add(toProduct(fields, offset + lineStart));
+        }
+        return products;
+    }
+
+    private static int readQuoted(byte[] bytes, int position, StringBuilder value, long lineOffset) {
+        int runStart = position;
+        while (position < bytes.length) {
+            if (bytes[position] == '"') {
+                value.append(new String(bytes, runStart, position - runStart, StandardCharsets.UTF_8));
+                if (position + 1 < bytes.length && bytes[position + 1] == '"') {
+                    value.append('"');
+                    position += 2;
+                    runStart = position;
+                    continue;
+                }
+                return position + 1;
+            }
+            if (bytes[position] == '\n') {
+                break;
+            }
+            position++;
+        }
+        throw invalid(lineOffset, "tiene comillas sin cerrar");
+    }
+
+    private static Product toProduct(String[] fields, long lineOffset) {
+        try {
+            return Product.builder()
+                    .id(fields[0])
+                    .name(fields[1])
+                    .description(fields[2])
+                    .price(Double.parseDouble(fields[3]))
+                    .stock(Integer.parseInt(fields[4]))
+                    .build();
+        } catch (NumberFormatException | NullPointerException e) {
+            throw invalid(lineOffset, "tiene un precio o stock inválido");
+        }
+    }
+
+    private static IllegalArgumentException invalid(long lineOffset, String problem) {
+        return new IllegalArgumentException("La línea del catálogo en el byte " + lineOffset + " " + problem);
+    }
+
+    /**
+     * Writes the whole catalog to {@code file} through a temporary file, so that an
+     * interrupted export never leaves a partial catalog behind.
+     *
+     * @return the number of products exported
+     * @throws IllegalArgumentException if a name or description contains a line break
+     */
+    public static long exportFrom(ProductService productService, Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long count = 0;
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(temporary, StandardCharsets.UTF_8), 1 << 20)) {
+            out.write(HEADER);
+            out.write('\n');
+            for (Iterator<Product> products = productService.streamAll().iterator(); products.hasNext(); count++) {
+                writeProduct(out, products.next());
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    private static void writeProduct(Writer out, Product product) throws IOException {
+        writeField(out, product.getId(), product);
+        out.write(',');
+        writeField(out, product.getName(), product);
+        out.write(',');
+        writeField(out, product.getDescription(), product);
+        out.write(',');
+        out.write(Double.toString(product.getPrice()));
+        out.write(',');
+        out.write(Integer.toString(product.getStock()));
+        out.write('\n');
+    }
+
+    private static void writeField(Writer out, String value, Product product) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("El producto " + product.getId()
+                    + " tiene saltos de línea, que el catálogo CSV no admite");
+        }
+        if (!value.isEmpty() && value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,62 @@
+package co.edu.uniremington.catalog;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Parallel import of a file split in independent byte ranges. Each range is mapped,
+ * copied out of the mapping in one bulk read and parsed by a fork-join worker. The
+ * products are only handed to {@link ProductService#addProducts} once every range has
+ * parsed, so a malformed file adds nothing to the catalog.
+ */
+final class MappedChunks {
+    record Range(long start, long end) {
+    }
+
+    @FunctionalInterface
+    interface Parser {
+        List<Product> parse(byte[] bytes, long offset);
+    }
+
+    private MappedChunks() {
+    }
+
+    static long importRanges(FileChannel channel, List<Range> ranges, Parser parser, ProductService productService) {
+        return insert(parseRanges(channel, ranges, parser), productService);
+    }
+
+    /**
+     * Parses every range, in parallel, without touching the catalog.
+     */
+    static List<List<Product>> parseRanges(FileChannel channel, List<Range> ranges, Parser parser) {
+        return ranges.parallelStream()
+                .map(range -> parser.parse(read(channel, range), range.start()))
+                .toList();
+    }
+
+    /**
+     * Adds the parsed batches, in parallel, and returns how many products were added.
+     */
+    static long insert(List<List<Product>> batches, ProductService productService) {
+        return batches.parallelStream()
+                .mapToLong(batch -> productService.addProducts(batch).size())
+                .sum();
+    }
+
+    static byte[] read(FileChannel channel, Range range) {
+        try {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, range.start(), range.end() - range.start());
+            byte[] bytes = new byte[Math.toIntExact(range.end() - range.start())];
+            region.get(bytes);
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package co.edu.uniremington.codec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense int indexes to product ids so encoded sales refer to products with a
+ * one or two byte varint instead of a 36 character UUID. Indexes are assigned on first
+ * use and never change; whoever decodes the sales needs the same dictionary, which can
+ * be saved with {@link #productIds()} and rebuilt with {@link #of(List)}.
+ */
+public final class ProductDictionary {
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private volatile String[] productIds = new String[64];
+    private volatile int size;
+
+    public static ProductDictionary of(List<String> productIds) {
+        ProductDictionary dictionary = new ProductDictionary();
+        productIds.forEach(dictionary::indexOf);
+        return dictionary;
+    }
+
+    public int indexOf(String productId) {
+        Integer index = indexes.get(productId);
+        return index != null ? index : assign(productId);
+    }
+
+    private synchronized int assign(String productId) {
+        Integer index = indexes.get(productId);
+        if (index != null) {
+            return index;
+        }
+        String[] ids = productIds;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[size] = productId;
+        productIds = ids;
+        indexes.put(productId, size);
+        return size++;
+    }
+
+    public String productId(int index) {
+        int known = size;
+        String[] ids = productIds;
+        if (index < 0 || index >= known) {
+            throw new IllegalArgumentException("Índice de producto desconocido: " + index);
+        }
+        return ids[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<String> productIds() {
+        return List.of(Arrays.copyOf(productIds, size));
+    }
+}
@@ -0,0 +1,208 @@
+package co.edu.uniremington.codec;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.impl.IdGenerator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Compact binary form of a {@link Sale}, meant for keeping sales in memory, on disk or on
+ * the wire as bytes rather than object graphs.
+ *
+ * <pre>
+ * [u8 flags][i64 epoch millis][f64 total][id][code]?[varint items]
+ * item: [varint product index][varint zigzag(quantity) &lt;&lt; 1 | explicit subtotal][f64 unit price][f64 subtotal]?
+ * </pre>
+ *
+ * <p>Ids are stored in 8 bytes when they are 16 hex digits, as generated by
+ * {@link IdGenerator}, in 16 bytes when they are UUIDs and as UTF-8 otherwise. The code
+ * is omitted when it is the one derived from the id. Each item keeps the product's
+ * price at the time of the sale, so the encoded sale does not change when the product
+ * does; the subtotal is only stored when it is not price times quantity. Dates are
+ * kept with millisecond precision, read as UTC like the sales time index.
+ */
+public final class SaleCodec {
+    static final int ID_HEX64 = 0;
+    static final int ID_UUID = 1;
+    static final int ID_TEXT = 2;
+    static final int ID_KIND_MASK = 0b11;
+    static final int CODE_DERIVED = 1 << 2;
+    static final int CODE_NULL = 1 << 3;
+    static final int DATE_NULL = 1 << 4;
+    static final int FIXED_HEADER_BYTES = 1 + Long.BYTES + Double.BYTES;
+
+    private static final String CODE_PREFIX = "SALE-";
+
+    private final ProductDictionary products;
+
+    public SaleCodec(ProductDictionary products) {
+        this.products = products;
+    }
+
+    public ProductDictionary products() {
+        return products;
+    }
+
+    public byte[] encode(Sale sale) {
+        ByteBuffer buffer = ByteBuffer.allocate(maxEncodedSize(sale));
+        encode(sale, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Upper bound of the bytes {@link #encode(Sale, ByteBuffer)} writes for {@code sale}.
+     */
+    public int maxEncodedSize(Sale sale) {
+        int size = FIXED_HEADER_BYTES + textSize(sale.getId()) + textSize(sale.getCode()) + 5;
+        return size + sale.getItems().size() * (5 + 10 + 2 * Double.BYTES);
+    }
+
+    /**
+     * Writes {@code sale} at the position of {@code out} and advances it.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has no room for the sale
+     */
+    public void encode(Sale sale, ByteBuffer out) {
+        String id = sale.getId();
+        int idKind = idKind(id);
+        int flags = idKind;
+        if (sale.getCode() == null) {
+            flags |= CODE_NULL;
+        } else if (idKind == ID_HEX64 && sale.getCode().equals(CODE_PREFIX + IdGenerator.toBase32(Long.parseUnsignedLong(id, 16)))) {
+            flags |= CODE_DERIVED;
+        }
+        if (sale.getDate() == null) {
+            flags |= DATE_NULL;
+        }
+        out.put((byte) flags);
+        out.putLong(sale.getDate() == null ? 0 : sale.getDate().toInstant(ZoneOffset.UTC).toEpochMilli());
+        out.putDouble(sale.getTotal());
+        switch (idKind) {
+            case ID_HEX64 -> out.putLong(Long.parseUnsignedLong(id, 16));
+            case ID_UUID -> {
+                UUID uuid = UUID.fromString(id);
+                out.putLong(uuid.getMostSignificantBits());
+                out.putLong(uuid.getLeastSignificantBits());
+            }
+            default -> writeText(out, id);
+        }
+        if ((flags & (CODE_DERIVED | CODE_NULL)) == 0) {
+            writeText(out, sale.getCode());
+        }
+        writeVarLong(out, sale.getItems().size());
+        for (SaleItem item : sale.getItems()) {
+            double price = item.getProduct().getPrice();
+            boolean explicitSubtotal = Double.compare(price * item.getQuantity(), item.getSubtotal()) != 0;
+            writeVarLong(out, products.indexOf(item.getProduct().getId()));
+            writeVarLong(out, zigZag(item.getQuantity()) << 1 | (explicitSubtotal ? 1 : 0));
+            out.putDouble(price);
+            if (explicitSubtotal) {
+                out.putDouble(item.getSubtotal());
+            }
+        }
+    }
+
+    /**
+     * Reads the sale at the position of {@code in} and advances past it. Each item links
+     * to the product returned by {@code resolve} when its price still matches the
+     * snapshot, and to a copy carrying the snapshot price otherwise; products that no
+     * longer exist are represented by their id and price.
+     */
+    public Sale decode(ByteBuffer in, Function<String, Product> resolve) {
+        SaleView view = view(in, in.position());
+        SaleItem[] items = new SaleItem[view.itemCount()];
+        for (int i = 0; i < items.length; i++) {
+            String productId = view.productId(i);
+            double price = view.unitPrice(i);
+            Product product = resolve.apply(productId);
+            if (product == null) {
+                product = Product.builder().id(productId).price(price).build();
+            } else if (Double.compare(product.getPrice(), price) != 0) {
+                product = product.toBuilder().price(price).build();
+            }
+            items[i] = new SaleItem(product, view.quantity(i), view.subtotal(i));
+        }
+        in.position(in.position() + view.length());
+        return new Sale(view.id(), view.code(), view.date(), Arrays.asList(items), view.total());
+    }
+
+    /**
+     * Returns a read-only view over the sale encoded at {@code offset} of
+     * {@code buffer}. Nothing is copied; fields are decoded when they are read.
+     */
+    public SaleView view(ByteBuffer buffer, int offset) {
+        return new SaleView(buffer, offset, products);
+    }
+
+    static int idKind(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("La venta no tiene id");
+        }
+        if (id.length() == 16 && isLowerHex(id)) {
+            return ID_HEX64;
+        }
+        if (id.length() == 36) {
+            try {
+                if (UUID.fromString(id).toString().equals(id)) {
+                    return ID_UUID;
+                }
+            } catch (IllegalArgumentException ignored) {
+                // Not a UUID, stored as text
+            }
+        }
+        return ID_TEXT;
+    }
+
+    private static boolean isLowerHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String derivedCode(long id) {
+        return CODE_PREFIX + IdGenerator.toBase32(id);
+    }
+
+    static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    private static int textSize(String value) {
+        return value == null ? 0 : 5 + value.length() * 3;
+    }
+
+    private static void writeText(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.put(bytes);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+}
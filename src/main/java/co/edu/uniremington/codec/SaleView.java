@@ -0,0 +1,173 @@
+package co.edu.uniremington.codec;
+
+import co.edu.uniremington.service.impl.IdGenerator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Zero-copy, read-only view of a sale encoded by {@link SaleCodec}. Reading a field
+ * decodes only that field from the underlying buffer, whose position is never
+ * changed, so totals and dates can be scanned without building {@code Sale} objects.
+ * The view is only valid while the bytes it points to stay unchanged.
+ */
+public final class SaleView {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final ProductDictionary products;
+    private final int flags;
+    private final int itemsOffset;
+    private final int itemCount;
+    private int[] itemOffsets;
+
+    SaleView(ByteBuffer buffer, int offset, ProductDictionary products) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.products = products;
+        this.flags = buffer.get(offset) & 0xFF;
+        int position = offset + SaleCodec.FIXED_HEADER_BYTES;
+        position = switch (flags & SaleCodec.ID_KIND_MASK) {
+            case SaleCodec.ID_HEX64 -> position + Long.BYTES;
+            case SaleCodec.ID_UUID -> position + 2 * Long.BYTES;
+            default -> skipText(position);
+        };
+        if ((flags & (SaleCodec.CODE_DERIVED | SaleCodec.CODE_NULL)) == 0) {
+            position = skipText(position);
+        }
+        long count = readVarLong(position);
+        this.itemCount = (int) count;
+        this.itemsOffset = position + varLongSize(count);
+    }
+
+    public long epochMillis() {
+        return buffer.getLong(offset + 1);
+    }
+
+    public LocalDateTime date() {
+        return (flags & SaleCodec.DATE_NULL) != 0 ? null : SaleCodec.fromMillis(epochMillis());
+    }
+
+    public double total() {
+        return buffer.getDouble(offset + 1 + Long.BYTES);
+    }
+
+    public String id() {
+        int position = offset + SaleCodec.FIXED_HEADER_BYTES;
+        return switch (flags & SaleCodec.ID_KIND_MASK) {
+            case SaleCodec.ID_HEX64 -> IdGenerator.toHex(buffer.getLong(position));
+            case SaleCodec.ID_UUID -> new UUID(buffer.getLong(position), buffer.getLong(position + Long.BYTES)).toString();
+            default -> readText(position);
+        };
+    }
+
+    public String code() {
+        if ((flags & SaleCodec.CODE_NULL) != 0) {
+            return null;
+        }
+        int position = offset + SaleCodec.FIXED_HEADER_BYTES;
+        if ((flags & SaleCodec.CODE_DERIVED) != 0) {
+            return SaleCodec.derivedCode(buffer.getLong(position));
+        }
+        return readText((flags & SaleCodec.ID_KIND_MASK) == SaleCodec.ID_HEX64 ? position + Long.BYTES
+                : (flags & SaleCodec.ID_KIND_MASK) == SaleCodec.ID_UUID ? position + 2 * Long.BYTES
+                : skipText(position));
+    }
+
+    public int itemCount() {
+        return itemCount;
+    }
+
+    public int productIndex(int item) {
+        return (int) readVarLong(itemOffset(item));
+    }
+
+    public String productId(int item) {
+        return products.productId(productIndex(item));
+    }
+
+    public int quantity(int item) {
+        return (int) SaleCodec.unZigZag(quantityHeader(item) >>> 1);
+    }
+
+    /**
+     * Price of the product when the sale was registered.
+     */
+    public double unitPrice(int item) {
+        return buffer.getDouble(priceOffset(item));
+    }
+
+    public double subtotal(int item) {
+        long header = quantityHeader(item);
+        int priceOffset = priceOffset(item);
+        if ((header & 1) != 0) {
+            return buffer.getDouble(priceOffset + Double.BYTES);
+        }
+        return buffer.getDouble(priceOffset) * SaleCodec.unZigZag(header >>> 1);
+    }
+
+    /**
+     * Number of bytes the encoded sale occupies.
+     */
+    public int length() {
+        return itemCount == 0 ? itemsOffset - offset : itemOffset(itemCount) - offset;
+    }
+
+    private long quantityHeader(int item) {
+        int position = itemOffset(item);
+        return readVarLong(position + varLongSize(readVarLong(position)));
+    }
+
+    private int priceOffset(int item) {
+        int position = itemOffset(item);
+        position += varLongSize(readVarLong(position));
+        return position + varLongSize(readVarLong(position));
+    }
+
+    private int itemOffset(int item) {
+        if (item < 0 || item > itemCount) {
+            throw new IndexOutOfBoundsException(item);
+        }
+        if (itemOffsets == null) {
+            int[] offsets = new int[itemCount + 1];
+            int position = itemsOffset;
+            for (int i = 0; i < itemCount; i++) {
+                offsets[i] = position;
+                position += varLongSize(readVarLong(position));
+                long header = readVarLong(position);
+                position += varLongSize(header) + Double.BYTES + ((header & 1) != 0 ? Double.BYTES : 0);
+            }
+            offsets[itemCount] = position;
+            itemOffsets = offsets;
+        }
+        return itemOffsets[item];
+    }
+
+    private long readVarLong(int position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static int varLongSize(long value) {
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+    }
+
+    private int skipText(int position) {
+        long length = readVarLong(position);
+        return position + varLongSize(length) + (int) length;
+    }
+
+    private String readText(int position) {
+        int length = (int) readVarLong(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + varLongSize(length), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
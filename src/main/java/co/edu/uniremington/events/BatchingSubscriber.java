@@ -0,0 +1,101 @@
+package co.edu.uniremington.events;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@link Flow.Subscriber} that groups items into batches before handing them to a
+ * consumer. A batch is delivered when it reaches {@code batchSize} items or when its
+ * first item has waited {@code maxDelay}, whichever comes first.
+ *
+ * <p>Demand is kept at one batch: new items are requested only as batches are
+ * delivered, so the publisher buffers for this subscriber while the consumer is busy.
+ */
+public class BatchingSubscriber<T> implements Flow.Subscriber<T> {
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "store-events-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Consumer<List<T>> consumer;
+    private Flow.Subscription subscription;
+    private List<T> batch;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean completed;
+
+    public BatchingSubscriber(int batchSize, Duration maxDelay, Consumer<List<T>> consumer) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño del lote debe ser positivo: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.consumer = consumer;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public synchronized void onNext(T item) {
+        batch.add(item);
+        if (batch.size() >= batchSize) {
+            flush();
+        } else if (batch.size() == 1) {
+            scheduledFlush = FLUSHER.schedule(this::flushPending, maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        completed = true;
+        flush();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        completed = true;
+        flush();
+    }
+
+    /**
+     * Stops receiving items. Items already received are still delivered.
+     */
+    public synchronized void cancel() {
+        flush();
+        subscription.cancel();
+    }
+
+    private synchronized void flushPending() {
+        flush();
+    }
+
+    private void flush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<T> delivered = batch;
+        batch = new ArrayList<>(batchSize);
+        consumer.accept(delivered);
+        if (!completed) {
+            subscription.request(delivered.size());
+        }
+    }
+}
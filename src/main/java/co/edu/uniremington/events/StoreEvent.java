@@ -0,0 +1,23 @@
+package co.edu.uniremington.events;
+
+import co.edu.uniremington.model.Sale;
+
+/**
+ * Change published by the store services as it happens, so consumers can follow the
+ * store incrementally instead of rescanning its history.
+ */
+public sealed interface StoreEvent permits StoreEvent.SaleRegistered, StoreEvent.StockChanged {
+
+    /**
+     * A sale was registered and its stock already reserved.
+     */
+    record SaleRegistered(Sale sale) implements StoreEvent {
+    }
+
+    /**
+     * The stock of a product changed from {@code previousStock} to {@code currentStock}.
+     * A new product is reported as a change from zero, even if it has no stock.
+     */
+    record StockChanged(String productId, int previousStock, int currentStock) implements StoreEvent {
+    }
+}
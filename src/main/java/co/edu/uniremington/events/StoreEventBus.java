@@ -0,0 +1,156 @@
+package co.edu.uniremington.events;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * {@link StoreEventSink} that fans events out to {@link Flow} subscribers through a
+ * {@link SubmissionPublisher}. Each subscriber gets its own buffer and is only sent
+ * what it has requested, so a slow subscriber does not hold back the others.
+ *
+ * <p>Publishing never blocks the store: when a subscriber's buffer is full the event
+ * is dropped for that subscriber and counted in {@link #droppedEvents()}. Consumers
+ * that must see every event, such as derived totals, use
+ * {@link #subscribeLossless}, which queues without bound instead.
+ */
+public class StoreEventBus implements StoreEventSink, AutoCloseable {
+    private final Executor executor;
+    private final SubmissionPublisher<StoreEvent> publisher;
+    private final List<QueuedSubscriber> lossless = new CopyOnWriteArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public StoreEventBus() {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    public StoreEventBus(Executor executor, int bufferCapacity) {
+        this.executor = executor;
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    }
+
+    @Override
+    public void publish(StoreEvent event) {
+        publisher.offer(event, (subscriber, rejected) -> {
+            dropped.increment();
+            return false;
+        });
+        for (QueuedSubscriber subscriber : lossless) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    public void subscribe(Flow.Subscriber<? super StoreEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Subscribes a consumer that receives events in batches of up to
+     * {@code batchSize}, or whatever has accumulated after {@code maxDelay}.
+     */
+    public BatchingSubscriber<StoreEvent> subscribe(int batchSize, Duration maxDelay,
+                                                    Consumer<List<StoreEvent>> consumer) {
+        BatchingSubscriber<StoreEvent> subscriber = new BatchingSubscriber<>(batchSize, maxDelay, consumer);
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Subscribes a consumer that receives every event, in order and in batches of up to
+     * {@code batchSize}. Events wait in an unbounded queue rather than in the
+     * publisher's buffer, so they are never dropped; the queue grows instead while the
+     * consumer falls behind.
+     */
+    public void subscribeLossless(int batchSize, Consumer<List<StoreEvent>> consumer) {
+        lossless.add(new QueuedSubscriber(batchSize, consumer));
+    }
+
+    public int subscriberCount() {
+        return publisher.getNumberOfSubscribers() + lossless.size();
+    }
+
+    public long droppedEvents() {
+        return dropped.sum();
+    }
+
+    /**
+     * Delivers the pending events and completes every subscriber.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+        lossless.forEach(QueuedSubscriber::drain);
+        lossless.clear();
+    }
+
+    /**
+     * Queue of a lossless subscriber, drained on the executor by one task at a time so
+     * batches are delivered in order.
+     */
+    private final class QueuedSubscriber {
+        private final int batchSize;
+        private final Consumer<List<StoreEvent>> consumer;
+        private final Queue<StoreEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        QueuedSubscriber(int batchSize, Consumer<List<StoreEvent>> consumer) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("El tamaño del lote debe ser positivo: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            this.consumer = consumer;
+        }
+
+        void enqueue(StoreEvent event) {
+            queue.add(event);
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drainAndRelease);
+            }
+        }
+
+        /**
+         * Delivers the queued events, unless a drain is already running.
+         */
+        void drain() {
+            if (draining.compareAndSet(false, true)) {
+                drainAndRelease();
+            }
+        }
+
+        private void drainAndRelease() {
+            do {
+                try {
+                    deliverQueued();
+                } finally {
+                    draining.set(false);
+                }
+                // An event queued after the last poll but before the release started no drain
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void deliverQueued() {
+            List<StoreEvent> batch = new ArrayList<>(batchSize);
+            StoreEvent event;
+            while ((event = queue.poll()) != null) {
+                batch.add(event);
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+        }
+    }
+}
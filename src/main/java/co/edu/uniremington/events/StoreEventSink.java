@@ -0,0 +1,34 @@
+package co.edu.uniremington.events;
+
+import java.util.List;
+
+/**
+ * Receives the events of the store services. Implementations are called while the
+ * change is being applied, so they must not block or call back into the services.
+ */
+@FunctionalInterface
+public interface StoreEventSink {
+    StoreEventSink NONE = event -> {
+    };
+
+    void publish(StoreEvent event);
+
+    /**
+     * Publishes a batch of events in order, e.g. as delivered by a
+     * {@link BatchingSubscriber}. Sinks that are costly to update may apply the batch
+     * at once.
+     */
+    default void publishAll(List<StoreEvent> events) {
+        events.forEach(this::publish);
+    }
+
+    /**
+     * Returns a sink that publishes every event to this sink and then to {@code next}.
+     */
+    default StoreEventSink andThen(StoreEventSink next) {
+        return event -> {
+            publish(event);
+            next.publish(event);
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package co.edu.uniremington.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates many point-of-sale clients registering one-item sales against a running
+ * {@link StoreHttpServer} and reports throughput and latency percentiles.
+ *
+ * <p>Usage: {@code LoadGenerator [url] [clients] [seconds]}, by default
+ * {@code http://localhost:8080 1000 30}. Each client is a virtual thread that sends
+ * its next sale as soon as the previous one is answered.
+ */
+public final class LoadGenerator {
+    private final URI baseUri;
+    private final int clients;
+    private final Duration duration;
+    private final HttpClient client;
+
+    public LoadGenerator(URI baseUri, int clients, Duration duration) {
+        this.baseUri = baseUri;
+        this.clients = clients;
+        this.duration = duration;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public record Report(long requests, long rejected, long failed, double seconds,
+                         long p50Micros, long p99Micros, long p999Micros, long maxMicros) {
+        public double throughput() {
+            return requests / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("""
+                    Solicitudes: %d (%.0f/s), rechazadas (503): %d, fallidas: %d
+                    Latencia p50: %d us, p99: %d us, p99.9: %d us, máx: %d us""",
+                    requests, throughput(), rejected, failed, p50Micros, p99Micros, p999Micros, maxMicros);
+        }
+    }
+
+    public Report run() throws Exception {
+        String productId = createProduct();
+        String sale = Json.write(Map.of("items", List.of(Map.of("productId", productId, "quantity", 1))));
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/sales"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(sale))
+                .build();
+
+        LongAdder rejected = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        long end;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int index = c;
+                executor.submit(() -> {
+                    long[] samples = new long[1_024];
+                    int count = 0;
+                    start.await();
+                    long deadline = System.nanoTime() + duration.toNanos();
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                rejected.increment();
+                            } else if (status != 201) {
+                                failed.increment();
+                            }
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - sent;
+                    }
+                    latencies[index] = samples;
+                    counts[index] = count;
+                    return null;
+                });
+            }
+            begin = System.nanoTime();
+            start.countDown();
+        }
+        end = System.nanoTime();
+        return report(latencies, counts, rejected.sum(), failed.sum(), (end - begin) / 1e9);
+    }
+
+    private String createProduct() throws Exception {
+        String product = Json.write(Map.of("name", "Carga", "description", "Producto de prueba de carga",
+                "price", 1.0, "stock", Integer.MAX_VALUE));
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/products"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(product))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("No se pudo crear el producto de prueba: " + response.body());
+        }
+        return (String) ((Map<?, ?>) Json.parse(response.body())).get("id");
+    }
+
+    private static Report report(long[][] latencies, int[] counts, long rejected, long failed, double seconds) {
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < latencies.length; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Report(total, rejected, failed, seconds,
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                total == 0 ? 0 : all[total - 1] / 1_000);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000;
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        System.out.printf("Generando carga contra %s con %d clientes durante %d s%n", uri, clients, seconds);
+        System.out.println(new LoadGenerator(uri, clients, Duration.ofSeconds(seconds)).run());
+    }
+}
@@ -0,0 +1,509 @@
+package co.edu.uniremington.http;
+
+import co.edu.uniremington.analytics.SalesReports;
+import co.edu.uniremington.metrics.Metrics;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * JSON front end for the store on top of the JDK HTTP server. Every exchange runs on
+ * its own virtual thread, so blocking on the services or on slow clients does not tie
+ * up platform threads. Connections are kept alive and the requests of a connection are
+ * answered in order.
+ *
+ * <p>At most {@code maxInFlight} requests are processed at a time; once that limit is
+ * reached new requests are rejected right away with {@code 503} and a
+ * {@code Retry-After} header instead of queueing without bound.
+ *
+ * <pre>
+ * GET  /products[?cursor=..&amp;limit=..]   GET  /sales[?cursor=..&amp;limit=..]
+ * GET  /products/{id}                     GET  /sales/{id}
+ * POST /products                          POST /sales
+ * PUT  /products/{id}                     POST /sales/batch
+ * GET  /products/most-sold                GET  /sales/averages[?start=..&amp;end=..]
+ * GET  /products/least-sold               GET  /reports
+ * GET  /products/top?n=10                 GET  /reports/{week|month|year}
+ * GET  /products/bottom?n=10
+ * GET  /products/out-of-stock[?cursor=..&amp;limit=..]
+ * GET  /metrics                  (plain text, see {@link Metrics#dump()})
+ * </pre>
+ *
+ * <p>Listings are returned a page at a time, {@value #DEFAULT_PAGE_SIZE} items unless
+ * {@code limit} asks for up to {@value #MAX_PAGE_SIZE}; {@code n} in the rankings is
+ * bounded the same way. Request bodies larger than
+ * {@value #MAX_BODY_BYTES} bytes are rejected with {@code 413}.
+ *
+ * <p>When started with {@link SalesReports}, the averages of the last week, month and
+ * year and the {@code /reports} resources are read from them instead of being computed
+ * from the sales history.
+ */
+public final class StoreHttpServer implements Closeable {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+    private static final int BACKLOG = 4_096;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1_000;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final long MAX_DISCARDED_BYTES = 16L * MAX_BODY_BYTES;
+
+    private final ProductService productService;
+    private final SaleService saleService;
+    private final SalesReports reports;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    private StoreHttpServer(InetSocketAddress address, ProductService productService, SaleService saleService,
+                            SalesReports reports, int maxInFlight) throws IOException {
+        this.productService = productService;
+        this.saleService = saleService;
+        this.reports = reports;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/products", guarded(this::products));
+        server.createContext("/sales", guarded(this::sales));
+        if (reports != null) {
+            server.createContext("/reports", guarded(this::reports));
+        }
+        server.createContext("/metrics", StoreHttpServer::metrics);
+    }
+
+    public static StoreHttpServer start(int port, ProductService productService, SaleService saleService)
+            throws IOException {
+        return start(port, productService, saleService, null);
+    }
+
+    public static StoreHttpServer start(int port, ProductService productService, SaleService saleService,
+                                        SalesReports reports) throws IOException {
+        return start(new InetSocketAddress(port), productService, saleService, reports, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public static StoreHttpServer start(InetSocketAddress address, ProductService productService,
+                                        SaleService saleService, int maxInFlight) throws IOException {
+        return start(address, productService, saleService, null, maxInFlight);
+    }
+
+    /**
+     * Starts the server, reading reports from {@code reports} if it is not {@code null}.
+     */
+    public static StoreHttpServer start(InetSocketAddress address, ProductService productService,
+                                        SaleService saleService, SalesReports reports, int maxInFlight)
+            throws IOException {
+        StoreHttpServer httpServer = new StoreHttpServer(address, productService, saleService, reports, maxInFlight);
+        httpServer.server.start();
+        return httpServer;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    private record Response(int status, Object body) {
+        static Response ok(Object body) {
+            return new Response(200, body);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        Response handle(String method, List<String> path, Map<String, String> query, Object body);
+    }
+
+    private HttpHandler guarded(Route route) {
+        return exchange -> {
+            try (exchange) {
+                if (!inFlight.tryAcquire()) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    send(exchange, new Response(503, error("Servidor ocupado, intente más tarde")));
+                    return;
+                }
+                try {
+                    send(exchange, dispatch(route, exchange));
+                } finally {
+                    inFlight.release();
+                }
+            }
+        };
+    }
+
+    private static Response dispatch(Route route, HttpExchange exchange) {
+        try {
+            String method = exchange.getRequestMethod();
+            List<String> path = segments(exchange.getRequestURI().getPath());
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            Object body = readBody(exchange.getRequestBody());
+            return route.handle(method, path, query, body);
+        } catch (NoSuchElementException e) {
+            return new Response(404, error(e.getMessage()));
+        } catch (IllegalArgumentException | DateTimeParseException | ClassCastException e) {
+            return new Response(400, error(e.getMessage()));
+        } catch (ArithmeticException e) {
+            return new Response(400, error("Número fuera de rango"));
+        } catch (IllegalStateException | ConcurrentModificationException e) {
+            return new Response(409, error(e.getMessage()));
+        } catch (BodyTooLargeException e) {
+            exchange.getResponseHeaders().set("Connection", "close");
+            return new Response(413, error(e.getMessage()));
+        } catch (IOException e) {
+            return new Response(400, error("No se pudo leer la solicitud"));
+        } catch (RuntimeException e) {
+            return new Response(500, error("Error interno: " + e.getMessage()));
+        }
+    }
+
+    private Response products(String method, List<String> path, Map<String, String> query, Object body) {
+        String resource = path.size() > 1 ? path.get(1) : null;
+        if (path.size() > 2) {
+            return notFound();
+        }
+        if (resource == null) {
+            return switch (method) {
+                case "GET" -> Response.ok(
+                        toJson(productService.findAll(query.get("cursor"), pageLimit(query)), StoreHttpServer::toJson));
+                case "POST" -> new Response(201, toJson(productService.addProduct(toProduct(null, body))));
+                default -> methodNotAllowed();
+            };
+        }
+        if (method.equals("PUT")) {
+            Product product = toProduct(resource, body);
+            Object version = ((Map<?, ?>) body).get("version");
+            Optional<Product> updated = version == null
+                    ? productService.updateProduct(product)
+                    : productService.updateProduct(product, ((Number) version).longValue());
+            return Response.ok(toJson(updated.orElseThrow(() -> productNotFound(resource))));
+        }
+        if (!method.equals("GET")) {
+            return methodNotAllowed();
+        }
+        return switch (resource) {
+            case "out-of-stock" -> Response.ok(toJson(
+                    productService.findOutOfStock(query.get("cursor"), pageLimit(query)), StoreHttpServer::toJson));
+            case "most-sold" -> Response.ok(toJson(productService.getMostSoldProduct()
+                    .orElseThrow(() -> new NoSuchElementException("No hay ventas registradas"))));
+            case "least-sold" -> Response.ok(toJson(productService.getLeastSoldProduct()
+                    .orElseThrow(() -> new NoSuchElementException("No hay ventas registradas"))));
+            case "top" -> Response.ok(productService.topN(limit(query)).stream().map(StoreHttpServer::toJson).toList());
+            case "bottom" -> Response.ok(productService.bottomN(limit(query)).stream().map(StoreHttpServer::toJson).toList());
+            default -> Response.ok(toJson(productService.findById(resource).orElseThrow(() -> productNotFound(resource))));
+        };
+    }
+
+    private Response sales(String method, List<String> path, Map<String, String> query, Object body) {
+        String resource = path.size() > 1 ? path.get(1) : null;
+        if (path.size() > 2) {
+            return notFound();
+        }
+        if (resource == null) {
+            return switch (method) {
+                case "GET" -> Response.ok(
+                        toJson(saleService.findAll(query.get("cursor"), pageLimit(query)), StoreHttpServer::toJson));
+                case "POST" -> new Response(201, toJson(saleService.registerSale(toSale(body))));
+                default -> methodNotAllowed();
+            };
+        }
+        if (resource.equals("batch")) {
+            if (!method.equals("POST")) {
+                return methodNotAllowed();
+            }
+            List<Sale> batch = new ArrayList<>();
+            for (Object sale : (List<?>) body) {
+                batch.add(toSale(sale));
+            }
+            return new Response(201, saleService.registerSales(batch).stream().map(StoreHttpServer::toJson).toList());
+        }
+        if (!method.equals("GET")) {
+            return methodNotAllowed();
+        }
+        if (resource.equals("averages")) {
+            return Response.ok(averages(query));
+        }
+        return Response.ok(toJson(saleService.findById(resource)
+                .orElseThrow(() -> new NoSuchElementException("Venta no encontrada: " + resource))));
+    }
+
+    private Map<String, Object> averages(Map<String, String> query) {
+        Map<String, Object> averages = new LinkedHashMap<>();
+        if (query.containsKey("start") || query.containsKey("end")) {
+            LocalDateTime start = LocalDateTime.parse(required(query, "start"));
+            LocalDateTime end = LocalDateTime.parse(required(query, "end"));
+            averages.put("average", saleService.calculateAverageSalesByPeriod(start, end));
+        } else if (reports != null) {
+            averages.put("weekly", reports.report(SalesReports.Period.WEEK).dailyAverage());
+            averages.put("monthly", reports.report(SalesReports.Period.MONTH).dailyAverage());
+            averages.put("yearly", reports.report(SalesReports.Period.YEAR).dailyAverage());
+        } else {
+            averages.put("weekly", saleService.calculateWeeklyAverage());
+            averages.put("monthly", saleService.calculateMonthlyAverage());
+            averages.put("yearly", saleService.calculateYearlyAverage());
+        }
+        return averages;
+    }
+
+    private Response reports(String method, List<String> path, Map<String, String> query, Object body) {
+        if (!method.equals("GET")) {
+            return methodNotAllowed();
+        }
+        if (path.size() == 1) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            for (SalesReports.Period period : SalesReports.Period.values()) {
+                json.put(period.name().toLowerCase(), toJson(reports.report(period)));
+            }
+            json.put("outOfStock", reports.outOfStockCount());
+            return Response.ok(json);
+        }
+        if (path.size() > 2) {
+            return notFound();
+        }
+        SalesReports.Period period = Arrays.stream(SalesReports.Period.values())
+                .filter(candidate -> candidate.name().equalsIgnoreCase(path.get(1)))
+                .findFirst()
+                .orElseThrow(() -> new NoSuchElementException("Periodo no encontrado: " + path.get(1)));
+        return Response.ok(toJson(reports.report(period)));
+    }
+
+    private Product toProduct(String id, Object body) {
+        Map<?, ?> fields = (Map<?, ?>) body;
+        if (fields == null) {
+            throw new IllegalArgumentException("Se esperaba un producto en el cuerpo de la solicitud");
+        }
+        return Product.builder()
+                .id(id)
+                .name((String) fields.get("name"))
+                .description((String) fields.get("description"))
+                .price(number(fields, "price").doubleValue())
+                .stock(Math.toIntExact(number(fields, "stock").longValue()))
+                .build();
+    }
+
+    private Sale toSale(Object body) {
+        Map<?, ?> fields = (Map<?, ?>) body;
+        List<?> requested = fields == null ? null : (List<?>) fields.get("items");
+        if (requested == null || requested.isEmpty()) {
+            throw new IllegalArgumentException("La venta debe tener al menos un producto");
+        }
+        List<SaleItem> items = new ArrayList<>(requested.size());
+        for (Object element : requested) {
+            Map<?, ?> item = (Map<?, ?>) element;
+            String productId = (String) item.get("productId");
+            Product product = Optional.ofNullable(productId)
+                    .flatMap(productService::findById)
+                    .orElseThrow(() -> productNotFound(productId));
+            int quantity = Math.toIntExact(number(item, "quantity").longValue());
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser positiva: " + quantity);
+            }
+            items.add(new SaleItem(product, quantity, 0));
+        }
+        return Sale.builder().items(items).build();
+    }
+
+    private static Map<String, Object> toJson(Product product) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", product.getId());
+        json.put("name", product.getName());
+        json.put("description", product.getDescription());
+        json.put("price", product.getPrice());
+        json.put("stock", product.getStock());
+        json.put("version", product.getVersion());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Sale sale) {
+        List<Map<String, Object>> items = new ArrayList<>(sale.getItems().size());
+        for (SaleItem item : sale.getItems()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("productId", item.getProduct().getId());
+            json.put("name", item.getProduct().getName());
+            json.put("quantity", item.getQuantity());
+            json.put("subtotal", item.getSubtotal());
+            items.add(json);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", sale.getId());
+        json.put("code", sale.getCode());
+        json.put("date", sale.getDate() == null ? null : sale.getDate().toString());
+        json.put("total", sale.getTotal());
+        json.put("items", items);
+        return json;
+    }
+
+    private static Map<String, Object> toJson(SalesReports.PeriodReport report) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("start", report.start().toString());
+        json.put("end", report.end().toString());
+        json.put("sales", report.sales());
+        json.put("revenue", report.revenue());
+        json.put("dailyAverage", report.dailyAverage());
+        json.put("bestSeller", report.bestSeller().map(StoreHttpServer::toJson).orElse(null));
+        json.put("worstSeller", report.worstSeller().map(StoreHttpServer::toJson).orElse(null));
+        return json;
+    }
+
+    private static Map<String, Object> toJson(SalesReports.Seller seller) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("productId", seller.productId());
+        json.put("units", seller.units());
+        return json;
+    }
+
+    private static <T> Map<String, Object> toJson(Page<T> page, Function<T, Map<String, Object>> toJson) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("items", page.items().stream().map(toJson).toList());
+        json.put("nextCursor", page.nextCursor());
+        return json;
+    }
+
+    private static int pageLimit(Map<String, String> query) {
+        return bounded(query.getOrDefault("limit", String.valueOf(DEFAULT_PAGE_SIZE)));
+    }
+
+    private static int bounded(String value) {
+        int limit = Integer.parseInt(value);
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser positivo: " + limit);
+        }
+        if (limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El límite no puede superar " + MAX_PAGE_SIZE + ": " + limit);
+        }
+        return limit;
+    }
+
+    private static Number number(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("Campo numérico requerido: " + name);
+        }
+        return number;
+    }
+
+    private static int limit(Map<String, String> query) {
+        return bounded(query.getOrDefault("n", "10"));
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Parámetro requerido: " + name);
+        }
+        return value;
+    }
+
+    private static NoSuchElementException productNotFound(String id) {
+        return new NoSuchElementException("Producto no encontrado: " + id);
+    }
+
+    private static Response notFound() {
+        return new Response(404, error("Recurso no encontrado"));
+    }
+
+    private static Response methodNotAllowed() {
+        return new Response(405, error("Método no permitido"));
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", String.valueOf(message));
+    }
+
+    private static void metrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] bytes = Metrics.dump().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length == 0 ? -1 : bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private static Object readBody(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            // Closing with unread input resets the connection before the client reads the
+            // 413, so discard a bounded amount of what is left
+            long discarded = bytes.length;
+            int read;
+            while (discarded < MAX_DISCARDED_BYTES && (read = in.read(bytes)) >= 0) {
+                discarded += read;
+            }
+            throw new BodyTooLargeException();
+        }
+        return bytes.length == 0 ? null : Json.parse(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException() {
+            super("La solicitud supera el tamaño máximo de " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+            }
+        }
+        return segments;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+}
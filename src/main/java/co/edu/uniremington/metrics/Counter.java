@@ -0,0 +1,46 @@
+package co.edu.uniremington.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a {@link LongAdder}, so contended increments do not
+ * fight over a single cache line.
+ */
+public final class Counter {
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Adds one to the counter. Does nothing when metrics are disabled.
+     */
+    public void increment() {
+        if (Metrics.ENABLED) {
+            value.increment();
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the counter. Does nothing when metrics are disabled.
+     */
+    public void add(long delta) {
+        if (Metrics.ENABLED) {
+            value.add(delta);
+        }
+    }
+
+    public long count() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
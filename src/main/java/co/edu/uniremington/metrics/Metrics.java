@@ -0,0 +1,172 @@
+package co.edu.uniremington.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of counters, gauges and latency histograms.
+ *
+ * <p>Metrics are enabled with {@code -Dstore.metrics=true}. The flag is a
+ * {@code static final} constant, so when it is off the JIT folds every
+ * {@link #start()}, {@link LatencyHistogram#recordSince(long)} and
+ * {@link Counter#increment()} call into nothing and the hot paths pay no cost.
+ * When it is on, the registry is also published over JMX.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("store.metrics");
+    public static final String OBJECT_NAME = "co.edu.uniremington:type=StoreMetrics";
+
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, List<GaugeSource<?>>> GAUGES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            registerMBean();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Publishes a gauge read on demand by applying {@code value} to {@code owner}. Every
+     * instance of a service registers under the same name, so the gauge reports the sum
+     * over the owners still alive; owners are held weakly and dropped once collected, so
+     * {@code value} must not capture them. Does nothing when metrics are disabled.
+     */
+    public static <T> void gauge(String name, T owner, ToLongFunction<? super T> value) {
+        if (ENABLED) {
+            GAUGES.computeIfAbsent(name, ignored -> new CopyOnWriteArrayList<>())
+                    .add(new GaugeSource<>(owner, value));
+        }
+    }
+
+    /**
+     * Returns the start timestamp for a latency measurement, or zero when metrics are
+     * disabled.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static Map<String, Long> counters() {
+        Map<String, Long> counters = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> counters.put(name, counter.count()));
+        return counters;
+    }
+
+    public static Map<String, Long> gauges() {
+        Map<String, Long> gauges = new TreeMap<>();
+        GAUGES.forEach((name, sources) -> {
+            sources.removeIf(source -> source.get() == null);
+            gauges.put(name, sources.stream().mapToLong(GaugeSource::read).sum());
+        });
+        return gauges;
+    }
+
+    public static Map<String, LatencyHistogram.Snapshot> histograms() {
+        Map<String, LatencyHistogram.Snapshot> histograms = new TreeMap<>();
+        HISTOGRAMS.forEach((name, histogram) -> histograms.put(name, histogram.snapshot()));
+        return histograms;
+    }
+
+    /**
+     * Renders every metric as one line of text, with latencies in microseconds.
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        counters().forEach((name, count) -> out.append("counter ").append(name).append(' ').append(count).append('\n'));
+        gauges().forEach((name, value) -> out.append("gauge ").append(name).append(' ').append(value).append('\n'));
+        histograms().forEach((name, snapshot) -> out.append(String.format(
+                "latency %s count=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f us%n",
+                name, snapshot.count(), snapshot.mean() / 1_000,
+                micros(snapshot.percentile(0.50)), micros(snapshot.percentile(0.90)),
+                micros(snapshot.percentile(0.99)), micros(snapshot.percentile(0.999)),
+                micros(snapshot.max()))));
+        return out.toString();
+    }
+
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    private static final class GaugeSource<T> extends WeakReference<T> {
+        private final ToLongFunction<? super T> value;
+
+        GaugeSource(T owner, ToLongFunction<? super T> value) {
+            super(owner);
+            this.value = value;
+        }
+
+        long read() {
+            T owner = get();
+            return owner == null ? 0 : value.applyAsLong(owner);
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    private static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StoreMetrics(), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("No se pudieron publicar las métricas por JMX: " + e.getMessage());
+        }
+    }
+
+    private static final class StoreMetrics implements StoreMetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return gauges();
+        }
+
+        @Override
+        public Map<String, Double> getLatencies() {
+            Map<String, Double> latencies = new TreeMap<>();
+            histograms().forEach((name, snapshot) -> {
+                latencies.put(name + ".mean", snapshot.mean() / 1_000);
+                latencies.put(name + ".p50", micros(snapshot.percentile(0.50)));
+                latencies.put(name + ".p99", micros(snapshot.percentile(0.99)));
+                latencies.put(name + ".p999", micros(snapshot.percentile(0.999)));
+                latencies.put(name + ".max", micros(snapshot.max()));
+            });
+            return latencies;
+        }
+
+        @Override
+        public String dump() {
+            return Metrics.dump();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
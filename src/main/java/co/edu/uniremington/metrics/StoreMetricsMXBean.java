@@ -0,0 +1,19 @@
+package co.edu.uniremington.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the store metrics, registered as {@value Metrics#OBJECT_NAME}.
+ * Latencies are reported in microseconds.
+ */
+public interface StoreMetricsMXBean {
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    Map<String, Double> getLatencies();
+
+    String dump();
+
+    void reset();
+}
@@ -1,14 +1,24 @@
 package co.edu.uniremington.model;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
+import lombok.With;
 
-@Data
-@Builder
+/**
+ * Immutable catalog entry. Changes are made by building a new instance with
+ * {@code toBuilder()} or {@code withStock}; services store each change with the next
+ * {@code version}, which callers pass back to update a product only if it has not
+ * changed since they read it.
+ */
+@Value
+@Builder(toBuilder = true)
 public class Product {
     private String id;
     private String name;
     private String description;
     private double price;
+    @With
     private int stock;
+    @With
+    private long version;
 }
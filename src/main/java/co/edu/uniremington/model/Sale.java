@@ -1,5 +1,6 @@
 package co.edu.uniremington.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -7,6 +8,7 @@ import java.util.List;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class Sale {
     private String id;
     private String code;
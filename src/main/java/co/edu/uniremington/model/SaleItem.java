@@ -1,10 +1,12 @@
 package co.edu.uniremington.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class SaleItem {
     private Product product;
     private int quantity;
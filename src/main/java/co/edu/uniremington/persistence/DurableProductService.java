@@ -0,0 +1,202 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Journals every product mutation of a {@link DurableStore}; queries go straight to the
+ * in-memory service.
+ */
+final class DurableProductService implements ProductService {
+    private final DurableStore store;
+    private final ProductService delegate;
+
+    DurableProductService(DurableStore store, ProductService delegate) {
+        this.store = store;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Product addProduct(Product product) {
+        return store.apply(JournalEntryType.PRODUCT_ADDED,
+                () -> delegate.addProduct(product),
+                added -> StoreCodec.encode(out -> StoreCodec.writeProduct(out, added)));
+    }
+
+    @Override
+    public List<Product> addProducts(Collection<Product> products) {
+        return store.apply(JournalEntryType.PRODUCTS_ADDED,
+                () -> delegate.addProducts(products),
+                added -> StoreCodec.encode(out -> {
+                    out.writeInt(added.size());
+                    for (Product product : added) {
+                        StoreCodec.writeProduct(out, product);
+                    }
+                }));
+    }
+
+    @Override
+    public Optional<Product> updateProduct(Product product) {
+        return store.apply(JournalEntryType.PRODUCT_UPDATED,
+                () -> delegate.updateProduct(product),
+                updated -> updated.map(p -> StoreCodec.encode(out -> StoreCodec.writeProduct(out, p))).orElse(null));
+    }
+
+    /**
+     * Journals the stored product as a plain update: replay applies the entries in the
+     * order they were written, so the version check does not need to be repeated.
+     */
+    @Override
+    public Optional<Product> updateProduct(Product product, long expectedVersion) {
+        return store.apply(JournalEntryType.PRODUCT_UPDATED,
+                () -> delegate.updateProduct(product, expectedVersion),
+                updated -> updated.map(p -> StoreCodec.encode(out -> StoreCodec.writeProduct(out, p))).orElse(null));
+    }
+
+    @Override
+    public boolean reserveStock(String productId, int quantity) {
+        return store.apply(JournalEntryType.STOCK_RESERVED,
+                () -> delegate.reserveStock(productId, quantity),
+                reserved -> reserved ? encodeQuantity(productId, quantity) : null);
+    }
+
+    @Override
+    public void releaseStock(String productId, int quantity) {
+        store.apply(JournalEntryType.STOCK_RELEASED,
+                () -> {
+                    delegate.releaseStock(productId, quantity);
+                    return productId;
+                },
+                released -> encodeQuantity(productId, quantity));
+    }
+
+    @Override
+    public void incrementProductSales(String productId, long quantity) {
+        store.apply(JournalEntryType.SALES_INCREMENTED,
+                () -> {
+                    delegate.incrementProductSales(productId, quantity);
+                    return productId;
+                },
+                incremented -> StoreCodec.encode(out -> {
+                    StoreCodec.writeString(out, productId);
+                    out.writeLong(quantity);
+                }));
+    }
+
+    @Override
+    public Optional<String> reserveAll(Map<String, Integer> quantities) {
+        return store.apply(JournalEntryType.STOCKS_RESERVED,
+                () -> delegate.reserveAll(quantities),
+                lacking -> lacking.isEmpty() ? encodeQuantities(quantities) : null);
+    }
+
+    @Override
+    public void releaseAll(Map<String, Integer> quantities) {
+        store.apply(JournalEntryType.STOCKS_RELEASED,
+                () -> {
+                    delegate.releaseAll(quantities);
+                    return quantities;
+                },
+                DurableProductService::encodeQuantities);
+    }
+
+    private static byte[] encodeQuantities(Map<String, Integer> quantities) {
+        return StoreCodec.encode(out -> {
+            out.writeInt(quantities.size());
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                StoreCodec.writeString(out, entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        });
+    }
+
+    private static byte[] encodeQuantity(String productId, int quantity) {
+        return StoreCodec.encode(out -> {
+            StoreCodec.writeString(out, productId);
+            out.writeInt(quantity);
+        });
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<Product> findAll(String cursor, int limit) {
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Product> findByPredicate(Predicate<Product> predicate) {
+        return delegate.findByPredicate(predicate);
+    }
+
+    @Override
+    public Stream<Product> streamByPredicate(Predicate<Product> predicate) {
+        return delegate.streamByPredicate(predicate);
+    }
+
+    @Override
+    public List<Product> findOutOfStock() {
+        return delegate.findOutOfStock();
+    }
+
+    @Override
+    public List<Product> findLowStock(int threshold) {
+        return delegate.findLowStock(threshold);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(double min, double max) {
+        return delegate.findByPriceRange(min, max);
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix) {
+        return delegate.findByNamePrefix(prefix);
+    }
+
+    @Override
+    public Optional<Product> getMostSoldProduct() {
+        return delegate.getMostSoldProduct();
+    }
+
+    @Override
+    public Optional<Product> getLeastSoldProduct() {
+        return delegate.getLeastSoldProduct();
+    }
+
+    @Override
+    public List<Product> topN(int n) {
+        return delegate.topN(n);
+    }
+
+    @Override
+    public List<Product> bottomN(int n) {
+        return delegate.bottomN(n);
+    }
+
+    @Override
+    public long getSoldQuantity(String productId) {
+        return delegate.getSoldQuantity(productId);
+    }
+}
@@ -0,0 +1,84 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.SaleService;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Journals every sale registered in a {@link DurableStore}. The entry holds the sale as
+ * registered, so replaying it applies the same inventory and sales-count changes.
+ */
+final class DurableSaleService implements SaleService {
+    private final DurableStore store;
+    private final SaleService delegate;
+
+    DurableSaleService(DurableStore store, SaleService delegate) {
+        this.store = store;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Sale registerSale(Sale sale) {
+        return store.apply(JournalEntryType.SALE_REGISTERED,
+                () -> delegate.registerSale(sale),
+                registered -> StoreCodec.encode(out -> StoreCodec.writeSale(out, registered)));
+    }
+
+    @Override
+    public List<Sale> registerSales(Collection<Sale> sales) {
+        return store.apply(JournalEntryType.SALES_REGISTERED,
+                () -> delegate.registerSales(sales),
+                registered -> StoreCodec.encode(out -> {
+                    out.writeInt(registered.size());
+                    for (Sale sale : registered) {
+                        StoreCodec.writeSale(out, sale);
+                    }
+                }));
+    }
+
+    @Override
+    public Optional<Sale> findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Sale> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<Sale> findAll(String cursor, int limit) {
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public Stream<Sale> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public double calculateAverageSalesByPeriod(LocalDateTime start, LocalDateTime end) {
+        return delegate.calculateAverageSalesByPeriod(start, end);
+    }
+
+    @Override
+    public double calculateWeeklyAverage() {
+        return delegate.calculateWeeklyAverage();
+    }
+
+    @Override
+    public double calculateMonthlyAverage() {
+        return delegate.calculateMonthlyAverage();
+    }
+
+    @Override
+    public double calculateYearlyAverage() {
+        return delegate.calculateYearlyAverage();
+    }
+}
@@ -0,0 +1,236 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Product and sale services whose state survives restarts.
+ *
+ * <p>Every successful mutation is appended to a {@link Journal} and the calling thread
+ * returns once the entry is on disk. Mutations are applied and appended under a single
+ * monitor so that the journal order is exactly the order in which they were applied;
+ * the expensive part, forcing the file, happens outside of it and is shared by all the
+ * threads waiting at the same time.
+ *
+ * <p>{@link #checkpoint()} writes a compacted {@link Snapshot} and starts a new journal
+ * generation, after which older files are deleted. On {@link #open} the latest snapshot
+ * is memory-mapped and loaded and the journal generations after it are replayed.
+ *
+ * <p>A {@link Replicator} started on the store ships the same entries, in the same
+ * order, to {@link Replica hot standbys}.
+ */
+public final class DurableStore implements Closeable {
+    private final Path directory;
+    private final ProductServiceImpl products;
+    private final SaleServiceImpl sales;
+    private final StoreReplayer replayer;
+    private final Object mutationLock = new Object();
+    private final Journal journal;
+    private final ProductService productService;
+    private final SaleService saleService;
+    private final ScheduledExecutorService checkpoints;
+    /**
+     * Number of entries logged since the store was opened; written under the mutation
+     * lock.
+     */
+    private volatile long sequence;
+    private Replicator replicator;
+
+    private DurableStore(Path directory, Duration checkpointInterval, StoreEventSink events) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.products = new ProductServiceImpl(events);
+        this.sales = new SaleServiceImpl(products, events);
+        this.replayer = new StoreReplayer(products, sales);
+        this.journal = new Journal(directory, recover());
+        this.productService = new DurableProductService(this, products);
+        this.saleService = new DurableSaleService(this, sales);
+        this.checkpoints = checkpointInterval == null ? null : scheduleCheckpoints(checkpointInterval);
+    }
+
+    public static DurableStore open(Path directory) throws IOException {
+        return new DurableStore(directory, null, StoreEventSink.NONE);
+    }
+
+    /**
+     * Opens the store and writes a snapshot every {@code checkpointInterval}.
+     */
+    public static DurableStore open(Path directory, Duration checkpointInterval) throws IOException {
+        return new DurableStore(directory, checkpointInterval, StoreEventSink.NONE);
+    }
+
+    /**
+     * Opens the store publishing the events of its services to {@code events}, including
+     * those of the journal entries replayed while opening.
+     */
+    public static DurableStore open(Path directory, Duration checkpointInterval, StoreEventSink events) throws IOException {
+        return new DurableStore(directory, checkpointInterval, events);
+    }
+
+    public ProductService productService() {
+        return productService;
+    }
+
+    public SaleService saleService() {
+        return saleService;
+    }
+
+    /**
+     * Applies {@code mutation} and, when {@code toEntry} maps its result to a payload,
+     * logs it under {@code type} and waits until it is durable. Once the journal has
+     * failed, mutations are rejected before being applied.
+     */
+    <T> T apply(JournalEntryType type, Supplier<T> mutation, Function<T, byte[]> toEntry) {
+        T result;
+        long position;
+        synchronized (mutationLock) {
+            journal.checkWritable();
+            result = mutation.get();
+            byte[] payload = toEntry.apply(result);
+            if (payload == null) {
+                return result;
+            }
+            position = journal.append(type, payload);
+            sequence++;
+            if (replicator != null) {
+                replicator.appended(sequence, type, payload);
+            }
+        }
+        try {
+            journal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Sends every entry logged from now on to {@code replicator}, or stops when
+     * {@code null}.
+     */
+    void replicateWith(Replicator replicator) {
+        synchronized (mutationLock) {
+            this.replicator = replicator;
+        }
+    }
+
+    /**
+     * Runs {@code action} while no mutation can be applied, so that it sees the state
+     * that corresponds exactly to {@link #sequence()}.
+     */
+    void whileStopped(Runnable action) {
+        synchronized (mutationLock) {
+            action.run();
+        }
+    }
+
+    public void checkpoint() throws IOException {
+        List<Product> catalog;
+        long[] soldQuantities;
+        List<Sale> history;
+        long generation;
+        journal.lockFlush();
+        try {
+            synchronized (mutationLock) {
+                catalog = products.findAll();
+                soldQuantities = soldQuantities(products, catalog);
+                history = sales.findAll();
+                generation = journal.roll();
+            }
+        } finally {
+            journal.unlockFlush();
+        }
+        Snapshot.write(directory, generation, catalog, soldQuantities, history);
+        deleteGenerationsBefore(generation);
+    }
+
+    /**
+     * Copies the units sold of each product of {@code catalog}, in the same order.
+     */
+    static long[] soldQuantities(ProductService productService, List<Product> catalog) {
+        long[] sold = new long[catalog.size()];
+        for (int i = 0; i < sold.length; i++) {
+            sold[i] = productService.getSoldQuantity(catalog.get(i).getId());
+        }
+        return sold;
+    }
+
+    private long recover() throws IOException {
+        long snapshotGeneration = Snapshot.latestGeneration(directory).orElse(0);
+        Path snapshot = Snapshot.file(directory, snapshotGeneration);
+        if (Files.exists(snapshot)) {
+            Snapshot.load(snapshot, replayer::loadProduct, replayer::resolveProduct, sales::restoreSale);
+        }
+        long generation = snapshotGeneration;
+        for (long journalGeneration : Journal.generations(directory)) {
+            if (journalGeneration >= snapshotGeneration) {
+                Journal.replay(Journal.file(directory, journalGeneration), replayer::apply);
+                generation = journalGeneration;
+            }
+        }
+        return generation;
+    }
+
+    private void deleteGenerationsBefore(long generation) throws IOException {
+        for (long old : Journal.generations(directory)) {
+            if (old < generation) {
+                Files.deleteIfExists(Journal.file(directory, old));
+            }
+        }
+        for (long old : Snapshot.generations(directory)) {
+            if (old < generation) {
+                Files.deleteIfExists(Snapshot.file(directory, old));
+            }
+        }
+    }
+
+    private ScheduledExecutorService scheduleCheckpoints(Duration interval) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                System.err.println("No se pudo escribir el snapshot: " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (checkpoints != null) {
+            checkpoints.shutdown();
+            try {
+                checkpoints.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        journal.close();
+    }
+}
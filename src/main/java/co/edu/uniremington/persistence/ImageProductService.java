@@ -0,0 +1,226 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Loads the products of a {@link StoreImage} into the in-memory service as they are
+ * used. Operations on a single product load just that product; operations over the
+ * whole catalog load every product still in the image first.
+ */
+final class ImageProductService implements ProductService {
+    private final StoreImage image;
+    private final ProductServiceImpl delegate;
+    /**
+     * Ids already looked up in the image. A product is loaded inside
+     * {@link ConcurrentHashMap#computeIfAbsent}, so two threads never load the same one
+     * and overwrite the changes made in between.
+     */
+    private final ConcurrentHashMap<String, Boolean> loaded = new ConcurrentHashMap<>();
+    private volatile boolean complete;
+
+    ImageProductService(StoreImage image, ProductServiceImpl delegate) {
+        this.image = image;
+        this.delegate = delegate;
+    }
+
+    private void load(String id) {
+        if (!complete && id != null) {
+            loaded.computeIfAbsent(id, key -> {
+                // Threads may get here after loadAll cleared the map: skip products already in memory
+                if (delegate.findById(key).isEmpty()) {
+                    image.loadProduct(key, this::restore);
+                }
+                return Boolean.TRUE;
+            });
+        }
+    }
+
+    void loadAll() {
+        if (!complete) {
+            loadRemaining();
+        }
+    }
+
+    private synchronized void loadRemaining() {
+        if (complete) {
+            return;
+        }
+        image.forEachProduct((product, soldQuantity) -> loaded.computeIfAbsent(product.getId(), key -> {
+            if (delegate.findById(key).isEmpty()) {
+                restore(product, soldQuantity);
+            }
+            return Boolean.TRUE;
+        }));
+        complete = true;
+        loaded.clear();
+    }
+
+    private void restore(Product product, long soldQuantity) {
+        delegate.restoreProduct(product);
+        if (soldQuantity > 0) {
+            delegate.incrementProductSales(product.getId(), soldQuantity);
+        }
+    }
+
+    @Override
+    public Product addProduct(Product product) {
+        load(product.getId());
+        return delegate.addProduct(product);
+    }
+
+    @Override
+    public List<Product> addProducts(Collection<Product> products) {
+        products.forEach(product -> load(product.getId()));
+        return delegate.addProducts(products);
+    }
+
+    @Override
+    public Optional<Product> updateProduct(Product product) {
+        load(product.getId());
+        return delegate.updateProduct(product);
+    }
+
+    @Override
+    public Optional<Product> updateProduct(Product product, long expectedVersion) {
+        load(product.getId());
+        return delegate.updateProduct(product, expectedVersion);
+    }
+
+    @Override
+    public Optional<Product> updateProduct(String id, UnaryOperator<Product> change) {
+        load(id);
+        return delegate.updateProduct(id, change);
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        load(id);
+        return delegate.findById(id);
+    }
+
+    @Override
+    public boolean reserveStock(String productId, int quantity) {
+        load(productId);
+        return delegate.reserveStock(productId, quantity);
+    }
+
+    @Override
+    public void releaseStock(String productId, int quantity) {
+        load(productId);
+        delegate.releaseStock(productId, quantity);
+    }
+
+    @Override
+    public Optional<String> reserveAll(Map<String, Integer> quantities) {
+        quantities.keySet().forEach(this::load);
+        return delegate.reserveAll(quantities);
+    }
+
+    @Override
+    public void releaseAll(Map<String, Integer> quantities) {
+        quantities.keySet().forEach(this::load);
+        delegate.releaseAll(quantities);
+    }
+
+    @Override
+    public void incrementProductSales(String productId, long quantity) {
+        load(productId);
+        delegate.incrementProductSales(productId, quantity);
+    }
+
+    @Override
+    public long getSoldQuantity(String productId) {
+        load(productId);
+        return delegate.getSoldQuantity(productId);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        loadAll();
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<Product> findAll(String cursor, int limit) {
+        loadAll();
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        loadAll();
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Product> findByPredicate(Predicate<Product> predicate) {
+        loadAll();
+        return delegate.findByPredicate(predicate);
+    }
+
+    @Override
+    public Stream<Product> streamByPredicate(Predicate<Product> predicate) {
+        loadAll();
+        return delegate.streamByPredicate(predicate);
+    }
+
+    @Override
+    public List<Product> findOutOfStock() {
+        loadAll();
+        return delegate.findOutOfStock();
+    }
+
+    @Override
+    public List<Product> findLowStock(int threshold) {
+        loadAll();
+        return delegate.findLowStock(threshold);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(double min, double max) {
+        loadAll();
+        return delegate.findByPriceRange(min, max);
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix) {
+        loadAll();
+        return delegate.findByNamePrefix(prefix);
+    }
+
+    @Override
+    public Optional<Product> getMostSoldProduct() {
+        loadAll();
+        return delegate.getMostSoldProduct();
+    }
+
+    @Override
+    public Optional<Product> getLeastSoldProduct() {
+        loadAll();
+        return delegate.getLeastSoldProduct();
+    }
+
+    @Override
+    public List<Product> topN(int n) {
+        loadAll();
+        return delegate.topN(n);
+    }
+
+    @Override
+    public List<Product> bottomN(int n) {
+        loadAll();
+        return delegate.bottomN(n);
+    }
+}
@@ -0,0 +1,107 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Registers sales right away and loads the sales history of a {@link StoreImage} the
+ * first time it is queried. Sales registered before that keep their place in the
+ * history, which is ordered by id.
+ */
+final class ImageSaleService implements SaleService {
+    private final StoreImage image;
+    private final SaleServiceImpl delegate;
+    private final ProductService products;
+    private volatile boolean historyLoaded;
+
+    ImageSaleService(StoreImage image, SaleServiceImpl delegate, ProductService products) {
+        this.image = image;
+        this.delegate = delegate;
+        this.products = products;
+    }
+
+    void loadHistory() {
+        if (!historyLoaded) {
+            loadRemainingHistory();
+        }
+    }
+
+    private synchronized void loadRemainingHistory() {
+        if (!historyLoaded) {
+            image.forEachSale(this::resolveProduct, delegate::restoreSale);
+            historyLoaded = true;
+        }
+    }
+
+    private Product resolveProduct(String id) {
+        return products.findById(id).orElseGet(() -> Product.builder().id(id).build());
+    }
+
+    @Override
+    public Sale registerSale(Sale sale) {
+        return delegate.registerSale(sale);
+    }
+
+    @Override
+    public List<Sale> registerSales(Collection<Sale> sales) {
+        return delegate.registerSales(sales);
+    }
+
+    @Override
+    public Optional<Sale> findById(String id) {
+        loadHistory();
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Sale> findAll() {
+        loadHistory();
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<Sale> findAll(String cursor, int limit) {
+        loadHistory();
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public Stream<Sale> streamAll() {
+        loadHistory();
+        return delegate.streamAll();
+    }
+
+    @Override
+    public double calculateAverageSalesByPeriod(LocalDateTime start, LocalDateTime end) {
+        loadHistory();
+        return delegate.calculateAverageSalesByPeriod(start, end);
+    }
+
+    @Override
+    public double calculateWeeklyAverage() {
+        loadHistory();
+        return delegate.calculateWeeklyAverage();
+    }
+
+    @Override
+    public double calculateMonthlyAverage() {
+        loadHistory();
+        return delegate.calculateMonthlyAverage();
+    }
+
+    @Override
+    public double calculateYearlyAverage() {
+        loadHistory();
+        return delegate.calculateYearlyAverage();
+    }
+}
@@ -0,0 +1,229 @@
+package co.edu.uniremington.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of store mutations split in numbered generations
+ * ({@code journal-<generation>.log}). Each entry is framed as
+ * {@code [int length][int crc32c][byte type][payload]}.
+ *
+ * <p>Appends only copy the entry into an in-memory buffer. {@link #sync(long)} implements
+ * group commit: the first caller that needs an entry on disk becomes the leader, writes
+ * every buffered entry and forces the file once, which makes all of them durable for the
+ * callers waiting behind it.
+ *
+ * <p>If writing or forcing the file fails, the buffered entries can no longer be made
+ * durable in order, so the journal fails for good: the error is rethrown to every
+ * caller waiting for it and to every later append, sync and roll.
+ */
+final class Journal implements Closeable {
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int INITIAL_BUFFER = 1 << 20;
+
+    private final Path directory;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private FileChannel channel;
+    private long generation;
+    private ByteBuffer active = ByteBuffer.allocateDirect(INITIAL_BUFFER);
+    private ByteBuffer spare = ByteBuffer.allocateDirect(INITIAL_BUFFER);
+    private long appended;
+    private volatile long durable;
+    private volatile IOException failure;
+
+    Journal(Path directory, long generation) throws IOException {
+        this.directory = directory;
+        this.generation = generation;
+        this.channel = openForAppend(file(directory, generation));
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Buffers an entry and returns the log position that must be synced for it to be durable.
+     */
+    synchronized long append(JournalEntryType type, byte[] payload) {
+        checkWritable();
+        int frame = HEADER_BYTES + 1 + payload.length;
+        if (active.remaining() < frame) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(active.capacity() * 2, active.position() + frame));
+            grown.put(active.flip());
+            active = grown;
+        }
+        var crc = new CRC32C();
+        crc.update(type.code());
+        crc.update(payload);
+        active.putInt(payload.length + 1)
+                .putInt((int) crc.getValue())
+                .put(type.code())
+                .put(payload);
+        appended += frame;
+        return appended;
+    }
+
+    /**
+     * Fails with the error that made the journal unusable, if any.
+     */
+    void checkWritable() {
+        IOException error = failure;
+        if (error != null) {
+            throw new UncheckedIOException("El journal dejó de aceptar cambios", error);
+        }
+    }
+
+    void sync(long position) throws IOException {
+        if (durable >= position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (durable < position) {
+                flush();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    void lockFlush() {
+        flushLock.lock();
+    }
+
+    void unlockFlush() {
+        flushLock.unlock();
+    }
+
+    /**
+     * Makes every buffered entry durable and starts a new generation. The caller must
+     * hold the flush lock and keep appends out until this method returns.
+     *
+     * @return the new generation
+     */
+    long roll() throws IOException {
+        flush();
+        channel.close();
+        generation++;
+        channel = openForAppend(file(directory, generation));
+        return generation;
+    }
+
+    private void flush() throws IOException {
+        if (failure != null) {
+            throw new IOException("El journal dejó de aceptar cambios", failure);
+        }
+        ByteBuffer pending;
+        long position;
+        synchronized (this) {
+            pending = active;
+            active = spare;
+            position = appended;
+        }
+        try {
+            pending.flip();
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } finally {
+            pending.clear();
+            synchronized (this) {
+                spare = pending;
+            }
+        }
+        durable = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            if (failure == null) {
+                flush();
+            }
+        } finally {
+            try {
+                channel.close();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    static Path file(Path directory, long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+
+    /**
+     * Lists the generations present in {@code directory} in ascending order.
+     */
+    static List<Long> generations(Path directory) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .forEach(generations::add);
+        }
+        return generations;
+    }
+
+    /**
+     * Reads the entries of one generation in order. A torn or corrupt tail, left by a
+     * crash in the middle of a write, ends the replay and is cut from the file.
+     */
+    static void replay(Path file, EntryHandler handler) throws IOException {
+        long validLength = 0;
+        try (var reader = new MappedReader(file)) {
+            while (reader.hasRemaining(HEADER_BYTES)) {
+                int length = reader.readInt();
+                int checksum = reader.readInt();
+                if (length < 1 || !reader.hasRemaining(length)) {
+                    break;
+                }
+                ByteBuffer body = reader.read(length);
+                var crc = new CRC32C();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                JournalEntryType type = JournalEntryType.fromCode(body.get());
+                handler.handle(type, body.slice());
+                validLength = reader.position();
+            }
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() > validLength) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+    }
+
+    private static FileChannel openForAppend(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @FunctionalInterface
+    interface EntryHandler {
+        void handle(JournalEntryType type, ByteBuffer payload) throws IOException;
+    }
+}
@@ -0,0 +1,50 @@
+package co.edu.uniremington.persistence;
+
+import java.util.Arrays;
+
+enum JournalEntryType {
+    PRODUCT_ADDED(1),
+    PRODUCT_UPDATED(2),
+    STOCK_RESERVED(3),
+    STOCK_RELEASED(4),
+    SALES_INCREMENTED(5),
+    SALE_REGISTERED(6),
+    SALES_REGISTERED(7),
+    PRODUCTS_ADDED(8),
+    STOCKS_RESERVED(9),
+    STOCKS_RELEASED(10),
+    /**
+     * A sale added to the history without touching inventory or sales counts. It is not
+     * written to the journal; it carries the history when a replica is first synced.
+     */
+    SALE_RESTORED(11),
+    /**
+     * A product added with its version and units sold, like a snapshot entry. It is not
+     * written to the journal; it carries the catalog when a replica is first synced.
+     */
+    PRODUCT_RESTORED(12);
+
+    private static final JournalEntryType[] BY_CODE = new JournalEntryType[13];
+
+    static {
+        Arrays.stream(values()).forEach(type -> BY_CODE[type.code] = type);
+    }
+
+    private final byte code;
+
+    JournalEntryType(int code) {
+        this.code = (byte) code;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    static JournalEntryType fromCode(byte code) {
+        JournalEntryType type = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Tipo de registro desconocido: " + code);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,66 @@
+package co.edu.uniremington.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader over a memory-mapped file. The file is mapped in windows so that
+ * files larger than a single {@link MappedByteBuffer} can be read.
+ */
+final class MappedReader implements Closeable {
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    MappedReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    long position() {
+        return position;
+    }
+
+    boolean hasRemaining(long bytes) {
+        return bytes >= 0 && position + bytes <= size;
+    }
+
+    int readInt() throws IOException {
+        return read(Integer.BYTES).getInt();
+    }
+
+    long readLong() throws IOException {
+        return read(Long.BYTES).getLong();
+    }
+
+    /**
+     * Returns a view of the next {@code bytes} bytes of the file and advances past them.
+     */
+    ByteBuffer read(int bytes) throws IOException {
+        if (!hasRemaining(bytes)) {
+            throw new IOException("Fin de archivo inesperado en la posición " + position);
+        }
+        if (window == null || position < windowStart || position + bytes > windowStart + window.capacity()) {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(size - position, Math.max(WINDOW_SIZE, bytes)));
+        }
+        int offset = (int) (position - windowStart);
+        position += bytes;
+        return window.slice(offset, bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
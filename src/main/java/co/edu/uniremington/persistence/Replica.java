@@ -0,0 +1,265 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.metrics.Counter;
+import co.edu.uniremington.metrics.Metrics;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hot standby of a {@link DurableStore} kept up to date by its {@link Replicator}.
+ *
+ * <p>The replica starts empty, receives the state of the primary and then applies the
+ * same journal entries, in the same order, to in-memory services. Its services are
+ * meant for queries: changes made on them are not sent to the primary and make the
+ * replica diverge. If the primary fails, {@link #promote(Path)} turns the replicated
+ * state into a durable store that can take over, once the replica has caught up.
+ *
+ * <p>The lag is reported in entries, as the difference between the latest sequence the
+ * primary announced and the sequence applied, and in microseconds, as the time between
+ * an entry being logged on the primary and applied here.
+ */
+public final class Replica implements Closeable {
+    private static final Counter APPLY_FAILURES = Metrics.counter("replication.applyFailures");
+
+    private final SocketChannel channel;
+    private final ProductServiceImpl products;
+    private final SaleServiceImpl sales;
+    private final StoreReplayer replayer;
+    private final Thread reader;
+    private final long connectedNanos;
+    private volatile long appliedSequence = -1;
+    private volatile long primarySequence;
+    private volatile long lagMicros;
+    private volatile long appliedEntries;
+    private volatile long catchUpNanos;
+    private volatile long catchUpEntries;
+    private volatile boolean connected = true;
+    private volatile RuntimeException failure;
+
+    private Replica(SocketChannel channel) {
+        this.channel = channel;
+        this.products = new ProductServiceImpl();
+        this.sales = new SaleServiceImpl(products);
+        this.replayer = new StoreReplayer(products, sales);
+        this.connectedNanos = System.nanoTime();
+        this.reader = Thread.ofPlatform().daemon().name("store-replica").start(this::applyBatches);
+        Metrics.gauge("replication.appliedSequence", this, Replica::appliedSequence);
+        Metrics.gauge("replication.lagEntries", this, Replica::lagEntries);
+        Metrics.gauge("replication.lagMicros", this, Replica::lagMicros);
+    }
+
+    public static Replica connect(String host, int port) throws IOException {
+        return new Replica(SocketChannel.open(new InetSocketAddress(host, port)));
+    }
+
+    public ProductService productService() {
+        return products;
+    }
+
+    public SaleService saleService() {
+        return sales;
+    }
+
+    /**
+     * Returns the sequence of the primary the replica has reached, or {@code -1} until
+     * it receives the first batch.
+     */
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    public long lagEntries() {
+        return Math.max(0, primarySequence - appliedSequence);
+    }
+
+    /**
+     * Returns the time between the last applied entry being logged on the primary and
+     * being applied on the replica.
+     */
+    public long lagMicros() {
+        return lagMicros;
+    }
+
+    public long appliedEntries() {
+        return appliedEntries;
+    }
+
+    /**
+     * Returns how long the replica took to apply the state of the primary and every
+     * entry logged meanwhile, or empty if it has not caught up yet.
+     */
+    public Optional<Duration> catchUpTime() {
+        long nanos = catchUpNanos;
+        return nanos == 0 ? Optional.empty() : Optional.of(Duration.ofNanos(nanos));
+    }
+
+    /**
+     * Returns the entries applied per second until the replica first caught up, or zero
+     * if it has not caught up yet.
+     */
+    public double catchUpRate() {
+        long nanos = catchUpNanos;
+        return nanos == 0 ? 0 : catchUpEntries * 1e9 / nanos;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Returns why the replica stopped applying entries, naming the entry and the batch
+     * sequence, or empty if it disconnected without an error.
+     */
+    public Optional<RuntimeException> failure() {
+        return Optional.ofNullable(failure);
+    }
+
+    /**
+     * Returns whether the replica received the whole state of the primary and applied
+     * every entry up to the latest sequence the primary announced.
+     */
+    public boolean isCaughtUp() {
+        return catchUpNanos != 0 && appliedSequence >= primarySequence;
+    }
+
+    /**
+     * Waits until the replica has applied the primary's entries up to {@code sequence}.
+     *
+     * @return {@code false} if the time ran out or the replica disconnected first
+     */
+    public synchronized boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (appliedSequence < sequence && connected) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+        return appliedSequence >= sequence;
+    }
+
+    /**
+     * Disconnects from the primary and writes the replicated state as the snapshot of a
+     * new durable store in {@code directory}, which must not hold a store yet.
+     *
+     * @return the durable store, which continues from the replicated state
+     * @throws IllegalStateException if the replica had not {@linkplain #isCaughtUp()
+     *         caught up} when it disconnected
+     */
+    public DurableStore promote(Path directory) throws IOException {
+        return promote(directory, false);
+    }
+
+    /**
+     * Like {@link #promote(Path)}, but with {@code force} promotes a replica that had not
+     * caught up, losing the entries it did not apply.
+     */
+    public DurableStore promote(Path directory, boolean force) throws IOException {
+        close();
+        if (!force && !isCaughtUp()) {
+            throw new IllegalStateException("La réplica no está al día: secuencia aplicada " + appliedSequence
+                    + " de " + primarySequence);
+        }
+        Files.createDirectories(directory);
+        if (!Snapshot.generations(directory).isEmpty() || !Journal.generations(directory).isEmpty()) {
+            throw new IllegalStateException("El directorio ya contiene una tienda: " + directory);
+        }
+        List<Product> catalog = products.findAll();
+        Snapshot.write(directory, 0, catalog, DurableStore.soldQuantities(products, catalog), sales.findAll());
+        return DurableStore.open(directory);
+    }
+
+    private void applyBatches() {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        try {
+            while (true) {
+                readFully(length.clear());
+                ByteBuffer frame = ByteBuffer.allocate(length.flip().getInt());
+                readFully(frame);
+                apply(frame.flip());
+            }
+        } catch (IOException e) {
+            // The primary or this replica closed the connection
+        } catch (RuntimeException e) {
+            APPLY_FAILURES.increment();
+            failure = e;
+        } finally {
+            connected = false;
+            closeQuietly();
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private void apply(ByteBuffer frame) {
+        long lastSequence = frame.getLong();
+        long headSequence = frame.getLong();
+        long appendMicros = frame.getLong();
+        int count = frame.getInt();
+        for (int i = 0; i < count; i++) {
+            JournalEntryType type = JournalEntryType.fromCode(frame.get());
+            int size = frame.getInt();
+            try {
+                replayer.apply(type, frame.slice(frame.position(), size));
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("La réplica no pudo aplicar el registro " + type + " (" + (i + 1)
+                        + " de " + count + " del lote hasta la secuencia " + lastSequence + ")", e);
+            }
+            frame.position(frame.position() + size);
+        }
+        appliedEntries += count;
+        lagMicros = Math.max(0, Replicator.nowMicros() - appendMicros);
+        primarySequence = Math.max(primarySequence, headSequence);
+        if (catchUpNanos == 0 && lastSequence >= headSequence) {
+            catchUpEntries = appliedEntries;
+            catchUpNanos = System.nanoTime() - connectedNanos;
+        }
+        synchronized (this) {
+            appliedSequence = lastSequence;
+            notifyAll();
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.metrics.Counter;
+import co.edu.uniremington.metrics.Metrics;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Primary side of the replication of a {@link DurableStore} to {@link Replica hot
+ * standbys} over TCP.
+ *
+ * <p>A replica that connects first receives the current state of the store and then
+ * every journal entry logged after it, in order. Only the catalog and the units sold are
+ * copied while no mutation is applied; the sales history, which only grows, is streamed
+ * afterwards without blocking the store. Sales registered after the copy may then reach
+ * the replica twice, restored with the history and registered by their entry; the
+ * replica then only applies the stock and sales counts of the entry. Each
+ * replica has its own queue and sender thread: entries are queued while the mutation
+ * is applied and sent in batches of up to {@value #BATCH_BYTES} bytes, so a slow
+ * replica never slows the primary down. A replica that falls more than
+ * {@value #QUEUE_CAPACITY} entries behind is disconnected and must connect again to
+ * resync; such disconnects are counted in {@code replication.laggingDisconnects}.
+ *
+ * <p>Entries are sent as soon as they are logged, possibly before they are durable on
+ * the primary.
+ *
+ * <p>Each batch is framed as {@code [int length][long lastSequence][long headSequence]
+ * [long appendMicros][int count]} followed by {@code count} entries
+ * {@code [byte type][int length][payload]}, where {@code lastSequence} is the sequence
+ * of the store after the batch, {@code headSequence} the latest sequence of the store
+ * when it was sent and {@code appendMicros} when its last entry was logged.
+ */
+public final class Replicator implements Closeable {
+    static final int BATCH_BYTES = 1 << 16;
+    static final int FRAME_HEADER_BYTES = 3 * Long.BYTES + Integer.BYTES;
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final Counter LAGGING_DISCONNECTS = Metrics.counter("replication.laggingDisconnects");
+    private static final Counter ACCEPT_FAILURES = Metrics.counter("replication.acceptFailures");
+
+    private final DurableStore store;
+    private final ServerSocketChannel server;
+    private final List<Sender> replicas = new CopyOnWriteArrayList<>();
+    private final Thread acceptor;
+
+    private Replicator(DurableStore store, ServerSocketChannel server) {
+        this.store = store;
+        this.server = server;
+        store.replicateWith(this);
+        this.acceptor = Thread.ofPlatform().daemon().name("store-replication").start(this::acceptReplicas);
+        Metrics.gauge("replication.replicas", this, replicator -> replicator.replicas.size());
+        Metrics.gauge("replication.sequence", store, DurableStore::sequence);
+    }
+
+    /**
+     * Starts accepting replicas of {@code store} on {@code port}, or on a free port if
+     * it is zero.
+     */
+    public static Replicator start(DurableStore store, int port) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return new Replicator(store, server);
+    }
+
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    public int replicaCount() {
+        return replicas.size();
+    }
+
+    /**
+     * Returns the number of entries logged by the store, which replicas report as their
+     * applied sequence once they have caught up.
+     */
+    public long sequence() {
+        return store.sequence();
+    }
+
+    /**
+     * Queues an entry for every replica. Called by the store while it holds its mutation
+     * lock, so the entries are queued in the order they were logged.
+     */
+    void appended(long sequence, JournalEntryType type, byte[] payload) {
+        Entry entry = new Entry(type, payload);
+        long appendMicros = nowMicros();
+        for (Sender replica : replicas) {
+            if (!replica.queue.offer(new Queued(sequence, appendMicros, entry)) && replicas.remove(replica)) {
+                LAGGING_DISCONNECTS.increment();
+                replica.stop();
+            }
+        }
+    }
+
+    private void acceptReplicas() {
+        while (server.isOpen()) {
+            try {
+                Sender replica = new Sender(server.accept());
+                store.whileStopped(() -> {
+                    replica.state = State.capture(store);
+                    replicas.add(replica);
+                });
+                replica.thread = Thread.ofVirtual().name("store-replica-" + replica.address).start(replica::run);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                ACCEPT_FAILURES.increment();
+            }
+        }
+    }
+
+    static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.replicateWith(null);
+        server.close();
+        replicas.forEach(Sender::stop);
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Entry(JournalEntryType type, byte[] payload) {
+        int size() {
+            return 1 + Integer.BYTES + payload.length;
+        }
+    }
+
+    private record Queued(long sequence, long appendMicros, Entry entry) {
+    }
+
+    /**
+     * Copy of the catalog taken while no mutation is applied, with the sequence it
+     * corresponds to.
+     */
+    private record State(long sequence, long takenMicros, List<Product> catalog, long[] soldQuantities) {
+        static State capture(DurableStore store) {
+            List<Product> catalog = store.productService().findAll();
+            long[] sold = DurableStore.soldQuantities(store.productService(), catalog);
+            return new State(store.sequence(), nowMicros(), catalog, sold);
+        }
+    }
+
+    private final class Sender {
+        private final SocketChannel channel;
+        private final String address;
+        private final BlockingQueue<Queued> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        private State state;
+        private Thread thread;
+
+        Sender(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.address = String.valueOf(channel.getRemoteAddress());
+        }
+
+        void run() {
+            try {
+                sendState();
+                List<Entry> batch = new ArrayList<>();
+                while (true) {
+                    Queued next = queue.take();
+                    int bytes = 0;
+                    Queued last;
+                    do {
+                        last = next;
+                        batch.add(next.entry());
+                        bytes += next.entry().size();
+                    } while (bytes < BATCH_BYTES && (next = queue.poll()) != null);
+                    send(last.sequence(), last.appendMicros(), batch);
+                    batch.clear();
+                }
+            } catch (IOException | InterruptedException e) {
+                // The replica disconnected or the replicator was closed
+            } finally {
+                replicas.remove(this);
+                stop();
+            }
+        }
+
+        /**
+         * Sends the captured catalog and then the current history as entries that rebuild
+         * the state on an empty replica.
+         */
+        private void sendState() throws IOException {
+            State initial = state;
+            state = null;
+            List<Entry> batch = new ArrayList<>();
+            int bytes = 0;
+            for (int i = 0; i < initial.catalog().size(); i++) {
+                Product product = initial.catalog().get(i);
+                long sold = initial.soldQuantities()[i];
+                bytes += add(batch, new Entry(JournalEntryType.PRODUCT_RESTORED, StoreCodec.encode(out -> {
+                    StoreCodec.writeProduct(out, product);
+                    out.writeLong(sold);
+                })));
+                bytes = sendIfFull(initial, batch, bytes);
+            }
+            try (Stream<Sale> history = store.saleService().streamAll()) {
+                Iterator<Sale> sales = history.iterator();
+                while (sales.hasNext()) {
+                    Sale sale = sales.next();
+                    bytes += add(batch, new Entry(JournalEntryType.SALE_RESTORED,
+                            StoreCodec.encode(out -> StoreCodec.writeSale(out, sale))));
+                    bytes = sendIfFull(initial, batch, bytes);
+                }
+            }
+            send(initial.sequence(), initial.takenMicros(), batch);
+        }
+
+        private int add(List<Entry> batch, Entry entry) {
+            batch.add(entry);
+            return entry.size();
+        }
+
+        private int sendIfFull(State initial, List<Entry> batch, int bytes) throws IOException {
+            if (bytes < BATCH_BYTES) {
+                return bytes;
+            }
+            send(initial.sequence(), initial.takenMicros(), batch);
+            batch.clear();
+            return 0;
+        }
+
+        private void send(long lastSequence, long appendMicros, List<Entry> batch) throws IOException {
+            int length = FRAME_HEADER_BYTES;
+            for (Entry entry : batch) {
+                length += entry.size();
+            }
+            ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length)
+                    .putInt(length)
+                    .putLong(lastSequence)
+                    .putLong(store.sequence())
+                    .putLong(appendMicros)
+                    .putInt(batch.size());
+            for (Entry entry : batch) {
+                frame.put(entry.type().code()).putInt(entry.payload().length).put(entry.payload());
+            }
+            frame.flip();
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        }
+
+        void stop() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already disconnected
+            }
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Compacted image of the store written as {@code snapshot-<generation>.bin}. A snapshot of
+ * generation {@code g} holds every mutation logged before journal generation {@code g}.
+ * It is written to a temporary file and atomically renamed, so a snapshot file on disk is
+ * always complete.
+ */
+final class Snapshot {
+    private static final int MAGIC = 0x46534E50;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private Snapshot() {
+    }
+
+    static Path file(Path directory, long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+
+    /**
+     * Lists the generations with a complete snapshot in {@code directory} in ascending order.
+     */
+    static List<Long> generations(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static OptionalLong latestGeneration(Path directory) throws IOException {
+        List<Long> generations = generations(directory);
+        return generations.isEmpty() ? OptionalLong.empty() : OptionalLong.of(generations.get(generations.size() - 1));
+    }
+
+    /**
+     * Writes {@code products}, with the units sold of each at the same index of
+     * {@code soldQuantities}, and {@code sales} as the snapshot of {@code generation}.
+     */
+    static void write(Path directory, long generation, List<Product> products,
+                      long[] soldQuantities, Collection<Sale> sales) throws IOException {
+        Path target = file(directory, generation);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream stream = Channels.newOutputStream(channel);
+            var out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeLong(products.size());
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                long sold = soldQuantities[i];
+                writeEntry(out, StoreCodec.encode(entry -> {
+                    StoreCodec.writeProduct(entry, product);
+                    entry.writeLong(sold);
+                }));
+            }
+            out.writeLong(sales.size());
+            for (Sale sale : sales) {
+                writeEntry(out, StoreCodec.encode(entry -> StoreCodec.writeSale(entry, sale)));
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static void load(Path file, ObjLongConsumer<Product> productLoader,
+                     Function<String, Product> products, Consumer<Sale> saleLoader) throws IOException {
+        try (var reader = new MappedReader(file)) {
+            if (reader.readInt() != MAGIC) {
+                throw new IOException("Archivo de snapshot inválido: " + file);
+            }
+            long productCount = reader.readLong();
+            for (long i = 0; i < productCount; i++) {
+                ByteBuffer entry = readEntry(reader);
+                productLoader.accept(StoreCodec.readProduct(entry), entry.getLong());
+            }
+            long saleCount = reader.readLong();
+            for (long i = 0; i < saleCount; i++) {
+                saleLoader.accept(StoreCodec.readSale(readEntry(reader), products));
+            }
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, byte[] entry) throws IOException {
+        out.writeInt(entry.length);
+        out.write(entry);
+    }
+
+    private static ByteBuffer readEntry(MappedReader reader) throws IOException {
+        return reader.read(reader.readInt());
+    }
+}
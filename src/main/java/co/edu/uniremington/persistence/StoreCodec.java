@@ -0,0 +1,131 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Binary layout of products and sales shared by the journal and the snapshots.
+ * Products keep their version, so conditional updates still see the versions handed
+ * out before a restart or on a replica.
+ *
+ * <p>Strings are written as a UTF-8 byte count followed by the bytes, with {@code -1}
+ * standing for {@code null}.
+ */
+final class StoreCodec {
+    private StoreCodec() {
+    }
+
+    static byte[] encode(IOConsumer<DataOutput> writer) {
+        var bytes = new ByteArrayOutputStream(128);
+        try (var out = new DataOutputStream(bytes)) {
+            writer.accept(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void writeProduct(DataOutput out, Product product) throws IOException {
+        writeString(out, product.getId());
+        writeString(out, product.getName());
+        writeString(out, product.getDescription());
+        out.writeDouble(product.getPrice());
+        out.writeInt(product.getStock());
+        out.writeLong(product.getVersion());
+    }
+
+    static Product readProduct(ByteBuffer in) {
+        return Product.builder()
+                .id(readString(in))
+                .name(readString(in))
+                .description(readString(in))
+                .price(in.getDouble())
+                .stock(in.getInt())
+                .version(in.getLong())
+                .build();
+    }
+
+    static void writeSale(DataOutput out, Sale sale) throws IOException {
+        writeString(out, sale.getId());
+        writeString(out, sale.getCode());
+        writeDate(out, sale.getDate());
+        out.writeInt(sale.getItems().size());
+        for (SaleItem item : sale.getItems()) {
+            writeString(out, item.getProduct().getId());
+            out.writeInt(item.getQuantity());
+            out.writeDouble(item.getSubtotal());
+        }
+        out.writeDouble(sale.getTotal());
+    }
+
+    static Sale readSale(ByteBuffer in, Function<String, Product> products) {
+        var builder = Sale.builder()
+                .id(readString(in))
+                .code(readString(in))
+                .date(readDate(in));
+        int count = in.getInt();
+        List<SaleItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(SaleItem.builder()
+                    .product(products.apply(readString(in)))
+                    .quantity(in.getInt())
+                    .subtotal(in.getDouble())
+                    .build());
+        }
+        return builder.items(items).total(in.getDouble()).build();
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutput out, LocalDateTime date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(date.getNano());
+        }
+    }
+
+    private static LocalDateTime readDate(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+
+    @FunctionalInterface
+    interface IOConsumer<T> {
+        void accept(T value) throws IOException;
+    }
+}
@@ -0,0 +1,224 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Prebuilt, read-only image of a store that is memory-mapped when opened and loaded
+ * lazily, so that a new instance can serve its first sale without rebuilding the whole
+ * catalog first.
+ *
+ * <p>Products are stored sorted by id, each with its sales count, followed by an index
+ * of their offsets; a product is loaded into the in-memory services the first time it
+ * is used, found by binary search over the index. Operations over the whole catalog load
+ * the remaining products, and the sales history is loaded on its first query. Products
+ * and sales use the same encoding as the {@link Snapshot snapshots}.
+ *
+ * <p>Changes made through the services stay in memory: the image itself never changes.
+ * Images are mapped as a single buffer and therefore limited to 2 GB.
+ */
+public final class StoreImage {
+    private static final int MAGIC = 0x46534947;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 4 * Long.BYTES;
+
+    private final ByteBuffer image;
+    private final int productCount;
+    private final int saleCount;
+    private final int indexOffset;
+    private final int salesOffset;
+    private final ImageProductService productService;
+    private final ImageSaleService saleService;
+
+    private StoreImage(ByteBuffer image, StoreEventSink events) throws IOException {
+        this.image = image;
+        if (image.getInt(0) != MAGIC || image.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Archivo de imagen inválido");
+        }
+        this.productCount = Math.toIntExact(image.getLong(8));
+        this.saleCount = Math.toIntExact(image.getLong(16));
+        this.indexOffset = Math.toIntExact(image.getLong(24));
+        this.salesOffset = Math.toIntExact(image.getLong(32));
+        ProductServiceImpl products = new ProductServiceImpl(productCount, events);
+        this.productService = new ImageProductService(this, products);
+        this.saleService = new ImageSaleService(this, new SaleServiceImpl(productService, events), productService);
+    }
+
+    /**
+     * Maps the image in {@code file}. Nothing is loaded until the services are used.
+     */
+    public static StoreImage open(Path file) throws IOException {
+        return open(file, StoreEventSink.NONE);
+    }
+
+    /**
+     * Maps the image in {@code file}, publishing the events of its services to
+     * {@code events}. Loading products and sales from the image publishes no sales.
+     */
+    public static StoreImage open(Path file, StoreEventSink events) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("La imagen supera el tamaño máximo de 2 GB: " + file);
+            }
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Archivo de imagen inválido: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new StoreImage(mapped, events);
+        }
+    }
+
+    /**
+     * Writes an image of the current state of {@code products} and {@code sales} to
+     * {@code file}, replacing it atomically.
+     */
+    public static void write(Path file, ProductService products, SaleService sales) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.write(new byte[HEADER_SIZE]);
+            long[] offsets = new long[1024];
+            long position = HEADER_SIZE;
+            int productCount = 0;
+            try (Stream<Product> catalog = products.streamAll().sorted(Comparator.comparing(Product::getId))) {
+                for (Iterator<Product> iterator = catalog.iterator(); iterator.hasNext(); productCount++) {
+                    Product product = iterator.next();
+                    if (productCount == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, productCount * 2);
+                    }
+                    offsets[productCount] = position;
+                    position += writeEntry(out, StoreCodec.encode(entry -> {
+                        StoreCodec.writeProduct(entry, product);
+                        entry.writeLong(products.getSoldQuantity(product.getId()));
+                    }));
+                }
+            }
+            long indexOffset = position;
+            for (int i = 0; i < productCount; i++) {
+                out.writeLong(offsets[i]);
+            }
+            long salesOffset = indexOffset + (long) productCount * Long.BYTES;
+            long saleCount = 0;
+            try (Stream<Sale> history = sales.streamAll()) {
+                for (Iterator<Sale> iterator = history.iterator(); iterator.hasNext(); saleCount++) {
+                    Sale sale = iterator.next();
+                    writeEntry(out, StoreCodec.encode(entry -> StoreCodec.writeSale(entry, sale)));
+                }
+            }
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(VERSION)
+                    .putLong(productCount).putLong(saleCount)
+                    .putLong(indexOffset).putLong(salesOffset)
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public ProductService productService() {
+        return productService;
+    }
+
+    public SaleService saleService() {
+        return saleService;
+    }
+
+    public int productCount() {
+        return productCount;
+    }
+
+    /**
+     * Returns the id of the product at {@code index} in ascending id order, without
+     * loading it.
+     */
+    public String productId(int index) {
+        return StoreCodec.readString(entry(index));
+    }
+
+    /**
+     * Loads the whole image now instead of on first use, e.g. from a background thread
+     * once the instance is already serving.
+     */
+    public void preload() {
+        productService.loadAll();
+        saleService.loadHistory();
+    }
+
+    /**
+     * Passes the product with {@code id} and its sales count to {@code loader}.
+     *
+     * @return {@code false} if the image has no such product
+     */
+    boolean loadProduct(String id, ObjLongConsumer<Product> loader) {
+        int low = 0;
+        int high = productCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            ByteBuffer entry = entry(middle);
+            int comparison = StoreCodec.readString(entry).compareTo(id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                loader.accept(StoreCodec.readProduct(entry.rewind()), entry.getLong());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void forEachProduct(ObjLongConsumer<Product> loader) {
+        for (int i = 0; i < productCount; i++) {
+            ByteBuffer entry = entry(i);
+            loader.accept(StoreCodec.readProduct(entry), entry.getLong());
+        }
+    }
+
+    void forEachSale(Function<String, Product> products, Consumer<Sale> loader) {
+        int position = salesOffset;
+        for (int i = 0; i < saleCount; i++) {
+            int length = image.getInt(position);
+            loader.accept(StoreCodec.readSale(image.slice(position + Integer.BYTES, length), products));
+            position += Integer.BYTES + length;
+        }
+    }
+
+    private ByteBuffer entry(int index) {
+        int offset = Math.toIntExact(image.getLong(indexOffset + index * Long.BYTES));
+        return image.slice(offset + Integer.BYTES, image.getInt(offset));
+    }
+
+    private static int writeEntry(DataOutputStream out, byte[] entry) throws IOException {
+        out.writeInt(entry.length);
+        out.write(entry);
+        return Integer.BYTES + entry.length;
+    }
+}
@@ -0,0 +1,116 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies logged mutations to in-memory services, for the journal of a
+ * {@link DurableStore} when it is opened and for the records a {@link Replica} receives.
+ * Entries must be applied in the order they were logged to reach the same state.
+ */
+final class StoreReplayer {
+    private final ProductServiceImpl products;
+    private final SaleServiceImpl sales;
+
+    StoreReplayer(ProductServiceImpl products, SaleServiceImpl sales) {
+        this.products = products;
+        this.sales = sales;
+    }
+
+    void apply(JournalEntryType type, ByteBuffer payload) {
+        switch (type) {
+            case PRODUCT_ADDED -> products.addProduct(StoreCodec.readProduct(payload));
+            case PRODUCTS_ADDED -> products.addProducts(readProducts(payload));
+            case PRODUCT_UPDATED -> products.updateProduct(StoreCodec.readProduct(payload));
+            case STOCK_RESERVED -> products.reserveStock(StoreCodec.readString(payload), payload.getInt());
+            case STOCK_RELEASED -> products.releaseStock(StoreCodec.readString(payload), payload.getInt());
+            case STOCKS_RESERVED -> products.reserveAll(readQuantities(payload));
+            case STOCKS_RELEASED -> products.releaseAll(readQuantities(payload));
+            case SALES_INCREMENTED -> products.incrementProductSales(StoreCodec.readString(payload), payload.getLong());
+            case SALE_REGISTERED -> registerSales(List.of(StoreCodec.readSale(payload, this::resolveProduct)));
+            case SALES_REGISTERED -> registerSales(readSales(payload));
+            case SALE_RESTORED -> sales.restoreSale(StoreCodec.readSale(payload, this::resolveProduct));
+            case PRODUCT_RESTORED -> loadProduct(StoreCodec.readProduct(payload), payload.getLong());
+        }
+    }
+
+    /**
+     * Adds a product of a snapshot with its version and the units it had sold.
+     */
+    void loadProduct(Product product, long soldQuantity) {
+        products.restoreProduct(product);
+        if (soldQuantity > 0) {
+            products.incrementProductSales(product.getId(), soldQuantity);
+        }
+    }
+
+    /**
+     * Registers the sales of an entry. A replica may already hold some of them, restored
+     * with the history it received while they were being registered; for those only the
+     * stock and sales counts are still missing.
+     */
+    private void registerSales(List<Sale> batch) {
+        Map<String, Integer> restored = new HashMap<>();
+        List<Sale> unknown = new ArrayList<>(batch.size());
+        for (Sale sale : batch) {
+            if (sales.findById(sale.getId()).isEmpty()) {
+                unknown.add(sale);
+            } else {
+                for (SaleItem item : sale.getItems()) {
+                    restored.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        if (!restored.isEmpty()) {
+            products.reserveAll(restored).ifPresent(productId -> {
+                throw new IllegalStateException("Stock insuficiente para el producto " + productId);
+            });
+            restored.forEach(products::incrementProductSales);
+        }
+        if (unknown.size() == 1) {
+            sales.registerSale(unknown.get(0));
+        } else if (!unknown.isEmpty()) {
+            sales.registerSales(unknown);
+        }
+    }
+
+    Product resolveProduct(String id) {
+        return products.findById(id).orElseGet(() -> Product.builder().id(id).build());
+    }
+
+    private static Map<String, Integer> readQuantities(ByteBuffer payload) {
+        int count = payload.getInt();
+        Map<String, Integer> quantities = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            quantities.put(StoreCodec.readString(payload), payload.getInt());
+        }
+        return quantities;
+    }
+
+    private static List<Product> readProducts(ByteBuffer payload) {
+        int count = payload.getInt();
+        List<Product> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(StoreCodec.readProduct(payload));
+        }
+        return batch;
+    }
+
+    private List<Sale> readSales(ByteBuffer payload) {
+        int count = payload.getInt();
+        List<Sale> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(StoreCodec.readSale(payload, this::resolveProduct));
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,34 @@
+package co.edu.uniremington.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is passed back to get the
+ * following page and is {@code null} on the last page.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Takes up to {@code limit} items from {@code following}, which yields the items
+     * after the requested cursor in page order, reading one more to know whether
+     * another page exists.
+     */
+    public static <T> Page<T> of(Iterator<T> following, int limit, Function<T, String> cursorOf) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El límite debe ser positivo: " + limit);
+        }
+        List<T> items = new ArrayList<>(Math.min(limit, 1_024));
+        while (items.size() < limit && following.hasNext()) {
+            items.add(following.next());
+        }
+        String nextCursor = following.hasNext() ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new Page<>(items, nextCursor);
+    }
+}
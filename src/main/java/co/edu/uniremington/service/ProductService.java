@@ -1,17 +1,197 @@
 package co.edu.uniremington.service;
 
 import co.edu.uniremington.model.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 public interface ProductService {
     Product addProduct(Product product);
+
+    /**
+     * Adds a batch of products, e.g. when importing a catalog, returning them as stored.
+     * Implementations may insert the batch in one pass instead of product by product;
+     * the products may become visible to other threads in any order until it returns.
+     */
+    default List<Product> addProducts(Collection<Product> products) {
+        List<Product> added = new ArrayList<>(products.size());
+        for (Product product : products) {
+            added.add(addProduct(product));
+        }
+        return added;
+    }
     Optional<Product> updateProduct(Product product);
+
+    /**
+     * Replaces a product only if its stored version is still {@code expectedVersion},
+     * storing it with the next version.
+     *
+     * @return the stored product, or empty if it does not exist
+     * @throws ConcurrentModificationException if the product changed since that version
+     */
+    Optional<Product> updateProduct(Product product, long expectedVersion);
+
+    /**
+     * Applies {@code change} to the current product and stores the result with
+     * {@link #updateProduct(Product, long)}, reading it again and retrying whenever it
+     * changed in between. {@code change} may therefore run more than once.
+     */
+    default Optional<Product> updateProduct(String id, UnaryOperator<Product> change) {
+        while (true) {
+            Optional<Product> current = findById(id);
+            if (current.isEmpty()) {
+                return current;
+            }
+            try {
+                return updateProduct(change.apply(current.get()), current.get().getVersion());
+            } catch (ConcurrentModificationException e) {
+                Thread.onSpinWait();
+            }
+        }
+    }
     Optional<Product> findById(String id);
     List<Product> findAll();
     List<Product> findByPredicate(Predicate<Product> predicate);
+
+    /**
+     * Returns up to {@code limit} products following {@code cursor}, which is
+     * {@code null} for the first page and the {@link Page#nextCursor()} of the previous
+     * page afterwards. Pages follow an order that does not change between calls, so
+     * products added while paginating are never returned twice.
+     */
+    default Page<Product> findAll(String cursor, int limit) {
+        Iterator<Product> following = findAll().stream()
+                .filter(product -> cursor == null || product.getId().compareTo(cursor) > 0)
+                .sorted(Comparator.comparing(Product::getId))
+                .iterator();
+        return Page.of(following, limit, Product::getId);
+    }
+
+    /**
+     * Returns a stream over the catalog. Implementations read products lazily as the
+     * stream is consumed instead of copying them first.
+     */
+    default Stream<Product> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * Lazy counterpart of {@link #findByPredicate(Predicate)}.
+     */
+    default Stream<Product> streamByPredicate(Predicate<Product> predicate) {
+        return streamAll().filter(predicate);
+    }
+
     List<Product> findOutOfStock();
+
+    /**
+     * Pages through {@link #findOutOfStock()} the way {@link #findAll(String, int)} pages
+     * through the catalog.
+     */
+    default Page<Product> findOutOfStock(String cursor, int limit) {
+        Iterator<Product> following = findOutOfStock().stream()
+                .filter(product -> cursor == null || product.getId().compareTo(cursor) > 0)
+                .sorted(Comparator.comparing(Product::getId))
+                .iterator();
+        return Page.of(following, limit, Product::getId);
+    }
+
+    /**
+     * Returns the products with at most {@code threshold} units in stock.
+     */
+    default List<Product> findLowStock(int threshold) {
+        return findByPredicate(product -> product.getStock() <= threshold);
+    }
+
+    /**
+     * Returns the products priced between {@code min} and {@code max}, both inclusive.
+     */
+    default List<Product> findByPriceRange(double min, double max) {
+        return findByPredicate(product -> product.getPrice() >= min && product.getPrice() <= max);
+    }
+
+    /**
+     * Returns the products whose name starts with {@code prefix}, ignoring case.
+     */
+    default List<Product> findByNamePrefix(String prefix) {
+        String lowerCasePrefix = prefix.toLowerCase(Locale.ROOT);
+        return findByPredicate(product -> product.getName() != null
+                && product.getName().toLowerCase(Locale.ROOT).startsWith(lowerCasePrefix));
+    }
     Optional<Product> getMostSoldProduct();
     Optional<Product> getLeastSoldProduct();
+
+    /**
+     * Returns up to {@code n} products ordered from the most to the least sold.
+     */
+    List<Product> topN(int n);
+
+    /**
+     * Returns up to {@code n} products ordered from the least to the most sold.
+     */
+    List<Product> bottomN(int n);
+
+    void incrementProductSales(String productId, long quantity);
+
+    /**
+     * Returns the total units sold of a product, or zero if it has no sales.
+     */
+    long getSoldQuantity(String productId);
+
+    /**
+     * Atomically decrements the stock of a product if enough units are available.
+     *
+     * @return {@code true} if the units were reserved, {@code false} if the product
+     *         does not exist or its stock is lower than {@code quantity}
+     */
+    boolean reserveStock(String productId, int quantity);
+
+    /**
+     * Atomically returns previously reserved units to the stock of a product.
+     */
+    void releaseStock(String productId, int quantity);
+
+    /**
+     * Reserves the stock of several products as a unit, e.g. for every item of a sale:
+     * either all the quantities are reserved or none is.
+     *
+     * <p>By default the products are reserved one by one in id order and the reservations
+     * already made are released if one fails, so other threads may briefly see part of
+     * the reservation. Implementations that can lock several products reserve them
+     * without exposing partial states.
+     *
+     * @param quantities units to reserve by product id
+     * @return empty if every quantity was reserved, otherwise the id of a product that
+     *         does not exist or lacks stock, in which case nothing was reserved
+     */
+    default Optional<String> reserveAll(Map<String, Integer> quantities) {
+        List<String> productIds = new ArrayList<>(quantities.keySet());
+        productIds.sort(Comparator.naturalOrder());
+        for (int i = 0; i < productIds.size(); i++) {
+            String productId = productIds.get(i);
+            if (!reserveStock(productId, quantities.get(productId))) {
+                for (int j = 0; j < i; j++) {
+                    releaseStock(productIds.get(j), quantities.get(productIds.get(j)));
+                }
+                return Optional.of(productId);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the units of a previous {@link #reserveAll(Map)} to the stock.
+     */
+    default void releaseAll(Map<String, Integer> quantities) {
+        quantities.forEach(this::releaseStock);
+    }
 }
@@ -2,13 +2,71 @@ package co.edu.uniremington.service;
 
 import co.edu.uniremington.model.Sale;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SaleService {
+    int STREAM_BATCH_SIZE = 10_000;
+
     Sale registerSale(Sale sale);
+
+    /**
+     * Registers all the sales in {@code sales}, or none of them if any product lacks stock
+     * for the batch.
+     *
+     * @return the registered sales, in the same order
+     */
+    List<Sale> registerSales(Collection<Sale> sales);
+
+    /**
+     * Registers the sales of a possibly very large stream in consecutive batches of
+     * {@value #STREAM_BATCH_SIZE}. Each batch is registered as a unit; a failing batch stops
+     * the registration, leaving the previous batches registered.
+     *
+     * @return the number of sales registered
+     */
+    default long registerSales(Stream<Sale> sales) {
+        long registered = 0;
+        List<Sale> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        for (Iterator<Sale> iterator = sales.iterator(); iterator.hasNext(); ) {
+            batch.add(iterator.next());
+            if (batch.size() == STREAM_BATCH_SIZE || !iterator.hasNext()) {
+                registered += registerSales(batch).size();
+                batch.clear();
+            }
+        }
+        return registered;
+    }
     Optional<Sale> findById(String id);
     List<Sale> findAll();
+
+    /**
+     * Returns up to {@code limit} sales following {@code cursor}, ordered by id, which
+     * is the registration order for sales with generated ids. {@code cursor} is
+     * {@code null} for the first page and the {@link Page#nextCursor()} of the previous
+     * page afterwards.
+     */
+    default Page<Sale> findAll(String cursor, int limit) {
+        Iterator<Sale> following = findAll().stream()
+                .filter(sale -> cursor == null || sale.getId().compareTo(cursor) > 0)
+                .sorted(Comparator.comparing(Sale::getId))
+                .iterator();
+        return Page.of(following, limit, Sale::getId);
+    }
+
+    /**
+     * Returns a stream over the sales history. Implementations read sales lazily as the
+     * stream is consumed instead of copying them first.
+     */
+    default Stream<Sale> streamAll() {
+        return findAll().stream();
+    }
+
     double calculateAverageSalesByPeriod(LocalDateTime start, LocalDateTime end);
     double calculateWeeklyAverage();
     double calculateMonthlyAverage();
@@ -0,0 +1,17 @@
+package co.edu.uniremington.service.impl;
+
+/**
+ * Point-in-time statistics of a {@link CachingProductService}. Hits include lookups
+ * answered from a cached miss.
+ */
+public record CacheStats(long hits, long negativeHits, long misses, long evictions, long size) {
+
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRate() {
+        long requests = requests();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+}
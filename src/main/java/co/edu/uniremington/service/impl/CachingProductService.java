@@ -0,0 +1,353 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Bounded cache of {@link #findById(String)} results in front of a slower
+ * {@link ProductService}. Ids that do not exist are cached too, so repeated scans of
+ * an unknown code do not reach the delegate.
+ *
+ * <p>Entries are spread over lock-striped segments, each evicting with a segmented
+ * LRU policy: new entries start in a probation area and move to a protected area
+ * (80% of the segment) when they are read again, so a burst of one-off lookups
+ * cannot flush the products that are scanned all the time.
+ *
+ * <p>Every write goes to the delegate first and then invalidates the cached entry:
+ * adding or updating a product, and reserving or releasing its stock. A lookup that
+ * raced with an invalidation does not store the value it loaded, so the cache never
+ * keeps a product older than the delegate's. Queries other than {@code findById} go
+ * straight to the delegate.
+ */
+public class CachingProductService implements ProductService {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 16;
+
+    private final ProductService delegate;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingProductService(ProductService delegate, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo debe ser positivo: " + maximumSize);
+        }
+        this.delegate = delegate;
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maximumSize / MIN_ENTRIES_PER_SEGMENT)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        Segment segment = segmentFor(id);
+        Optional<Product> cached = segment.get(id);
+        if (cached != null) {
+            hits.increment();
+            if (cached.isEmpty()) {
+                negativeHits.increment();
+            }
+            return cached;
+        }
+        misses.increment();
+        long stamp = segment.invalidations();
+        Optional<Product> loaded = delegate.findById(id);
+        segment.putIfNotInvalidated(id, loaded, stamp);
+        return loaded;
+    }
+
+    @Override
+    public Product addProduct(Product product) {
+        Product added = delegate.addProduct(product);
+        invalidate(added.getId());
+        return added;
+    }
+
+    @Override
+    public List<Product> addProducts(Collection<Product> products) {
+        List<Product> added = delegate.addProducts(products);
+        added.forEach(product -> invalidate(product.getId()));
+        return added;
+    }
+
+    @Override
+    public Optional<Product> updateProduct(Product product) {
+        Optional<Product> updated = delegate.updateProduct(product);
+        invalidate(product.getId());
+        return updated;
+    }
+
+    /**
+     * Invalidates the product even when the update is rejected, so that a caller retrying
+     * after a conflict reads the current version instead of the cached one.
+     */
+    @Override
+    public Optional<Product> updateProduct(Product product, long expectedVersion) {
+        try {
+            return delegate.updateProduct(product, expectedVersion);
+        } finally {
+            invalidate(product.getId());
+        }
+    }
+
+    @Override
+    public boolean reserveStock(String productId, int quantity) {
+        boolean reserved = delegate.reserveStock(productId, quantity);
+        if (reserved) {
+            invalidate(productId);
+        }
+        return reserved;
+    }
+
+    @Override
+    public Optional<String> reserveAll(Map<String, Integer> quantities) {
+        Optional<String> lacking = delegate.reserveAll(quantities);
+        if (lacking.isEmpty()) {
+            quantities.keySet().forEach(this::invalidate);
+        }
+        return lacking;
+    }
+
+    @Override
+    public void releaseAll(Map<String, Integer> quantities) {
+        try {
+            delegate.releaseAll(quantities);
+        } finally {
+            quantities.keySet().forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public void releaseStock(String productId, int quantity) {
+        try {
+            delegate.releaseStock(productId, quantity);
+        } finally {
+            invalidate(productId);
+        }
+    }
+
+    /**
+     * Drops the cached entry of a product, e.g. after it was changed without going
+     * through this service.
+     */
+    public void invalidate(String id) {
+        segmentFor(id).invalidate(id);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new CacheStats(hits.sum(), negativeHits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment segmentFor(String id) {
+        int hash = id.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<Product> findAll(String cursor, int limit) {
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Product> findByPredicate(Predicate<Product> predicate) {
+        return delegate.findByPredicate(predicate);
+    }
+
+    @Override
+    public Stream<Product> streamByPredicate(Predicate<Product> predicate) {
+        return delegate.streamByPredicate(predicate);
+    }
+
+    @Override
+    public List<Product> findOutOfStock() {
+        return delegate.findOutOfStock();
+    }
+
+    @Override
+    public List<Product> findLowStock(int threshold) {
+        return delegate.findLowStock(threshold);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(double min, double max) {
+        return delegate.findByPriceRange(min, max);
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix) {
+        return delegate.findByNamePrefix(prefix);
+    }
+
+    @Override
+    public Optional<Product> getMostSoldProduct() {
+        return delegate.getMostSoldProduct();
+    }
+
+    @Override
+    public Optional<Product> getLeastSoldProduct() {
+        return delegate.getLeastSoldProduct();
+    }
+
+    @Override
+    public List<Product> topN(int n) {
+        return delegate.topN(n);
+    }
+
+    @Override
+    public List<Product> bottomN(int n) {
+        return delegate.bottomN(n);
+    }
+
+    @Override
+    public void incrementProductSales(String productId, long quantity) {
+        delegate.incrementProductSales(productId, quantity);
+    }
+
+    @Override
+    public long getSoldQuantity(String productId) {
+        return delegate.getSoldQuantity(productId);
+    }
+
+    /**
+     * One lock stripe of the cache. Both areas are access-ordered maps, so their first
+     * entry is always the least recently used one.
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final int protectedCapacity;
+        private final LinkedHashMap<String, Optional<Product>> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, Optional<Product>> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+        private long invalidations;
+
+        Segment(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.protectedCapacity = this.capacity * 4 / 5;
+        }
+
+        Optional<Product> get(String id) {
+            lock.lock();
+            try {
+                Optional<Product> value = protectedArea.get(id);
+                if (value != null) {
+                    return value;
+                }
+                value = probation.remove(id);
+                if (value != null && protectedCapacity > 0) {
+                    protectedArea.put(id, value);
+                    if (protectedArea.size() > protectedCapacity) {
+                        Map.Entry<String, Optional<Product>> demoted = removeEldest(protectedArea);
+                        probation.put(demoted.getKey(), demoted.getValue());
+                    }
+                } else if (value != null) {
+                    probation.put(id, value);
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long invalidations() {
+            lock.lock();
+            try {
+                return invalidations;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void putIfNotInvalidated(String id, Optional<Product> value, long stamp) {
+            lock.lock();
+            try {
+                if (invalidations != stamp || protectedArea.containsKey(id) || probation.containsKey(id)) {
+                    return;
+                }
+                probation.put(id, value);
+                while (probation.size() + protectedArea.size() > capacity) {
+                    removeEldest(probation.isEmpty() ? protectedArea : probation);
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void invalidate(String id) {
+            lock.lock();
+            try {
+                invalidations++;
+                if (probation.remove(id) == null) {
+                    protectedArea.remove(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                invalidations++;
+                probation.clear();
+                protectedArea.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return probation.size() + protectedArea.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static Map.Entry<String, Optional<Product>> removeEldest(Map<String, Optional<Product>> area) {
+            Iterator<Map.Entry<String, Optional<Product>>> eldest = area.entrySet().iterator();
+            Map.Entry<String, Optional<Product>> entry = eldest.next();
+            Map.Entry<String, Optional<Product>> copy = Map.entry(entry.getKey(), entry.getValue());
+            eldest.remove();
+            return copy;
+        }
+    }
+}
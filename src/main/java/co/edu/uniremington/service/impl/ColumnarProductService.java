@@ -0,0 +1,586 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.IntToLongFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link ProductService} that stores the catalog column-wise in primitive arrays instead
+ * of one {@link Product} object per entry. Each product gets an int row number; ids are
+ * resolved to rows through an open-addressing hash table of ints, and {@code Product}
+ * instances are only built for the rows a query returns.
+ *
+ * <p>Columns are split in fixed-size pages that are never moved once allocated, so stock
+ * and sales counters can be updated with lock-free compare-and-set on the page cells while
+ * the catalog grows. The stock of a row shares a long cell with its version, so every
+ * stock change and every versioned update is a single compare-and-set on that cell.
+ * {@link #reserveAll(Map)} sets the top bit of the cells of all its products, in id
+ * order, before changing any of them; other writers wait while the bit is set.
+ * Structural changes (adding or fully updating a product) are serialized on the instance
+ * monitor and guarded by a per-row sequence number, which lets readers build a consistent
+ * {@code Product} without locking.
+ *
+ * <p>Scans such as {@link #findOutOfStock()} walk the stock or price column sequentially,
+ * touching only the rows they return. There are no secondary indexes: range and ranking
+ * queries are linear, cache-friendly scans.
+ */
+public class ColumnarProductService implements ProductService {
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long ANY_VERSION = -1;
+    private static final long LOCKED = 1L << 63;
+
+    private record Columns(String[][] ids, String[][] names, String[][] descriptions,
+                           double[][] prices, long[][] stocks, long[][] sold, int[][] sequences) {
+        Columns grow() {
+            return new Columns(
+                    withPage(ids, new String[PAGE_SIZE]),
+                    withPage(names, new String[PAGE_SIZE]),
+                    withPage(descriptions, new String[PAGE_SIZE]),
+                    withPage(prices, new double[PAGE_SIZE]),
+                    withPage(stocks, new long[PAGE_SIZE]),
+                    withPage(sold, new long[PAGE_SIZE]),
+                    withPage(sequences, new int[PAGE_SIZE]));
+        }
+
+        private static <T> T[] withPage(T[] pages, T page) {
+            T[] grown = Arrays.copyOf(pages, pages.length + 1);
+            grown[pages.length] = page;
+            return grown;
+        }
+    }
+
+    private record IdTable(int[] rows, int[] hashes) {
+        IdTable(int capacity) {
+            this(new int[capacity], new int[capacity]);
+        }
+    }
+
+    private volatile Columns columns;
+    private volatile IdTable idTable;
+    private volatile int size;
+
+    public ColumnarProductService() {
+        this(PAGE_SIZE);
+    }
+
+    /**
+     * Creates a store presized for {@code expectedProducts} rows.
+     */
+    public ColumnarProductService(int expectedProducts) {
+        Columns initial = new Columns(new String[0][], new String[0][], new String[0][],
+                new double[0][], new long[0][], new long[0][], new int[0][]);
+        for (int capacity = 0; capacity < Math.max(expectedProducts, 1); capacity += PAGE_SIZE) {
+            initial = initial.grow();
+        }
+        this.columns = initial;
+        this.idTable = new IdTable(Integer.highestOneBit(Math.max(expectedProducts, 8) * 2 - 1) << 1);
+    }
+
+    @Override
+    public synchronized Product addProduct(Product product) {
+        if (product.getId() == null) {
+            product = product.toBuilder().id(UUID.randomUUID().toString()).build();
+        }
+        int row = rowOf(product.getId());
+        if (row < 0) {
+            row = size;
+            if ((row >>> PAGE_BITS) == columns.ids().length) {
+                columns = columns.grow();
+            }
+            Columns c = columns;
+            c.ids()[row >>> PAGE_BITS][row & PAGE_MASK] = product.getId();
+            fill(c, row, product);
+            LONGS.setVolatile(c.stocks()[row >>> PAGE_BITS], row & PAGE_MASK, pack(0, product.getStock()));
+            insertId(product.getId(), row);
+            size = row + 1;
+            return product.withVersion(0);
+        }
+        return write(row, product, ANY_VERSION);
+    }
+
+    /**
+     * Grows the columns and the id table once for the whole batch and then appends the
+     * rows without releasing the monitor. A product listed more than once is added once,
+     * with the last of its values.
+     */
+    @Override
+    public synchronized List<Product> addProducts(Collection<Product> batch) {
+        batch = ProductServiceImpl.distinctById(batch);
+        int rows = size + batch.size();
+        Columns c = columns;
+        while ((long) c.ids().length * PAGE_SIZE < rows) {
+            c = c.grow();
+        }
+        columns = c;
+        if ((long) rows * 2 > idTable.rows().length) {
+            idTable = rehash(Integer.highestOneBit(rows * 2 - 1) << 1);
+        }
+        List<Product> added = new ArrayList<>(batch.size());
+        for (Product product : batch) {
+            added.add(addProduct(product));
+        }
+        return added;
+    }
+
+    @Override
+    public synchronized Optional<Product> updateProduct(Product product) {
+        return updateProduct(product, ANY_VERSION);
+    }
+
+    @Override
+    public synchronized Optional<Product> updateProduct(Product product, long expectedVersion) {
+        int row = rowOf(product.getId());
+        return row < 0 ? Optional.empty() : Optional.of(write(row, product, expectedVersion));
+    }
+
+    /**
+     * Replaces a row with odd sequence numbers, so readers retry until it is complete.
+     * Stock and version are swapped first: a concurrent sale may still change them, in
+     * which case the compare-and-set is retried, or fails if a version was expected.
+     */
+    private Product write(int row, Product product, long expectedVersion) {
+        Columns c = columns;
+        int page = row >>> PAGE_BITS;
+        int offset = row & PAGE_MASK;
+        int[] sequence = c.sequences()[page];
+        long[] stocks = c.stocks()[page];
+        INTS.setVolatile(sequence, offset, sequence[offset] + 1);
+        try {
+            long current;
+            do {
+                current = unlocked(stocks, offset);
+                if (expectedVersion != ANY_VERSION && version(current) != expectedVersion) {
+                    throw ProductServiceImpl.versionConflict(product.getId(), expectedVersion, version(current));
+                }
+            } while (!LONGS.compareAndSet(stocks, offset, current, pack(version(current) + 1, product.getStock())));
+            fill(c, row, product);
+            return product.withVersion(version(current) + 1);
+        } finally {
+            INTS.setVolatile(sequence, offset, sequence[offset] + 1);
+        }
+    }
+
+    private static void fill(Columns c, int row, Product product) {
+        int page = row >>> PAGE_BITS;
+        int offset = row & PAGE_MASK;
+        c.names()[page][offset] = product.getName();
+        c.descriptions()[page][offset] = product.getDescription();
+        c.prices()[page][offset] = product.getPrice();
+    }
+
+    private static long pack(long version, int stock) {
+        return (version << 32 & ~LOCKED) | (stock & 0xFFFFFFFFL);
+    }
+
+    private static long version(long packed) {
+        return (packed & ~LOCKED) >>> 32;
+    }
+
+    /**
+     * Reads a stock cell, spinning while a {@link #reserveAll(Map)} holds it.
+     */
+    private static long unlocked(long[] page, int offset) {
+        while (true) {
+            long current = (long) LONGS.getVolatile(page, offset);
+            if ((current & LOCKED) == 0) {
+                return current;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        int row = rowOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(materialize(row));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return scan((c, row) -> true);
+    }
+
+    /**
+     * Pages through the catalog in insertion order; the cursor is the number of the
+     * last row returned.
+     */
+    @Override
+    public Page<Product> findAll(String cursor, int limit) {
+        int first;
+        try {
+            first = cursor == null ? 0 : Integer.parseInt(cursor) + 1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        int rows = size;
+        var following = IntStream.range(Math.max(first, 0), rows).iterator();
+        Page<Integer> page = Page.of(following, limit, String::valueOf);
+        return new Page<>(page.items().stream().map(this::materialize).toList(), page.nextCursor());
+    }
+
+    /**
+     * Streams the rows present when the stream is created, building each product only
+     * when it is consumed.
+     */
+    @Override
+    public Stream<Product> streamAll() {
+        return IntStream.range(0, size).mapToObj(this::materialize);
+    }
+
+    @Override
+    public List<Product> findByPredicate(Predicate<Product> predicate) {
+        int rows = size;
+        List<Product> result = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            Product product = materialize(row);
+            if (predicate.test(product)) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Product> findOutOfStock() {
+        return findLowStock(0);
+    }
+
+    @Override
+    public List<Product> findLowStock(int threshold) {
+        return scan((c, row) -> stock(c, row) <= threshold);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(double min, double max) {
+        return scan((c, row) -> {
+            double price = c.prices()[row >>> PAGE_BITS][row & PAGE_MASK];
+            return price >= min && price <= max;
+        });
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix) {
+        String lowerCasePrefix = prefix.toLowerCase(Locale.ROOT);
+        return scan((c, row) -> {
+            String name = c.names()[row >>> PAGE_BITS][row & PAGE_MASK];
+            return name != null && name.toLowerCase(Locale.ROOT).startsWith(lowerCasePrefix);
+        });
+    }
+
+    @FunctionalInterface
+    private interface RowPredicate {
+        boolean test(Columns columns, int row);
+    }
+
+    /**
+     * Collects the rows that match, reading {@code size} before {@code columns} so that
+     * every row scanned lies in a page of the columns being read.
+     */
+    private List<Product> scan(RowPredicate matches) {
+        int rows = size;
+        Columns c = columns;
+        List<Product> result = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            if (matches.test(c, row)) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Product> getMostSoldProduct() {
+        List<Product> top = topN(1);
+        return top.isEmpty() ? Optional.empty() : Optional.of(top.get(0));
+    }
+
+    @Override
+    public Optional<Product> getLeastSoldProduct() {
+        List<Product> bottom = bottomN(1);
+        return bottom.isEmpty() ? Optional.empty() : Optional.of(bottom.get(0));
+    }
+
+    @Override
+    public List<Product> topN(int n) {
+        return rankBySold(n, true);
+    }
+
+    @Override
+    public List<Product> bottomN(int n) {
+        return rankBySold(n, false);
+    }
+
+    private List<Product> rankBySold(int n, boolean highest) {
+        if (n <= 0) {
+            return List.of();
+        }
+        int rows = size;
+        Columns c = columns;
+        long[] soldByRow = new long[rows];
+        Comparator<Integer> order = Comparator.comparingLong(row -> soldByRow[row]);
+        if (!highest) {
+            order = order.reversed();
+        }
+        PriorityQueue<Integer> kept = new PriorityQueue<>(order);
+        for (int row = 0; row < rows; row++) {
+            long sold = (long) LONGS.getVolatile(c.sold()[row >>> PAGE_BITS], row & PAGE_MASK);
+            if (sold == 0) {
+                continue;
+            }
+            soldByRow[row] = sold;
+            if (kept.size() < n) {
+                kept.add(row);
+            } else if (highest ? sold > soldByRow[kept.peek()] : sold < soldByRow[kept.peek()]) {
+                kept.poll();
+                kept.add(row);
+            }
+        }
+        List<Product> ranked = new ArrayList<>(kept.size());
+        while (!kept.isEmpty()) {
+            ranked.add(materialize(kept.poll()));
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    @Override
+    public boolean reserveStock(String productId, int quantity) {
+        requireNonNegative(quantity);
+        int row = rowOf(productId);
+        if (row < 0) {
+            return false;
+        }
+        long[] page = columns.stocks()[row >>> PAGE_BITS];
+        int offset = row & PAGE_MASK;
+        while (true) {
+            long current = unlocked(page, offset);
+            int stock = (int) current;
+            if (stock < quantity) {
+                return false;
+            }
+            if (LONGS.compareAndSet(page, offset, current, pack(version(current) + 1, stock - quantity))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void releaseStock(String productId, int quantity) {
+        requireNonNegative(quantity);
+        int row = rowOf(productId);
+        if (row < 0) {
+            return;
+        }
+        long[] page = columns.stocks()[row >>> PAGE_BITS];
+        int offset = row & PAGE_MASK;
+        long current;
+        do {
+            current = unlocked(page, offset);
+        } while (!LONGS.compareAndSet(page, offset, current, pack(version(current) + 1, (int) current + quantity)));
+    }
+
+    /**
+     * Locks the stock cells of all the products in id order, checks them and then writes
+     * the new stocks, each write releasing its cell. Readers keep seeing the previous
+     * stocks until then, so no partial reservation is ever visible.
+     */
+    @Override
+    public Optional<String> reserveAll(Map<String, Integer> quantities) {
+        quantities.values().forEach(ColumnarProductService::requireNonNegative);
+        String[] productIds = quantities.keySet().toArray(String[]::new);
+        Arrays.sort(productIds);
+        int[] rows = rowsOf(productIds);
+        Columns c = columns;
+        long[] locked = lockAll(c, rows);
+        for (int i = 0; i < productIds.length; i++) {
+            if (rows[i] < 0 || (int) locked[i] < quantities.get(productIds[i])) {
+                unlockAll(c, rows, row -> locked[row]);
+                return Optional.of(productIds[i]);
+            }
+        }
+        unlockAll(c, rows, row -> pack(version(locked[row]) + 1, (int) locked[row] - quantities.get(productIds[row])));
+        return Optional.empty();
+    }
+
+    @Override
+    public void releaseAll(Map<String, Integer> quantities) {
+        quantities.values().forEach(ColumnarProductService::requireNonNegative);
+        String[] productIds = quantities.keySet().toArray(String[]::new);
+        Arrays.sort(productIds);
+        int[] rows = rowsOf(productIds);
+        Columns c = columns;
+        long[] locked = lockAll(c, rows);
+        unlockAll(c, rows, row -> pack(version(locked[row]) + 1, (int) locked[row] + quantities.get(productIds[row])));
+    }
+
+    private int[] rowsOf(String[] productIds) {
+        int[] rows = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            rows[i] = rowOf(productIds[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * Sets the lock bit of every existing row, in the given order, and returns the cells
+     * as they were before.
+     */
+    private static long[] lockAll(Columns c, int[] rows) {
+        long[] locked = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] < 0) {
+                continue;
+            }
+            long[] page = c.stocks()[rows[i] >>> PAGE_BITS];
+            int offset = rows[i] & PAGE_MASK;
+            long current;
+            do {
+                current = unlocked(page, offset);
+            } while (!LONGS.compareAndSet(page, offset, current, current | LOCKED));
+            locked[i] = current;
+        }
+        return locked;
+    }
+
+    /**
+     * Writes {@code value} of each position to the cell of its row, which releases it.
+     */
+    private static void unlockAll(Columns c, int[] rows, IntToLongFunction value) {
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] >= 0) {
+                LONGS.setVolatile(c.stocks()[rows[i] >>> PAGE_BITS], rows[i] & PAGE_MASK, value.applyAsLong(i));
+            }
+        }
+    }
+
+    @Override
+    public void incrementProductSales(String productId, long quantity) {
+        int row = rowOf(productId);
+        if (row >= 0) {
+            LONGS.getAndAdd(columns.sold()[row >>> PAGE_BITS], row & PAGE_MASK, quantity);
+        }
+    }
+
+    @Override
+    public long getSoldQuantity(String productId) {
+        int row = rowOf(productId);
+        return row < 0 ? 0 : (long) LONGS.getVolatile(columns.sold()[row >>> PAGE_BITS], row & PAGE_MASK);
+    }
+
+    private static void requireNonNegative(int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa: " + quantity);
+        }
+    }
+
+    private static int stock(Columns c, int row) {
+        return (int) (long) LONGS.getVolatile(c.stocks()[row >>> PAGE_BITS], row & PAGE_MASK);
+    }
+
+    /**
+     * Builds a {@code Product} from one row, retrying while a full update of that row is
+     * in progress.
+     */
+    private Product materialize(int row) {
+        Columns c = columns;
+        int page = row >>> PAGE_BITS;
+        int offset = row & PAGE_MASK;
+        int[] sequences = c.sequences()[page];
+        while (true) {
+            int before = (int) INTS.getVolatile(sequences, offset);
+            long stock = (long) LONGS.getVolatile(c.stocks()[page], offset);
+            Product product = Product.builder()
+                    .id(c.ids()[page][offset])
+                    .name(c.names()[page][offset])
+                    .description(c.descriptions()[page][offset])
+                    .price(c.prices()[page][offset])
+                    .stock((int) stock)
+                    .version(version(stock))
+                    .build();
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && (int) INTS.getVolatile(sequences, offset) == before) {
+                return product;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int rowOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        IdTable table = idTable;
+        int hash = spread(id.hashCode());
+        int mask = table.rows().length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int stored = (int) INTS.getAcquire(table.rows(), slot);
+            if (stored == 0) {
+                return -1;
+            }
+            int row = stored - 1;
+            if (table.hashes()[slot] != hash) {
+                continue;
+            }
+            // Read after the slot: the columns holding the row were published before it
+            Columns c = columns;
+            String[][] ids = c.ids();
+            if ((row >>> PAGE_BITS) < ids.length && id.equals(ids[row >>> PAGE_BITS][row & PAGE_MASK])) {
+                return row;
+            }
+        }
+    }
+
+    private void insertId(String id, int row) {
+        IdTable table = idTable;
+        if ((size + 1) * 2 > table.rows().length) {
+            table = rehash(table.rows().length * 2);
+            idTable = table;
+        }
+        place(table, spread(id.hashCode()), row);
+    }
+
+    private IdTable rehash(int capacity) {
+        IdTable table = new IdTable(capacity);
+        Columns c = columns;
+        for (int row = 0; row < size; row++) {
+            place(table, spread(c.ids()[row >>> PAGE_BITS][row & PAGE_MASK].hashCode()), row);
+        }
+        return table;
+    }
+
+    private static void place(IdTable table, int hash, int row) {
+        int mask = table.rows().length - 1;
+        int slot = hash & mask;
+        while (table.rows()[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.hashes()[slot] = hash;
+        INTS.setRelease(table.rows(), slot, row + 1);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,72 @@
+package co.edu.uniremington.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered 64-bit identifiers in the style of Snowflake: 41 bits of milliseconds since
+ * 2024-01-01T00:00Z, a 12-bit sequence and a 10-bit node number taken from the
+ * {@code store.node} system property.
+ *
+ * <p>Ids are generated with a single CAS and never repeat within a node, even if the clock
+ * goes backwards or more than 4096 ids are requested in the same millisecond: in both cases
+ * the generator keeps counting from the last id it handed out.
+ */
+public final class IdGenerator {
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final IdGenerator SHARED = new IdGenerator(Integer.getInteger("store.node", 0));
+
+    private final long node;
+    private final AtomicLong lastState = new AtomicLong();
+
+    public IdGenerator(int node) {
+        if (node < 0 || node >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("Número de nodo fuera de rango: " + node);
+        }
+        this.node = node;
+    }
+
+    public static IdGenerator shared() {
+        return SHARED;
+    }
+
+    public long nextId() {
+        long timestamp = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = lastState.get();
+            next = Math.max(previous + 1, timestamp);
+        } while (!lastState.compareAndSet(previous, next));
+        return next << NODE_BITS | node;
+    }
+
+    /**
+     * Formats an id as 16 lowercase hexadecimal digits, so that ids sort as strings in the
+     * same order in which they were generated.
+     */
+    public static String toHex(long id) {
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Formats an id as 13 Crockford base-32 characters, a compact and unambiguous form
+     * meant to be read or typed by people.
+     */
+    public static String toBase32(long id) {
+        char[] chars = new char[13];
+        for (int i = 12; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 0x1F)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
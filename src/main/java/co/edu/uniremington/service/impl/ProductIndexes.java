@@ -0,0 +1,134 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.model.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over the catalog: the ids of products without stock, all ids in
+ * order for keyset pagination, and products sorted by stock, by price and by
+ * lower-cased name. A sorted set of names answers
+ * prefix queries with one O(log n) seek followed by an in-order walk, as a trie would.
+ *
+ * <p>{@link #replace} must be called while the product's entry is locked in the primary
+ * map, so that changes to the same product reach the indexes in order. New keys are
+ * added before stale ones are removed, so a concurrent query may briefly see a product
+ * twice but never miss it; queries return ids that the caller must de-duplicate and
+ * re-check against the current product.
+ */
+final class ProductIndexes {
+    private record StockKey(int stock, String id) {
+    }
+
+    private record PriceKey(double price, String id) {
+    }
+
+    private record NameKey(String name, String id) {
+    }
+
+    private final Set<String> outOfStock = ConcurrentHashMap.newKeySet();
+    private final ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<StockKey> byStock = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt(StockKey::stock).thenComparing(StockKey::id));
+    private final ConcurrentSkipListSet<PriceKey> byPrice = new ConcurrentSkipListSet<>(
+            Comparator.comparingDouble(PriceKey::price).thenComparing(PriceKey::id));
+    private final ConcurrentSkipListSet<NameKey> byName = new ConcurrentSkipListSet<>(
+            Comparator.comparing(NameKey::name).thenComparing(NameKey::id));
+
+    void replace(Product previous, Product current) {
+        String id = current.getId();
+        if (previous == null) {
+            ids.add(id);
+        }
+        if (current.getStock() == 0) {
+            outOfStock.add(id);
+        } else {
+            outOfStock.remove(id);
+        }
+        if (previous == null || previous.getStock() != current.getStock()) {
+            byStock.add(new StockKey(current.getStock(), id));
+            if (previous != null) {
+                byStock.remove(new StockKey(previous.getStock(), id));
+            }
+        }
+        if (previous == null || Double.compare(previous.getPrice(), current.getPrice()) != 0) {
+            byPrice.add(new PriceKey(current.getPrice(), id));
+            if (previous != null) {
+                byPrice.remove(new PriceKey(previous.getPrice(), id));
+            }
+        }
+        String name = normalize(current.getName());
+        String previousName = previous == null ? null : normalize(previous.getName());
+        if (!Objects.equals(name, previousName)) {
+            if (name != null) {
+                byName.add(new NameKey(name, id));
+            }
+            if (previousName != null) {
+                byName.remove(new NameKey(previousName, id));
+            }
+        }
+    }
+
+    /**
+     * Indexes products that were not in the catalog, inserting the keys of each index in
+     * its own order.
+     */
+    void addAll(List<Product> added) {
+        addSorted(ids, added.stream().map(Product::getId));
+        added.stream().filter(product -> product.getStock() == 0).map(Product::getId).forEach(outOfStock::add);
+        addSorted(byStock, added.stream().map(product -> new StockKey(product.getStock(), product.getId())));
+        addSorted(byPrice, added.stream().map(product -> new PriceKey(product.getPrice(), product.getId())));
+        addSorted(byName, added.stream()
+                .filter(product -> product.getName() != null)
+                .map(product -> new NameKey(normalize(product.getName()), product.getId())));
+    }
+
+    private static <T> void addSorted(ConcurrentSkipListSet<T> index, Stream<T> keys) {
+        List<T> sorted = new ArrayList<>(keys.toList());
+        sorted.sort(index.comparator());
+        index.addAll(sorted);
+    }
+
+    /**
+     * Returns the ids sorted after {@code cursor}, or all of them when it is
+     * {@code null}.
+     */
+    Stream<String> idsAfter(String cursor) {
+        return (cursor == null ? ids : ids.tailSet(cursor, false)).stream();
+    }
+
+    Stream<String> outOfStock() {
+        return outOfStock.stream();
+    }
+
+    Stream<String> stockAtMost(int threshold) {
+        return byStock.stream()
+                .takeWhile(key -> key.stock() <= threshold)
+                .map(StockKey::id);
+    }
+
+    Stream<String> priceBetween(double min, double max) {
+        return byPrice.tailSet(new PriceKey(min, "")).stream()
+                .takeWhile(key -> key.price() <= max)
+                .map(PriceKey::id);
+    }
+
+    Stream<String> nameStartingWith(String prefix) {
+        String normalized = normalize(prefix);
+        return byName.tailSet(new NameKey(normalized, "")).stream()
+                .takeWhile(key -> key.name().startsWith(normalized))
+                .map(NameKey::id);
+    }
+
+    static String normalize(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+}
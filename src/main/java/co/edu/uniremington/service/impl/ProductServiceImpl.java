@@ -1,47 +1,184 @@
 package co.edu.uniremington.service.impl;
 
+import co.edu.uniremington.events.StoreEvent;
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.metrics.LatencyHistogram;
+import co.edu.uniremington.metrics.Metrics;
 import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.Page;
 import co.edu.uniremington.service.ProductService;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Keeps the catalog in a {@link ConcurrentHashMap} of immutable products. Readers never
+ * lock; every change replaces the product of one key atomically with the next version,
+ * so secondary indexes and stock events follow the changes of a product in order.
+ *
+ * <p>Changes that may alter the stock also hold the product's lock in a set of
+ * {@link StripedLocks}. {@link #reserveAll(Map)} takes the locks of all its products in
+ * a fixed order, checks every stock and only then takes the units, so a multi-item
+ * reservation is never seen half done.
+ */
 public class ProductServiceImpl implements ProductService {
+    private static final LatencyHistogram FIND_BY_ID_LATENCY = Metrics.histogram("product.findById");
+    private static final LatencyHistogram FIND_BY_PREDICATE_LATENCY = Metrics.histogram("product.findByPredicate");
+    private static final int STOCK_LOCK_STRIPES = 1024;
+
     private final Map<String, Product> products;
-    private final Map<String, Long> productSales;
+    private final SalesRanking productSales;
+    private final ProductIndexes indexes;
+    private final StoreEventSink events;
+    private final StripedLocks stockLocks = new StripedLocks(STOCK_LOCK_STRIPES);
 
     public ProductServiceImpl() {
-        this.products = new HashMap<>();
-        this.productSales = new HashMap<>();
+        this(StoreEventSink.NONE);
+    }
+
+    /**
+     * Creates the service publishing a {@link StoreEvent.StockChanged} to {@code events}
+     * whenever the stock of a product changes. Events are published while the product
+     * is locked, so the events of one product arrive in the order they happened.
+     */
+    public ProductServiceImpl(StoreEventSink events) {
+        this(16, events);
+    }
+
+    /**
+     * Creates the service with room for {@code expectedProducts} without resizing, for
+     * catalogs loaded in bulk.
+     */
+    public ProductServiceImpl(int expectedProducts, StoreEventSink events) {
+        this.events = events;
+        this.products = new ConcurrentHashMap<>(expectedProducts);
+        this.productSales = new SalesRanking();
+        this.indexes = new ProductIndexes();
+        Metrics.gauge("product.catalogSize", products, Map::size);
     }
 
     @Override
     public Product addProduct(Product product) {
         if (product.getId() == null) {
-            product = Product.builder()
-                    .id(UUID.randomUUID().toString())
-                    .name(product.getName())
-                    .description(product.getDescription())
-                    .price(product.getPrice())
-                    .stock(product.getStock())
-                    .build();
+            product = product.toBuilder().id(UUID.randomUUID().toString()).build();
         }
-        products.put(product.getId(), product);
-        return product;
+        Product added = product;
+        return locked(added.getId(), () -> products.compute(added.getId(), (id, existing) -> indexed(existing, added)));
+    }
+
+    /**
+     * Stores the batch first and then adds the new products to the secondary indexes
+     * sorted by each index's key, which walks the skip lists in order instead of
+     * seeking a random position per product. Index queries may miss the new products
+     * until this method returns. A product listed more than once in the batch is added
+     * once, with the last of its values.
+     */
+    @Override
+    public List<Product> addProducts(Collection<Product> batch) {
+        Collection<Product> distinct = distinctById(batch);
+        List<Product> added = new ArrayList<>(distinct.size());
+        List<Product> unindexed = new ArrayList<>(distinct.size());
+        for (Product withId : distinct) {
+            added.add(locked(withId.getId(), () -> products.compute(withId.getId(), (id, existing) -> {
+                if (existing != null) {
+                    return indexed(existing, withId);
+                }
+                Product current = withId.withVersion(0);
+                unindexed.add(current);
+                publishStockChange(null, current);
+                return current;
+            })));
+        }
+        indexes.addAll(unindexed);
+        return added;
+    }
+
+    /**
+     * Gives the products without an id a new one and keeps the last product listed under
+     * each id, in the order the ids first appear.
+     */
+    static Collection<Product> distinctById(Collection<Product> batch) {
+        Map<String, Product> byId = new LinkedHashMap<>();
+        for (Product product : batch) {
+            Product withId = product.getId() == null
+                    ? product.toBuilder().id(UUID.randomUUID().toString()).build()
+                    : product;
+            byId.put(withId.getId(), withId);
+        }
+        return byId.values();
     }
 
     @Override
     public Optional<Product> updateProduct(Product product) {
-        return Optional.ofNullable(products.get(product.getId()))
-                .map(existing -> {
-                    products.put(product.getId(), product);
-                    return product;
-                });
+        return locked(product.getId(), () ->
+                Optional.ofNullable(products.computeIfPresent(product.getId(), (id, existing) -> indexed(existing, product))));
+    }
+
+    @Override
+    public Optional<Product> updateProduct(Product product, long expectedVersion) {
+        return locked(product.getId(), () -> Optional.ofNullable(products.computeIfPresent(product.getId(), (id, existing) -> {
+            if (existing.getVersion() != expectedVersion) {
+                throw versionConflict(id, expectedVersion, existing.getVersion());
+            }
+            return indexed(existing, product);
+        })));
+    }
+
+    /**
+     * Adds a product keeping the version it already had instead of starting at zero,
+     * e.g. when the store is loaded from a snapshot. A product with the same id is
+     * replaced.
+     */
+    public Product restoreProduct(Product product) {
+        return locked(product.getId(), () -> products.compute(product.getId(), (id, existing) -> {
+            indexes.replace(existing, product);
+            publishStockChange(existing, product);
+            return product;
+        }));
+    }
+
+    private <T> T locked(String productId, Supplier<T> change) {
+        ReentrantLock lock = stockLocks.lock(productId);
+        try {
+            return change.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static ConcurrentModificationException versionConflict(String id, long expectedVersion, long currentVersion) {
+        return new ConcurrentModificationException("El producto " + id + " fue modificado: se esperaba la versión "
+                + expectedVersion + " y la actual es " + currentVersion);
+    }
+
+    /**
+     * Stores {@code update} as the version following {@code previous}, the first one
+     * being zero.
+     */
+    private Product indexed(Product previous, Product update) {
+        Product current = update.withVersion(previous == null ? 0 : previous.getVersion() + 1);
+        indexes.replace(previous, current);
+        publishStockChange(previous, current);
+        return current;
+    }
+
+    private void publishStockChange(Product previous, Product current) {
+        int previousStock = previous == null ? 0 : previous.getStock();
+        if (previous == null || previousStock != current.getStock()) {
+            events.publish(new StoreEvent.StockChanged(current.getId(), previousStock, current.getStock()));
+        }
     }
 
     @Override
     public Optional<Product> findById(String id) {
-        return Optional.ofNullable(products.get(id));
+        long start = Metrics.start();
+        Product product = products.get(id);
+        FIND_BY_ID_LATENCY.recordSince(start);
+        return Optional.ofNullable(product);
     }
 
     @Override
@@ -49,33 +186,164 @@ public class ProductServiceImpl implements ProductService {
         return new ArrayList<>(products.values());
     }
 
+    /**
+     * Pages through the catalog by id. A new product enters the id index while it is
+     * still being put in the map, so an id that does not resolve yet is skipped; like a
+     * product added behind the cursor, it is only seen by a later listing.
+     */
+    @Override
+    public Page<Product> findAll(String cursor, int limit) {
+        return Page.of(indexes.idsAfter(cursor).map(products::get).filter(Objects::nonNull).iterator(),
+                limit, Product::getId);
+    }
+
+    /**
+     * Streams the catalog without copying it. The stream is weakly consistent: it sees
+     * every product that existed when it was created, each exactly once, and may or may
+     * not see later changes.
+     */
+    @Override
+    public Stream<Product> streamAll() {
+        return products.values().stream();
+    }
+
     @Override
     public List<Product> findByPredicate(Predicate<Product> predicate) {
-        return products.values().stream()
+        long start = Metrics.start();
+        List<Product> found = products.values().stream()
                 .filter(predicate)
                 .collect(Collectors.toList());
+        FIND_BY_PREDICATE_LATENCY.recordSince(start);
+        return found;
     }
 
     @Override
     public List<Product> findOutOfStock() {
-        return findByPredicate(product -> product.getStock() == 0);
+        return lookup(indexes.outOfStock(), product -> product.getStock() == 0);
+    }
+
+    @Override
+    public List<Product> findLowStock(int threshold) {
+        return lookup(indexes.stockAtMost(threshold), product -> product.getStock() <= threshold);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(double min, double max) {
+        return lookup(indexes.priceBetween(min, max),
+                product -> product.getPrice() >= min && product.getPrice() <= max);
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix) {
+        String normalized = ProductIndexes.normalize(prefix);
+        return lookup(indexes.nameStartingWith(prefix), product -> product.getName() != null
+                && ProductIndexes.normalize(product.getName()).startsWith(normalized));
+    }
+
+    private List<Product> lookup(Stream<String> ids, Predicate<Product> stillMatches) {
+        return ids.distinct()
+                .map(products::get)
+                .filter(product -> product != null && stillMatches.test(product))
+                .collect(Collectors.toList());
     }
 
     @Override
     public Optional<Product> getMostSoldProduct() {
-        return productSales.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(entry -> products.get(entry.getKey()));
+        return productSales.highest().map(products::get);
     }
 
     @Override
     public Optional<Product> getLeastSoldProduct() {
-        return productSales.entrySet().stream()
-                .min(Map.Entry.comparingByValue())
-                .map(entry -> products.get(entry.getKey()));
+        return productSales.lowest().map(products::get);
+    }
+
+    @Override
+    public List<Product> topN(int n) {
+        return toProducts(productSales.highest(n));
+    }
+
+    @Override
+    public List<Product> bottomN(int n) {
+        return toProducts(productSales.lowest(n));
+    }
+
+    private List<Product> toProducts(List<String> ids) {
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean reserveStock(String productId, int quantity) {
+        requireNonNegative(quantity);
+        var reserved = new boolean[1];
+        locked(productId, () -> products.computeIfPresent(productId, (id, product) -> {
+            if (product.getStock() < quantity) {
+                return product;
+            }
+            reserved[0] = true;
+            return indexed(product, product.withStock(product.getStock() - quantity));
+        }));
+        return reserved[0];
     }
 
+    @Override
+    public void releaseStock(String productId, int quantity) {
+        requireNonNegative(quantity);
+        locked(productId, () -> products.computeIfPresent(productId,
+                (id, product) -> indexed(product, product.withStock(product.getStock() + quantity))));
+    }
+
+    /**
+     * Reserves every quantity or none while holding the locks of all the products, so
+     * no other thread observes part of the reservation or changes a stock between the
+     * check and the update.
+     */
+    @Override
+    public Optional<String> reserveAll(Map<String, Integer> quantities) {
+        quantities.values().forEach(ProductServiceImpl::requireNonNegative);
+        int[] stripes = stockLocks.lockAll(quantities.keySet());
+        try {
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                if (product == null || product.getStock() < entry.getValue()) {
+                    return Optional.of(entry.getKey());
+                }
+            }
+            quantities.forEach((productId, quantity) -> products.computeIfPresent(productId,
+                    (id, product) -> indexed(product, product.withStock(product.getStock() - quantity))));
+            return Optional.empty();
+        } finally {
+            stockLocks.unlockAll(stripes);
+        }
+    }
+
+    @Override
+    public void releaseAll(Map<String, Integer> quantities) {
+        quantities.values().forEach(ProductServiceImpl::requireNonNegative);
+        int[] stripes = stockLocks.lockAll(quantities.keySet());
+        try {
+            quantities.forEach((productId, quantity) -> products.computeIfPresent(productId,
+                    (id, product) -> indexed(product, product.withStock(product.getStock() + quantity))));
+        } finally {
+            stockLocks.unlockAll(stripes);
+        }
+    }
+
+    private static void requireNonNegative(int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa: " + quantity);
+        }
+    }
+
+    @Override
     public void incrementProductSales(String productId, long quantity) {
-        productSales.merge(productId, quantity, Long::sum);
+        productSales.increment(productId, quantity);
+    }
+
+    @Override
+    public long getSoldQuantity(String productId) {
+        return productSales.quantity(productId);
     }
 }
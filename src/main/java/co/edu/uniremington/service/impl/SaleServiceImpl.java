@@ -1,95 +1,369 @@
 package co.edu.uniremington.service.impl;
 
+import co.edu.uniremington.archive.SalesArchive;
+import co.edu.uniremington.archive.SortedMerge;
+import co.edu.uniremington.events.StoreEvent;
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.metrics.Counter;
+import co.edu.uniremington.metrics.LatencyHistogram;
+import co.edu.uniremington.metrics.Metrics;
+import co.edu.uniremington.model.Product;
 import co.edu.uniremington.model.Sale;
 import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.Page;
 import co.edu.uniremington.service.ProductService;
 import co.edu.uniremington.service.SaleService;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SaleServiceImpl implements SaleService {
-    private final Map<String, Sale> sales;
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    private static final LatencyHistogram REGISTER_SALE_LATENCY = Metrics.histogram("sale.registerSale");
+    private static final LatencyHistogram REGISTER_SALES_LATENCY = Metrics.histogram("sale.registerSales");
+    private static final LatencyHistogram UPDATE_INVENTORY_LATENCY = Metrics.histogram("sale.updateInventory");
+    private static final LatencyHistogram AVERAGE_LATENCY = Metrics.histogram("sale.calculateAverage");
+    private static final Counter SALES_REGISTERED = Metrics.counter("sale.registered");
+    private static final Counter SALES_REJECTED = Metrics.counter("sale.rejected");
+
+    /**
+     * Sales by id. Generated ids sort by registration time, so the sorted map doubles
+     * as the history in order for keyset pagination.
+     */
+    private final ConcurrentNavigableMap<String, Sale> sales;
+    /** Size of {@link #sales}, which a skip list can only count by walking it. */
+    private final LongAdder historySize = new LongAdder();
+    private final SalesTimeIndex salesByTime;
     private final ProductService productService;
+    private final IdGenerator ids;
+    private final StoreEventSink events;
+    private final SalesArchive archive;
 
     public SaleServiceImpl(ProductService productService) {
-        this.sales = new HashMap<>();
+        this(productService, StoreEventSink.NONE);
+    }
+
+    /**
+     * Creates the service publishing a {@link StoreEvent.SaleRegistered} to
+     * {@code events} for every sale registered, once its stock is reserved.
+     */
+    public SaleServiceImpl(ProductService productService, StoreEventSink events) {
+        this(productService, events, null);
+    }
+
+    /**
+     * Creates the service with a cold tier: sales moved to {@code archive} by
+     * {@link #archiveSalesBefore(LocalDateTime)} leave the heap but are still found by
+     * id, listed and counted in the averages. The revenue of sales already archived is
+     * loaded when the service is created.
+     *
+     * <p>The archive is not integrated with {@code DurableStore}: the durable services
+     * are created without one, and a service with an archive must not be checkpointed
+     * or replicated, since snapshots and the journal only hold the sales on the heap.
+     */
+    public SaleServiceImpl(ProductService productService, StoreEventSink events, SalesArchive archive) {
+        this.events = events;
+        this.archive = archive;
+        this.sales = new ConcurrentSkipListMap<>();
+        this.salesByTime = new SalesTimeIndex();
         this.productService = productService;
+        this.ids = IdGenerator.shared();
+        Metrics.gauge("sale.historySize", historySize, LongAdder::sum);
+        if (archive != null) {
+            archive.forEachRevenue(salesByTime::add);
+        }
     }
 
+    /**
+     * Registers a sale, generating its id, code and date unless it has an id already.
+     *
+     * @throws IllegalArgumentException if an item has no units or the id is already in
+     *         the history
+     * @throws IllegalStateException if a product lacks stock
+     */
     @Override
     public Sale registerSale(Sale sale) {
+        long start = Metrics.start();
+        requirePositiveQuantities(sale.getItems());
         if (sale.getId() == null) {
-            sale = Sale.builder()
-                    .id(UUID.randomUUID().toString())
-                    .code(generateSaleCode())
-                    .date(LocalDateTime.now())
-                    .items(processSaleItems(sale.getItems()))
-                    .total(calculateTotal(sale.getItems()))
-                    .build();
-        }
-        updateInventory(sale.getItems());
-        updateProductSales(sale.getItems());
-        sales.put(sale.getId(), sale);
+            sale = newSale(sale.getItems());
+        } else {
+            requireNewId(sale.getId());
+        }
+        Map<String, Integer> quantities = quantitiesByProduct(sale.getItems());
+        try {
+            updateInventory(quantities);
+        } catch (IllegalStateException e) {
+            SALES_REJECTED.increment();
+            throw e;
+        }
+        boolean stored = false;
+        try {
+            stored = putSale(sale);
+            if (!stored) {
+                throw duplicateSale(sale.getId());
+            }
+            updateProductSales(sale.getItems());
+            indexSale(sale);
+        } catch (RuntimeException e) {
+            if (stored) {
+                removeSale(sale);
+            }
+            productService.releaseAll(quantities);
+            throw e;
+        }
+        events.publish(new StoreEvent.SaleRegistered(sale));
+        SALES_REGISTERED.increment();
+        REGISTER_SALE_LATENCY.recordSince(start);
         return sale;
     }
 
-    private List<SaleItem> processSaleItems(List<SaleItem> items) {
-        return items.stream()
-                .map(item -> SaleItem.builder()
-                        .product(item.getProduct())
-                        .quantity(item.getQuantity())
-                        .subtotal(item.getProduct().getPrice() * item.getQuantity())
-                        .build())
-                .collect(Collectors.toList());
+    /**
+     * Registers a batch of sales as a unit. Quantities are added up per product and each
+     * product's stock and sales count is updated once for the whole batch. If any product
+     * lacks stock for the batch total, or any id is repeated or already in the history,
+     * nothing is registered. Batches of at least {@value #PARALLEL_THRESHOLD} sales are
+     * prepared and aggregated on the common fork-join pool.
+     */
+    @Override
+    public List<Sale> registerSales(Collection<Sale> batch) {
+        long start = Metrics.start();
+        batch.forEach(sale -> requirePositiveQuantities(sale.getItems()));
+        boolean parallel = batch.size() >= PARALLEL_THRESHOLD;
+        List<Sale> prepared = (parallel ? batch.parallelStream() : batch.stream())
+                .map(sale -> sale.getId() == null ? newSale(sale.getItems()) : sale)
+                .toList();
+        Set<String> batchIds = new HashSet<>(prepared.size() * 2);
+        for (Sale sale : batch) {
+            if (sale.getId() != null && !batchIds.add(sale.getId())) {
+                throw duplicateSale(sale.getId());
+            }
+        }
+        batchIds.forEach(this::requireNewId);
+        Map<String, Long> quantities = (parallel ? prepared.parallelStream() : prepared.stream())
+                .flatMap(sale -> sale.getItems().stream())
+                .collect(Collectors.groupingByConcurrent(item -> item.getProduct().getId(),
+                        Collectors.summingLong(SaleItem::getQuantity)));
+
+        Map<String, Integer> reserved = new HashMap<>(quantities.size());
+        quantities.forEach((productId, quantity) -> reserved.put(productId, Math.toIntExact(quantity)));
+        try {
+            updateInventory(reserved);
+        } catch (IllegalStateException e) {
+            SALES_REJECTED.add(prepared.size());
+            throw e;
+        }
+        List<Sale> added = new ArrayList<>(prepared.size());
+        try {
+            for (Sale sale : prepared) {
+                if (!putSale(sale)) {
+                    throw duplicateSale(sale.getId());
+                }
+                added.add(sale);
+            }
+            quantities.forEach(productService::incrementProductSales);
+            salesByTime.addAll(added);
+        } catch (RuntimeException e) {
+            added.forEach(this::removeSale);
+            productService.releaseAll(reserved);
+            throw e;
+        }
+        added.forEach(sale -> events.publish(new StoreEvent.SaleRegistered(sale)));
+        SALES_REGISTERED.add(added.size());
+        REGISTER_SALES_LATENCY.recordSince(start);
+        return added;
+    }
+
+    /**
+     * Adds an already registered sale to the history without touching inventory or
+     * sales counters, e.g. when the store is loaded from a snapshot. A sale whose id is
+     * already in the history is ignored.
+     */
+    public void restoreSale(Sale sale) {
+        if (putSale(sale)) {
+            indexSale(sale);
+        }
+    }
+
+    private void indexSale(Sale sale) {
+        if (sale.getDate() != null) {
+            salesByTime.add(sale.getDate(), sale.getTotal());
+        }
     }
 
-    private double calculateTotal(List<SaleItem> items) {
-        return items.stream()
-                .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
-                .sum();
+    private void requireNewId(String id) {
+        if (sales.containsKey(id)) {
+            throw duplicateSale(id);
+        }
     }
 
-    private void updateInventory(List<SaleItem> items) {
-        items.forEach(item -> {
-            var product = item.getProduct();
-            product.setStock(product.getStock() - item.getQuantity());
-            productService.updateProduct(product);
-        });
+    private static IllegalArgumentException duplicateSale(String id) {
+        return new IllegalArgumentException("Ya existe una venta con id " + id);
+    }
+
+    private Sale newSale(List<SaleItem> requested) {
+        SaleItem[] items = new SaleItem[requested.size()];
+        double total = 0;
+        for (int i = 0; i < items.length; i++) {
+            SaleItem item = requested.get(i);
+            double subtotal = item.getProduct().getPrice() * item.getQuantity();
+            items[i] = new SaleItem(item.getProduct(), item.getQuantity(), subtotal);
+            total += subtotal;
+        }
+        long id = ids.nextId();
+        return new Sale(IdGenerator.toHex(id), generateSaleCode(id), LocalDateTime.now(), Arrays.asList(items), total);
+    }
+
+    private static void requirePositiveQuantities(List<SaleItem> items) {
+        for (SaleItem item : items) {
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser positiva: " + item.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * Adds up the units of the items by product, so a product listed twice is checked
+     * against its stock once for the whole sale.
+     */
+    private static Map<String, Integer> quantitiesByProduct(List<SaleItem> items) {
+        if (items.size() == 1) {
+            SaleItem item = items.get(0);
+            return Map.of(item.getProduct().getId(), item.getQuantity());
+        }
+        Map<String, Integer> quantities = new HashMap<>(items.size() * 2);
+        for (SaleItem item : items) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Math::addExact);
+        }
+        return quantities;
+    }
+
+    /**
+     * Reserves the stock of every product or, if any lacks stock, of none.
+     */
+    private void updateInventory(Map<String, Integer> quantities) {
+        long start = Metrics.start();
+        Optional<String> lacking = productService.reserveAll(quantities);
+        UPDATE_INVENTORY_LATENCY.recordSince(start);
+        if (lacking.isPresent()) {
+            throw new IllegalStateException("Stock insuficiente para el producto " + lacking.get());
+        }
     }
 
     private void updateProductSales(List<SaleItem> items) {
-        items.forEach(item -> 
-            ((ProductServiceImpl) productService).incrementProductSales(
-                item.getProduct().getId(), 
-                item.getQuantity()
-            )
-        );
+        for (SaleItem item : items) {
+            productService.incrementProductSales(item.getProduct().getId(), item.getQuantity());
+        }
+    }
+
+    private static String generateSaleCode(long id) {
+        return "SALE-" + IdGenerator.toBase32(id);
     }
 
-    private String generateSaleCode() {
-        return "SALE-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    /**
+     * Moves the sales dated before {@code cutoff} from the heap to the archive, one
+     * segment per month. Their revenue stays in the time index, so averages are not
+     * affected.
+     *
+     * @return the number of sales archived
+     */
+    public synchronized int archiveSalesBefore(LocalDateTime cutoff) throws IOException {
+        if (archive == null) {
+            throw new IllegalStateException("El servicio de ventas no tiene archivo histórico");
+        }
+        List<Sale> cold = sales.values().stream()
+                .filter(sale -> sale.getDate() != null && sale.getDate().isBefore(cutoff))
+                .toList();
+        if (cold.isEmpty()) {
+            return 0;
+        }
+        archive.append(cold);
+        cold.forEach(this::removeSale);
+        return cold.size();
+    }
+
+    /**
+     * Puts a sale in the history unless its id is already there, and returns whether it
+     * was added.
+     */
+    private boolean putSale(Sale sale) {
+        if (sales.putIfAbsent(sale.getId(), sale) != null) {
+            return false;
+        }
+        historySize.increment();
+        return true;
+    }
+
+    private void removeSale(Sale sale) {
+        if (sales.remove(sale.getId(), sale)) {
+            historySize.decrement();
+        }
     }
 
     @Override
     public Optional<Sale> findById(String id) {
-        return Optional.ofNullable(sales.get(id));
+        Sale sale = sales.get(id);
+        if (sale != null || archive == null) {
+            return Optional.ofNullable(sale);
+        }
+        return archive.findById(id, this::resolveProduct);
+    }
+
+    private Product resolveProduct(String productId) {
+        return productService.findById(productId).orElse(null);
     }
 
+    /**
+     * Returns every sale, including the archived ones. Prefer {@link #streamAll()} or
+     * pagination for large histories.
+     */
     @Override
     public List<Sale> findAll() {
-        return new ArrayList<>(sales.values());
+        return archive == null ? new ArrayList<>(sales.values()) : streamAll().collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Sale> findAll(String cursor, int limit) {
+        return Page.of(iteratorAfter(cursor), limit, Sale::getId);
+    }
+
+    /**
+     * Streams the history in id order without copying it, archived sales included. The
+     * stream is weakly consistent: it sees every sale registered before it was created
+     * and may or may not see later ones.
+     */
+    @Override
+    public Stream<Sale> streamAll() {
+        if (archive == null) {
+            return sales.values().stream();
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iteratorAfter(null),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private Iterator<Sale> iteratorAfter(String cursor) {
+        Iterator<Sale> recent = (cursor == null ? sales : sales.tailMap(cursor, false)).values().iterator();
+        if (archive == null) {
+            return recent;
+        }
+        return SortedMerge.merge(List.of(archive.iteratorAfter(cursor, this::resolveProduct), recent),
+                Comparator.comparing(Sale::getId));
     }
 
     @Override
     public double calculateAverageSalesByPeriod(LocalDateTime start, LocalDateTime end) {
-        var salesInPeriod = sales.values().stream()
-                .filter(sale -> !sale.getDate().isBefore(start) && !sale.getDate().isAfter(end))
-                .mapToDouble(Sale::getTotal)
-                .sum();
-        
+        long started = Metrics.start();
+        var salesInPeriod = salesByTime.sum(start, end);
+
         long days = ChronoUnit.DAYS.between(start, end) + 1;
+        AVERAGE_LATENCY.recordSince(started);
         return salesInPeriod / days;
     }
 
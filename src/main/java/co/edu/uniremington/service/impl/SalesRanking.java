@@ -0,0 +1,78 @@
+package co.edu.uniremington.service.impl;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Units sold per product, kept ordered by quantity so that the best and worst
+ * sellers can be read without scanning the catalog.
+ *
+ * <p>Each product's total is updated inside {@link ConcurrentHashMap#compute}, which
+ * serializes updates of the same product while leaving other products uncontended.
+ * The new ranking entry is inserted before the old one is removed, so a reader never
+ * sees a sold product vanish; it may briefly see it twice, which {@link #highest(int)}
+ * and {@link #lowest(int)} filter out.
+ */
+final class SalesRanking {
+    private record Entry(String productId, long quantity) {
+    }
+
+    private static final Comparator<Entry> BY_QUANTITY = Comparator
+            .comparingLong(Entry::quantity)
+            .thenComparing(Entry::productId);
+
+    private final Map<String, Long> totals = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(BY_QUANTITY);
+
+    void increment(String productId, long quantity) {
+        if (quantity == 0) {
+            // The new entry would equal the current one, and removing it would drop the product
+            return;
+        }
+        totals.compute(productId, (id, current) -> {
+            long updated = current == null ? quantity : current + quantity;
+            ranking.add(new Entry(id, updated));
+            if (current != null) {
+                ranking.remove(new Entry(id, current));
+            }
+            return updated;
+        });
+    }
+
+    long quantity(String productId) {
+        return totals.getOrDefault(productId, 0L);
+    }
+
+    Optional<String> highest() {
+        return first(ranking.descendingIterator());
+    }
+
+    Optional<String> lowest() {
+        return first(ranking.iterator());
+    }
+
+    List<String> highest(int n) {
+        return ranking.descendingSet().stream()
+                .map(Entry::productId)
+                .distinct()
+                .limit(n)
+                .toList();
+    }
+
+    List<String> lowest(int n) {
+        return ranking.stream()
+                .map(Entry::productId)
+                .distinct()
+                .limit(n)
+                .toList();
+    }
+
+    private static Optional<String> first(Iterator<Entry> iterator) {
+        return iterator.hasNext() ? Optional.of(iterator.next().productId()) : Optional.empty();
+    }
+}
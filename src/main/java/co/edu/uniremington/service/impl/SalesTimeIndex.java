@@ -0,0 +1,205 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.model.Sale;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Revenue aggregated in one-minute buckets and indexed by a Fenwick tree, so the
+ * revenue of any time range is answered with two prefix sums in O(log n) instead of
+ * visiting every sale.
+ *
+ * <p>The tree covers a contiguous window of minutes that doubles when a sale falls
+ * after it and is re-based when a sale falls before it, up to
+ * {@value #MAX_CAPACITY} minutes (about two years). Once the window is that large it
+ * slides forward as time goes by, and the minutes it leaves behind, like sales dated
+ * before it or far after it, are kept in sparse per-day buckets, so memory no longer
+ * depends on how far apart the sale dates are. Range boundaries are resolved to the
+ * minute inside the window and to the day outside of it: a query includes whole
+ * buckets for its first and last minute or day.
+ */
+final class SalesTimeIndex {
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int MAX_CAPACITY = 1 << 20;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final StampedLock lock = new StampedLock();
+    private long origin;
+    private double[] buckets;
+    private double[] tree;
+    private final ConcurrentSkipListMap<Long, Double> days = new ConcurrentSkipListMap<>();
+
+    SalesTimeIndex() {
+        this.buckets = new double[INITIAL_CAPACITY];
+        this.tree = new double[INITIAL_CAPACITY + 1];
+        this.origin = Long.MIN_VALUE;
+    }
+
+    void add(LocalDateTime date, double amount) {
+        long stamp = lock.writeLock();
+        try {
+            addLocked(toMinute(date), amount);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds the totals of a batch of sales taking the write lock once. Sales without a
+     * date are skipped.
+     */
+    void addAll(Collection<Sale> sales) {
+        long stamp = lock.writeLock();
+        try {
+            for (Sale sale : sales) {
+                if (sale.getDate() != null) {
+                    addLocked(toMinute(sale.getDate()), sale.getTotal());
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void addLocked(long minute, double amount) {
+        if (origin == Long.MIN_VALUE) {
+            origin = minute - INITIAL_CAPACITY / 4;
+        }
+        if ((minute < origin || minute - origin >= buckets.length) && !resize(minute) && !slide(minute)) {
+            days.merge(Math.floorDiv(minute, MINUTES_PER_DAY), amount, Double::sum);
+            return;
+        }
+        int slot = (int) (minute - origin);
+        buckets[slot] += amount;
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += amount;
+        }
+    }
+
+    /**
+     * Returns the revenue registered between {@code start} and {@code end}, both inclusive.
+     */
+    double sum(LocalDateTime start, LocalDateTime end) {
+        long from = toMinute(start);
+        long to = toMinute(end);
+        long stamp = lock.tryOptimisticRead();
+        double sum = rangeSum(from, to);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                sum = rangeSum(from, to);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return sum;
+    }
+
+    private double rangeSum(long from, long to) {
+        long base = origin;
+        double[] fenwick = tree;
+        if (base == Long.MIN_VALUE || from > to) {
+            return 0;
+        }
+        double outside = 0;
+        if (!days.isEmpty()) {
+            for (double amount : days.subMap(Math.floorDiv(from, MINUTES_PER_DAY), true,
+                    Math.floorDiv(to, MINUTES_PER_DAY), true).values()) {
+                outside += amount;
+            }
+        }
+        int size = fenwick.length - 1;
+        long first = Math.max(from - base, 0);
+        long last = Math.min(to - base, size - 1);
+        if (first > last) {
+            return outside;
+        }
+        return outside + prefix(fenwick, (int) last + 1) - prefix(fenwick, (int) first);
+    }
+
+    private static double prefix(double[] fenwick, int count) {
+        double sum = 0;
+        for (int i = Math.min(count, fenwick.length - 1); i > 0; i -= i & -i) {
+            sum += fenwick[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Grows the window to cover {@code minute}, unless that would take more than
+     * {@value #MAX_CAPACITY} minutes.
+     */
+    private boolean resize(long minute) {
+        long newOrigin = Math.min(origin, minute - buckets.length / 4);
+        long required = Math.max(origin + buckets.length, minute + 1) - newOrigin;
+        if (required > MAX_CAPACITY) {
+            return false;
+        }
+        int capacity = buckets.length;
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        double[] resized = new double[capacity];
+        System.arraycopy(buckets, 0, resized, (int) (origin - newOrigin), buckets.length);
+        buckets = resized;
+        origin = newOrigin;
+        tree = build(resized);
+        return true;
+    }
+
+    /**
+     * Moves a window of {@value #MAX_CAPACITY} minutes forward so that it covers
+     * {@code minute}, which must fall less than that after its end. The minutes left
+     * behind move to the per-day buckets, and the per-day buckets of whole days that
+     * now fall inside the window move into it.
+     */
+    private boolean slide(long minute) {
+        long end = origin + buckets.length;
+        if (minute < end || minute - end >= MAX_CAPACITY) {
+            return false;
+        }
+        long newOrigin = Math.max(origin, minute - MAX_CAPACITY * 3L / 4);
+        long newEnd = newOrigin + MAX_CAPACITY;
+        double[] resized = new double[MAX_CAPACITY];
+        long kept = Math.min(newOrigin, end);
+        for (long evicted = origin; evicted < kept; evicted++) {
+            double amount = buckets[(int) (evicted - origin)];
+            if (amount != 0) {
+                days.merge(Math.floorDiv(evicted, MINUTES_PER_DAY), amount, Double::sum);
+            }
+        }
+        if (kept < end) {
+            System.arraycopy(buckets, (int) (kept - origin), resized, 0, (int) (end - kept));
+        }
+        var entering = days.subMap(Math.floorDiv(Math.max(end, newOrigin), MINUTES_PER_DAY) + 1, true,
+                Math.floorDiv(newEnd, MINUTES_PER_DAY), false);
+        for (var day : entering.entrySet()) {
+            resized[(int) (day.getKey() * MINUTES_PER_DAY - newOrigin)] += day.getValue();
+        }
+        entering.clear();
+        buckets = resized;
+        origin = newOrigin;
+        tree = build(resized);
+        return true;
+    }
+
+    private static double[] build(double[] values) {
+        double[] fenwick = new double[values.length + 1];
+        System.arraycopy(values, 0, fenwick, 1, values.length);
+        for (int i = 1; i < fenwick.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < fenwick.length) {
+                fenwick[parent] += fenwick[i];
+            }
+        }
+        return fenwick;
+    }
+
+    private static long toMinute(LocalDateTime date) {
+        return Math.floorDiv(date.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
@@ -0,0 +1,394 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link ProductService} partitioned by product id into shards that each have a single
+ * writer. Every mutation of a product (adding, updating, reserving or releasing stock
+ * and counting sales) is queued to the thread that owns its shard, so writes to the
+ * same shard never contend on locks or CAS retries and writes to different shards
+ * never touch shared state. Reads go straight to the owning shard from the calling
+ * thread.
+ *
+ * <p>Each shard drains a lock-free multi-producer queue and parks when it is empty.
+ * A multi-product reservation runs as a single command on the owners of its products:
+ * each owner, in shard order, hands its thread to the next one, and the last checks
+ * every quantity before reserving any. A failed reservation is therefore never seen
+ * half applied, and taking the shards in a fixed order keeps two reservations from
+ * waiting on each other.
+ */
+public class ShardedProductService implements ProductService, AutoCloseable {
+    private static final Comparator<Ranked> SALES_ORDER = Comparator.comparingLong(Ranked::sold)
+            .thenComparing(ranked -> ranked.product().getId());
+
+    private final Shard[] shards;
+
+    public ShardedProductService(int shardCount) {
+        this(shardCount, StoreEventSink.NONE);
+    }
+
+    public ShardedProductService(int shardCount, StoreEventSink events) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("El número de particiones debe ser positivo: " + shardCount);
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, new ProductServiceImpl(events));
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the index of the shard that owns {@code productId}.
+     */
+    public int shardOf(String productId) {
+        int hash = productId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    private Shard shardFor(String productId) {
+        return shards[shardOf(productId)];
+    }
+
+    @Override
+    public Product addProduct(Product product) {
+        Product withId = product.getId() == null
+                ? product.toBuilder().id(UUID.randomUUID().toString()).build()
+                : product;
+        return write(withId.getId(), products -> products.addProduct(withId));
+    }
+
+    /**
+     * Splits the batch by shard and sends every shard its part as a single command.
+     */
+    @Override
+    public List<Product> addProducts(Collection<Product> batch) {
+        Map<Shard, List<Product>> byShard = new LinkedHashMap<>();
+        for (Product product : batch) {
+            Product withId = product.getId() == null
+                    ? product.toBuilder().id(UUID.randomUUID().toString()).build()
+                    : product;
+            byShard.computeIfAbsent(shardFor(withId.getId()), shard -> new ArrayList<>()).add(withId);
+        }
+        List<Product> added = new ArrayList<>(batch.size());
+        byShard.forEach((shard, products) -> added.addAll(shard.execute(() -> shard.products.addProducts(products))));
+        return added;
+    }
+
+    @Override
+    public Optional<Product> updateProduct(Product product) {
+        return write(product.getId(), products -> products.updateProduct(product));
+    }
+
+    @Override
+    public Optional<Product> updateProduct(Product product, long expectedVersion) {
+        return write(product.getId(), products -> products.updateProduct(product, expectedVersion));
+    }
+
+    @Override
+    public boolean reserveStock(String productId, int quantity) {
+        return write(productId, products -> products.reserveStock(productId, quantity));
+    }
+
+    @Override
+    public void releaseStock(String productId, int quantity) {
+        write(productId, products -> {
+            products.releaseStock(productId, quantity);
+            return null;
+        });
+    }
+
+    @Override
+    public void incrementProductSales(String productId, long quantity) {
+        write(productId, products -> {
+            products.incrementProductSales(productId, quantity);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<String> reserveAll(Map<String, Integer> quantities) {
+        Map<Shard, Map<String, Integer>> parts = byOwner(quantities);
+        return heldBy(new ArrayList<>(parts.keySet()), 0, () -> {
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                Optional<Product> product = findById(entry.getKey());
+                if (product.isEmpty() || product.get().getStock() < entry.getValue()) {
+                    return Optional.of(entry.getKey());
+                }
+            }
+            parts.forEach((shard, part) -> shard.products.reserveAll(part));
+            return Optional.empty();
+        });
+    }
+
+    @Override
+    public void releaseAll(Map<String, Integer> quantities) {
+        Map<Shard, Map<String, Integer>> parts = byOwner(quantities);
+        heldBy(new ArrayList<>(parts.keySet()), 0, () -> {
+            parts.forEach((shard, part) -> shard.products.releaseAll(part));
+            return null;
+        });
+    }
+
+    /**
+     * Splits {@code quantities} by the shard owning each product, in shard order.
+     */
+    private Map<Shard, Map<String, Integer>> byOwner(Map<String, Integer> quantities) {
+        Map<Shard, Map<String, Integer>> parts = new TreeMap<>(Comparator.comparingInt(Shard::index));
+        quantities.forEach((productId, quantity) -> {
+            if (quantity < 0) {
+                throw new IllegalArgumentException("La cantidad no puede ser negativa: " + quantity);
+            }
+            parts.computeIfAbsent(shardFor(productId), shard -> new HashMap<>()).put(productId, quantity);
+        });
+        return parts;
+    }
+
+    /**
+     * Runs {@code command} while the threads of {@code owners}, from {@code from} on, are
+     * busy with it, so no other write reaches their products until it returns.
+     */
+    private static <T> T heldBy(List<Shard> owners, int from, Supplier<T> command) {
+        if (from == owners.size()) {
+            return command.get();
+        }
+        return owners.get(from).execute(() -> heldBy(owners, from + 1, command));
+    }
+
+    private <T> T write(String productId, Function<ProductServiceImpl, T> command) {
+        Shard shard = shardFor(productId);
+        return shard.execute(() -> command.apply(shard.products));
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        return shardFor(id).products.findById(id);
+    }
+
+    @Override
+    public long getSoldQuantity(String productId) {
+        return shardFor(productId).products.getSoldQuantity(productId);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return gather(ProductService::findAll);
+    }
+
+    /**
+     * Merges the page of every shard. Shards page by id too, so the first {@code limit}
+     * ids of the merge are exactly the next page of the whole catalog.
+     */
+    @Override
+    public Page<Product> findAll(String cursor, int limit) {
+        List<Product> candidates = gather(products -> products.findAll(cursor, limit).items());
+        candidates.sort(Comparator.comparing(Product::getId));
+        return Page.of(candidates.iterator(), limit, Product::getId);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return Stream.of(shards).flatMap(shard -> shard.products.streamAll());
+    }
+
+    @Override
+    public List<Product> findByPredicate(Predicate<Product> predicate) {
+        return gather(products -> products.findByPredicate(predicate));
+    }
+
+    @Override
+    public List<Product> findOutOfStock() {
+        return gather(ProductService::findOutOfStock);
+    }
+
+    @Override
+    public List<Product> findLowStock(int threshold) {
+        return gather(products -> products.findLowStock(threshold));
+    }
+
+    @Override
+    public List<Product> findByPriceRange(double min, double max) {
+        return gather(products -> products.findByPriceRange(min, max));
+    }
+
+    @Override
+    public List<Product> findByNamePrefix(String prefix) {
+        return gather(products -> products.findByNamePrefix(prefix));
+    }
+
+    @Override
+    public Optional<Product> getMostSoldProduct() {
+        return topN(1).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Product> getLeastSoldProduct() {
+        return bottomN(1).stream().findFirst();
+    }
+
+    /**
+     * Merges the {@code n} best sellers of every shard, ordered like
+     * {@link SalesRanking}: by units sold and then by id.
+     */
+    @Override
+    public List<Product> topN(int n) {
+        return ranked(products -> products.topN(n), n, SALES_ORDER.reversed());
+    }
+
+    @Override
+    public List<Product> bottomN(int n) {
+        return ranked(products -> products.bottomN(n), n, SALES_ORDER);
+    }
+
+    /**
+     * Merges the candidates of every shard. Their sold quantities keep changing while
+     * the list is sorted, so each one is read once and the sort sees a fixed order.
+     */
+    private List<Product> ranked(Function<ProductService, List<Product>> query, int n, Comparator<Ranked> order) {
+        List<Ranked> candidates = new ArrayList<>();
+        for (Product product : gather(query)) {
+            candidates.add(new Ranked(product, getSoldQuantity(product.getId())));
+        }
+        candidates.sort(order);
+        List<Product> result = new ArrayList<>(Math.min(n, candidates.size()));
+        for (int i = 0; i < candidates.size() && i < n; i++) {
+            result.add(candidates.get(i).product());
+        }
+        return result;
+    }
+
+    private record Ranked(Product product, long sold) {
+    }
+
+    private List<Product> gather(Function<ProductService, List<Product>> query) {
+        List<Product> result = new ArrayList<>();
+        for (Shard shard : shards) {
+            result.addAll(query.apply(shard.products));
+        }
+        return result;
+    }
+
+    /**
+     * Stops the shard threads after they drain the commands already queued. Writes
+     * issued while the service is closing either run or fail with
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class Shard implements Runnable {
+        private final int index;
+        private final ProductServiceImpl products;
+        private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean waiting;
+
+        Shard(int index, ProductServiceImpl products) {
+            this.index = index;
+            this.products = products;
+            this.thread = new Thread(this, "store-shard-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int index() {
+            return index;
+        }
+
+        <T> T execute(Supplier<T> command) {
+            if (Thread.currentThread() == thread) {
+                return command.get();
+            }
+            if (!running) {
+                throw closed();
+            }
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable queued = () -> {
+                try {
+                    result.complete(command.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            };
+            commands.offer(queued);
+            // The shard may have stopped and drained its queue in the meantime; the
+            // command runs only if the shard thread took it before it could be removed
+            if (!running && commands.remove(queued)) {
+                throw closed();
+            }
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        private IllegalStateException closed() {
+            return new IllegalStateException("La partición " + thread.getName() + " está cerrada");
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable command = commands.poll();
+                if (command != null) {
+                    command.run();
+                } else if (!running) {
+                    return;
+                } else {
+                    waiting = true;
+                    if (commands.isEmpty() && running) {
+                        LockSupport.park(this);
+                    }
+                    waiting = false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package co.edu.uniremington.service.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by keys with the same hash. Several keys are always locked
+ * in ascending stripe order, so two threads locking overlapping sets of keys cannot
+ * deadlock.
+ */
+final class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * Creates at least {@code stripes} locks, rounded up to a power of two.
+     */
+    StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    ReentrantLock lock(String key) {
+        ReentrantLock lock = locks[stripe(key)];
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Locks the stripes of every key in {@code keys}.
+     *
+     * @return the stripes locked, to be passed to {@link #unlockAll(int[])}
+     */
+    int[] lockAll(Collection<String> keys) {
+        int[] stripes = new int[keys.size()];
+        int count = 0;
+        for (String key : keys) {
+            // Insertion sort without duplicates: sales rarely hold more than a few products
+            int stripe = stripe(key);
+            int position = count;
+            while (position > 0 && stripes[position - 1] > stripe) {
+                position--;
+            }
+            if (position > 0 && stripes[position - 1] == stripe) {
+                continue;
+            }
+            System.arraycopy(stripes, position, stripes, position + 1, count - position);
+            stripes[position] = stripe;
+            count++;
+        }
+        if (count < stripes.length) {
+            stripes = Arrays.copyOf(stripes, count);
+        }
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        return stripes;
+    }
+
+    void unlockAll(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    private int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
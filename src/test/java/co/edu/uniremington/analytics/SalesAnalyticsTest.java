@@ -0,0 +1,78 @@
+package co.edu.uniremington.analytics;
+
+import co.edu.uniremington.analytics.SalesAnalytics.ProductPair;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class SalesAnalyticsTest {
+    private final Product bread = Product.builder().id("bread").name("Bread").price(2.0).build();
+    private final Product milk = Product.builder().id("milk").name("Milk").price(1.5).build();
+    private final Product eggs = Product.builder().id("eggs").name("Eggs").price(3.0).build();
+
+    private final LocalDateTime morning = LocalDateTime.of(2024, 5, 10, 9, 15);
+    private final List<Sale> history = List.of(
+            sale(morning, item(bread, 2), item(milk, 1)),
+            sale(morning.plusMinutes(30), item(bread, 1), item(milk, 2), item(eggs, 1)),
+            sale(morning.plusHours(3), item(eggs, 3)),
+            sale(morning.plusDays(1), item(milk, 1), item(bread, 1)));
+
+    @Test
+    void shouldComputeRevenueReports() {
+        var analytics = SalesAnalytics.of(history);
+
+        assertThat(analytics.revenueByProduct()).containsOnly(
+                entry("bread", 8.0), entry("milk", 6.0), entry("eggs", 12.0));
+        assertThat(analytics.revenueByDay()).containsOnly(
+                entry(LocalDate.of(2024, 5, 10), 22.5), entry(LocalDate.of(2024, 5, 11), 3.5));
+        assertThat(analytics.revenueByHour()).containsOnly(
+                entry(LocalDateTime.of(2024, 5, 10, 9, 0), 13.5),
+                entry(LocalDateTime.of(2024, 5, 10, 12, 0), 9.0),
+                entry(LocalDateTime.of(2024, 5, 11, 9, 0), 3.5));
+    }
+
+    @Test
+    void shouldComputeBasketsAndCoOccurrencesOnDedicatedPool() {
+        var pool = new ForkJoinPool(2);
+        try {
+            var analytics = SalesAnalytics.of(history, pool);
+
+            assertThat(analytics.basketSizeDistribution()).containsOnly(
+                    entry(3, 2L), entry(4, 1L), entry(2, 1L));
+            assertThat(analytics.coOccurrences()).containsOnly(
+                    entry(ProductPair.of("bread", "milk"), 3L),
+                    entry(ProductPair.of("eggs", "bread"), 1L),
+                    entry(ProductPair.of("milk", "eggs"), 1L));
+            assertThat(analytics.topCoOccurrences(1))
+                    .containsExactly(Map.entry(new ProductPair("bread", "milk"), 3L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static SaleItem item(Product product, int quantity) {
+        return SaleItem.builder()
+                .product(product)
+                .quantity(quantity)
+                .subtotal(product.getPrice() * quantity)
+                .build();
+    }
+
+    private static Sale sale(LocalDateTime date, SaleItem... items) {
+        return Sale.builder()
+                .date(date)
+                .items(List.of(items))
+                .total(List.of(items).stream().mapToDouble(SaleItem::getSubtotal).sum())
+                .build();
+    }
+}
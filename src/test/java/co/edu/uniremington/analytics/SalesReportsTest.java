@@ -0,0 +1,213 @@
+package co.edu.uniremington.analytics;
+
+import co.edu.uniremington.analytics.SalesReports.Period;
+import co.edu.uniremington.analytics.SalesReports.Seller;
+import co.edu.uniremington.events.StoreEvent;
+import co.edu.uniremington.events.StoreEventBus;
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SalesReportsTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 12, 0);
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void shouldRefreshReportsAsSalesArriveAndExpireOldDays() {
+        var reports = new SalesReports(clock);
+        Store store = new Store(reports);
+
+        store.sell(NOW.minusDays(2), store.tea, 5);
+        store.sell(NOW.minusDays(20), store.cake, 2);
+        store.sell(NOW.minusDays(200), store.tea, 1);
+        store.sell(NOW.minusYears(2), store.cake, 100);
+
+        var week = reports.report(Period.WEEK);
+        assertThat(week.start()).isEqualTo(LocalDate.of(2024, 6, 8));
+        assertThat(week.sales()).isEqualTo(1);
+        assertThat(week.dailyAverage()).isCloseTo(15.0 / 8, within(1e-9));
+        assertThat(week.bestSeller()).contains(new Seller(store.tea.getId(), 5));
+        assertThat(reports.report(Period.MONTH).worstSeller()).contains(new Seller(store.cake.getId(), 2));
+        assertThat(reports.report(Period.YEAR).sales()).isEqualTo(3);
+        assertThat(reports.report(Period.YEAR).bestSeller()).contains(new Seller(store.tea.getId(), 6));
+        assertThat(reports.outOfStockCount()).isEqualTo(2);
+
+        clock.advance(Duration.ofDays(10));
+
+        assertThat(reports.report(Period.WEEK).sales()).isZero();
+        assertThat(reports.report(Period.WEEK).revenue()).isZero();
+        assertThat(reports.report(Period.WEEK).bestSeller()).isEmpty();
+        assertThat(reports.report(Period.MONTH).sales()).isEqualTo(2);
+
+        clock.advance(Duration.ofDays(170));
+        store.sell(LocalDateTime.now(clock), store.tea, 1);
+
+        var year = reports.report(Period.YEAR);
+        assertThat(year.start()).isEqualTo(LocalDate.of(2023, 12, 12));
+        assertThat(year.sales()).isEqualTo(3);
+        assertThat(year.revenue()).isCloseTo(15.0 + 20.0 + 3.0, within(1e-9));
+        assertThat(year.bestSeller()).contains(new Seller(store.tea.getId(), 6));
+        assertThat(year.worstSeller()).contains(new Seller(store.cake.getId(), 2));
+        assertThat(reports.report(Period.WEEK).sales()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRebuildReportsFromTheServices() {
+        Store store = new Store(StoreEventSink.NONE);
+        store.sell(NOW.minusDays(3), store.cake, 4);
+        store.sell(NOW.minusMonths(3), store.tea, 7);
+
+        var reports = new SalesReports(clock);
+        reports.reload(store.products, store.sales);
+
+        assertThat(reports.report(Period.WEEK).bestSeller()).contains(new Seller(store.cake.getId(), 4));
+        assertThat(reports.report(Period.MONTH).sales()).isEqualTo(1);
+        assertThat(reports.report(Period.YEAR).bestSeller()).contains(new Seller(store.tea.getId(), 7));
+        assertThat(reports.report(Period.YEAR).revenue()).isCloseTo(40.0 + 21.0, within(1e-9));
+        assertThat(reports.outOfStockCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountEveryEventWhenTheBusDropsThemForSlowSubscribers() throws InterruptedException {
+        var reports = new SalesReports(clock);
+        try (var executor = Executors.newSingleThreadExecutor(); var bus = new StoreEventBus(executor, 8)) {
+            bus.subscribe(new StalledSubscriber());
+            Store store = new Store(bus);
+            reports.follow(bus, store.products, store.sales);
+            for (int i = 0; i < 900; i++) {
+                store.sell(NOW.minusMinutes(i), store.tea, 1);
+            }
+            store.sell(NOW.minusSeconds(1), store.cake, 102);
+
+            awaitWeeklySales(reports, 901);
+            assertThat(bus.droppedEvents()).isPositive();
+            assertThat(reports.report(Period.WEEK).sales()).isEqualTo(901);
+            assertThat(reports.report(Period.WEEK).bestSeller()).contains(new Seller(store.tea.getId(), 900));
+            assertThat(reports.report(Period.WEEK).worstSeller()).contains(new Seller(store.cake.getId(), 102));
+            assertThat(reports.outOfStockCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldCountSalesRegisteredWhileFollowingTheBusOnce() throws Exception {
+        var reports = new SalesReports(clock);
+        try (var bus = new StoreEventBus()) {
+            Store store = new Store(bus);
+            for (int i = 0; i < 500; i++) {
+                store.sell(NOW.minusDays(1).minusNanos(i), store.tea, 1);
+            }
+            CompletableFuture<Void> selling = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 500; i++) {
+                    store.sell(NOW.minusNanos(i), store.tea, 1);
+                }
+            });
+            reports.follow(bus, store.products, store.sales);
+            selling.join();
+
+            awaitWeeklySales(reports, 1_000);
+            Thread.sleep(50);
+            assertThat(reports.report(Period.WEEK).sales()).isEqualTo(1_000);
+            assertThat(reports.report(Period.WEEK).bestSeller()).contains(new Seller(store.tea.getId(), 1_000));
+        }
+    }
+
+    private static void awaitWeeklySales(SalesReports reports, long sales) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reports.report(Period.WEEK).sales() < sales && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Subscriber that never requests events, so the bus drops everything for it once its
+     * buffer fills.
+     */
+    private static final class StalledSubscriber implements Flow.Subscriber<StoreEvent> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+        }
+
+        @Override
+        public void onNext(StoreEvent item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private final class Store {
+        final ProductService products;
+        final SaleService sales;
+        final Product tea;
+        final Product cake;
+
+        Store(StoreEventSink events) {
+            products = new ProductServiceImpl(events);
+            sales = new SaleServiceImpl(products, events);
+            tea = products.addProduct(Product.builder().name("Tea").price(3.0).stock(1_000).build());
+            cake = products.addProduct(Product.builder().name("Cake").price(10.0).stock(102).build());
+            products.addProduct(Product.builder().name("Mug").price(8.0).stock(0).build());
+        }
+
+        void sell(LocalDateTime date, Product product, int quantity) {
+            double total = product.getPrice() * quantity;
+            sales.registerSale(Sale.builder()
+                    .id(date.toString())
+                    .date(date)
+                    .items(List.of(new SaleItem(product, quantity, total)))
+                    .total(total)
+                    .build());
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = NOW.toInstant(ZoneOffset.UTC);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
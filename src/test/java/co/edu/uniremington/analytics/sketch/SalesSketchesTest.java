@@ -0,0 +1,176 @@
+package co.edu.uniremington.analytics.sketch;
+
+import co.edu.uniremington.events.StoreEventBus;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SalesSketchesTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void shouldEstimateCountsCardinalitiesAndQuantiles() {
+        var counts = new CountMinSketch(4, 1024);
+        var hitters = new SpaceSaving(16);
+        var distinct = new HyperLogLog();
+        var digest = new TDigest();
+        var random = new SplittableRandom(7);
+        long[] exact = new long[10_000];
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // One key in five is "hot", the rest spread over the whole key space
+            int key = i % 5 == 0 ? i % 3 : random.nextInt(exact.length);
+            exact[key]++;
+            counts.add("p" + key, 1);
+            hitters.add("p" + key, 1);
+            distinct.add("p" + key);
+            values[i] = random.nextDouble() * 1000;
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (int key = 0; key < 100; key++) {
+            assertThat(counts.estimate("p" + key)).isBetween(exact[key], exact[key] + 2 * values.length / 1024);
+        }
+        assertThat(hitters.top(3)).extracting(SpaceSaving.HeavyHitter::key)
+                .containsExactlyInAnyOrder("p0", "p1", "p2");
+        long trueDistinct = Arrays.stream(exact).filter(count -> count > 0).count();
+        assertThat((double) distinct.estimate()).isCloseTo(trueDistinct, within(trueDistinct * 0.05));
+        for (double q : new double[]{0.01, 0.5, 0.99}) {
+            assertThat(digest.quantile(q)).isCloseTo(values[(int) (q * values.length)], within(10.0));
+        }
+        assertThat(digest.count()).isEqualTo(values.length);
+    }
+
+    @Test
+    void shouldMergeSketchesBuiltSeparately() {
+        var left = new TDigest();
+        var right = new TDigest();
+        var leftDistinct = new HyperLogLog();
+        var rightDistinct = new HyperLogLog();
+        for (int i = 0; i < 10_000; i++) {
+            (i % 2 == 0 ? left : right).add(i);
+            (i < 6_000 ? leftDistinct : rightDistinct).add("p" + (i % 8_000));
+        }
+
+        left.merge(right);
+        leftDistinct.merge(rightDistinct);
+
+        assertThat(left.count()).isEqualTo(10_000);
+        assertThat(left.quantile(0.5)).isCloseTo(5_000, within(100.0));
+        assertThat((double) leftDistinct.estimate()).isCloseTo(8_000, within(400.0));
+        assertThatThrownBy(() -> left.merge(new TDigest(50)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldFollowSalesRegisteredInsideTheWindow() {
+        var clock = new MutableClock();
+        var sketches = new SalesSketches(Duration.ofHours(1), 12, clock);
+        ProductService productService = new ProductServiceImpl();
+        SaleService saleService = new SaleServiceImpl(productService, sketches);
+        Product tea = productService.addProduct(Product.builder().name("Tea").price(3.0).stock(1_000).build());
+        Product cake = productService.addProduct(Product.builder().name("Cake").price(10.0).stock(1_000).build());
+
+        registerSale(saleService, NOW.minusMinutes(50), tea, 5);
+        registerSale(saleService, NOW.minusMinutes(10), cake, 2);
+        registerSale(saleService, NOW.minusMinutes(5), tea, 1);
+        registerSale(saleService, NOW.minusHours(3), cake, 100);
+
+        assertThat(sketches.salesCount()).isEqualTo(3);
+        assertThat(sketches.estimatedQuantity(tea.getId())).isEqualTo(6);
+        assertThat(sketches.mostSoldProductId()).contains(tea.getId());
+        assertThat(sketches.distinctProducts()).isEqualTo(2);
+        assertThat(sketches.totalQuantile(1.0)).isEqualTo(20.0);
+
+        clock.advance(Duration.ofMinutes(20));
+
+        assertThat(sketches.salesCount()).isEqualTo(2);
+        assertThat(sketches.estimatedQuantity(tea.getId())).isEqualTo(1);
+        assertThat(sketches.mostSoldProductId()).contains(cake.getId());
+
+        var otherNode = new SalesSketches(Duration.ofHours(1), 12, clock);
+        otherNode.record(new Sale("remote", null, NOW.plusMinutes(15), List.of(new SaleItem(tea, 4, 12.0)), 12.0));
+        sketches.merge(otherNode);
+
+        assertThat(sketches.salesCount()).isEqualTo(3);
+        assertThat(sketches.estimatedQuantity(tea.getId())).isEqualTo(5);
+        assertThat(sketches.topProducts(2)).extracting(SpaceSaving.HeavyHitter::key)
+                .containsExactly(tea.getId(), cake.getId());
+    }
+
+    @Test
+    void shouldRecordBatchesDeliveredByTheEventBus() throws InterruptedException {
+        var sketches = new SalesSketches(Duration.ofHours(1), 12, new MutableClock());
+        try (var bus = new StoreEventBus()) {
+            bus.subscribe(16, Duration.ofMillis(10), sketches::publishAll);
+            ProductService productService = new ProductServiceImpl(bus);
+            SaleService saleService = new SaleServiceImpl(productService, bus);
+            Product tea = productService.addProduct(Product.builder().name("Tea").price(3.0).stock(1_000).build());
+
+            for (int i = 0; i < 100; i++) {
+                registerSale(saleService, NOW.minusSeconds(i), tea, 2);
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sketches.salesCount() < 100 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(sketches.salesCount()).isEqualTo(100);
+            assertThat(sketches.estimatedQuantity(tea.getId())).isEqualTo(200);
+        }
+    }
+
+    private static void registerSale(SaleService saleService, LocalDateTime date, Product product, int quantity) {
+        double total = product.getPrice() * quantity;
+        saleService.registerSale(Sale.builder()
+                .id(date.toString())
+                .date(date)
+                .items(List.of(new SaleItem(product, quantity, total)))
+                .total(total)
+                .build());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = NOW.toInstant(ZoneOffset.UTC);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
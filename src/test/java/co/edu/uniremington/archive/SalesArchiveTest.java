@@ -0,0 +1,132 @@
+package co.edu.uniremington.archive;
+
+import co.edu.uniremington.events.StoreEventSink;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.Page;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SalesArchiveTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final int HISTORY = 10_000;
+
+    @TempDir
+    Path directory;
+
+    private ProductService productService;
+    private Product laptop;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductServiceImpl();
+        laptop = productService.addProduct(Product.builder().name("Laptop").price(1200.0).stock(10).build());
+        mouse = productService.addProduct(Product.builder().name("Mouse").price(20.0).stock(10).build());
+    }
+
+    @Test
+    void shouldServeArchivedSalesTransparently() throws IOException {
+        var saleService = new SaleServiceImpl(productService, StoreEventSink.NONE, SalesArchive.open(directory));
+        registerHistory(saleService);
+        double averageBefore = saleService.calculateAverageSalesByPeriod(START, START.plusYears(1));
+
+        int archived = saleService.archiveSalesBefore(START.plusMonths(6));
+
+        assertThat(archived).isGreaterThan(SalesSegment.BLOCK_SIZE);
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .contains("sales-2024-01-0.seg", "sales-2024-02-1.seg", "sales-2024-03-2.seg");
+        }
+        assertThat(saleService.calculateAverageSalesByPeriod(START, START.plusYears(1))).isEqualTo(averageBefore);
+        Sale first = saleService.findById(id(0)).orElseThrow();
+        assertThat(first.getDate()).isEqualTo(START);
+        assertThat(first.getCode()).isEqualTo("SALE-" + id(0));
+        assertThat(first.getItems()).extracting(SaleItem::getProduct).containsExactly(laptop, mouse);
+        assertThat(first.getItems()).extracting(SaleItem::getQuantity).containsExactly(1, 2);
+        assertThat(first.getTotal()).isEqualTo(1240.0);
+        assertThat(saleService.findById(id(HISTORY - 1))).isPresent();
+        assertThat(saleService.findById("missing")).isEmpty();
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Sale> page = saleService.findAll(cursor, 1_000);
+            page.items().forEach(sale -> ids.add(sale.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertThat(ids).hasSize(HISTORY).isSorted().doesNotHaveDuplicates();
+        assertThat(saleService.streamAll().count()).isEqualTo(HISTORY);
+    }
+
+    @Test
+    void shouldRestoreArchivedRevenueWhenReopened() throws IOException {
+        var saleService = new SaleServiceImpl(productService, StoreEventSink.NONE, SalesArchive.open(directory));
+        registerHistory(saleService);
+        saleService.archiveSalesBefore(START.plusYears(2));
+        double average = saleService.calculateAverageSalesByPeriod(START, START.plusYears(1));
+
+        var archive = SalesArchive.open(directory);
+        var reopened = new SaleServiceImpl(productService, StoreEventSink.NONE, archive);
+
+        assertThat(archive.size()).isEqualTo(HISTORY);
+        assertThat(reopened.calculateAverageSalesByPeriod(START, START.plusYears(1))).isCloseTo(average, within(1e-6));
+        assertThat(reopened.findById(id(1234))).get().extracting(Sale::getDate)
+                .isEqualTo(START.plusHours(1234));
+    }
+
+    @Test
+    void shouldRejectTruncatedBlocks() throws IOException {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            var items = List.of(new SaleItem(laptop, 1, 1200.0));
+            sales.add(new Sale(id(i), "SALE-" + id(i), START.plusHours(i), items, 1200.0));
+        }
+        Path file = directory.resolve("truncated.seg");
+        SalesSegment.write(file, sales);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // Cut the first block, whose compressed length follows its raw length, to 8 bytes
+            channel.write(ByteBuffer.allocate(4).putInt(0, 8), 12);
+        }
+
+        var segment = SalesSegment.open(file);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThatThrownBy(() -> segment.block(0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("truncado"));
+    }
+
+    private void registerHistory(SaleServiceImpl saleService) {
+        for (int i = 0; i < HISTORY; i++) {
+            var items = List.of(
+                    new SaleItem(laptop, 1, 1200.0),
+                    new SaleItem(mouse, 2, 40.0));
+            saleService.restoreSale(new Sale(id(i), "SALE-" + id(i), START.plusHours(i), items, 1240.0));
+        }
+    }
+
+    private static String id(int i) {
+        return String.format("%016x", i);
+    }
+}
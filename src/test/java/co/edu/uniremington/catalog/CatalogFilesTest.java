@@ -0,0 +1,121 @@
+package co.edu.uniremington.catalog;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.impl.ColumnarProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogFilesTest {
+    @TempDir
+    Path directory;
+
+    private ProductService catalog(int size) {
+        ProductService productService = new ProductServiceImpl();
+        productService.addProducts(IntStream.range(0, size)
+                .mapToObj(i -> Product.builder()
+                        .name(i % 7 == 0 ? "Café, \"molido\" " + i : "Producto " + i)
+                        .description(i % 5 == 0 ? null : i % 11 == 0 ? "" : "Descripción " + i)
+                        .price(i * 1.25)
+                        .stock(i % 13)
+                        .build())
+                .toList());
+        return productService;
+    }
+
+    @Test
+    void shouldRoundTripCatalogThroughCsvInParallelChunks() throws IOException {
+        ProductService source = catalog(5_000);
+        Path file = directory.resolve("catalog.csv");
+
+        assertThat(CatalogCsv.exportFrom(source, file)).isEqualTo(5_000);
+        ProductService target = new ColumnarProductService();
+        assertThat(CatalogCsv.importInto(target, file, 4_096)).isEqualTo(5_000);
+
+        assertSameCatalog(source, target);
+        assertThat(target.findOutOfStock()).hasSameSizeAs(source.findOutOfStock());
+    }
+
+    @Test
+    void shouldRoundTripCatalogThroughBinaryBlocks() throws IOException {
+        ProductService source = catalog(5_000);
+        Path file = directory.resolve("catalog.bin");
+
+        CatalogBinary.exportFrom(source, file, 2_048);
+        ProductService target = new ProductServiceImpl();
+        CatalogBinary.importInto(target, file);
+
+        assertSameCatalog(source, target);
+        assertThat(target.findByNamePrefix("café")).hasSameSizeAs(source.findByNamePrefix("café"));
+        assertThat(target.findByPriceRange(100.0, 200.0)).hasSize(81);
+        assertThat(target.findAll(null, 10).items()).hasSize(10);
+
+        Path empty = directory.resolve("empty.bin");
+        CatalogBinary.exportFrom(new ProductServiceImpl(), empty);
+        assertThat(CatalogBinary.importInto(target, empty)).isZero();
+    }
+
+    @Test
+    void shouldImportHandWrittenCsvAndRejectMalformedLines() throws IOException {
+        Path file = directory.resolve("manual.csv");
+        Files.writeString(file, CatalogCsv.HEADER + "\r\n"
+                + "a1,Té verde,\"Hojas, sueltas\",4.5,10\r\n"
+                + "\r\n"
+                + ",Sin id,,1,0\n", StandardCharsets.UTF_8);
+        ProductService productService = new ProductServiceImpl();
+
+        assertThat(CatalogCsv.importInto(productService, file)).isEqualTo(2);
+        assertThat(productService.findById("a1")).get()
+                .extracting(Product::getName, Product::getDescription, Product::getPrice)
+                .containsExactly("Té verde", "Hojas, sueltas", 4.5);
+        assertThat(productService.findOutOfStock()).singleElement()
+                .satisfies(product -> assertThat(product.getId()).isNotNull());
+
+        Files.writeString(file, CatalogCsv.HEADER + "\nb1,Pan,,barato,1\n");
+        assertThatThrownBy(() -> CatalogCsv.importInto(productService, file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("precio o stock");
+        assertThatThrownBy(() -> CatalogBinary.importInto(productService, file))
+                .isInstanceOf(IllegalArgumentException.class);
+        var multiline = new ProductServiceImpl();
+        multiline.addProduct(Product.builder().name("Dos\nlíneas").build());
+        assertThatThrownBy(() -> CatalogCsv.exportFrom(multiline, directory.resolve("bad.csv")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldAddNothingWhenAnyChunkIsMalformed() throws IOException {
+        Path file = directory.resolve("broken.csv");
+        StringBuilder csv = new StringBuilder(CatalogCsv.HEADER).append('\n');
+        for (int i = 0; i < 2_000; i++) {
+            csv.append("p").append(i).append(",Producto ").append(i).append(",,1.5,3\n");
+        }
+        csv.append("roto,Roto,,gratis,1\n");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+        ProductService productService = new ProductServiceImpl();
+
+        assertThatThrownBy(() -> CatalogCsv.importInto(productService, file, 4_096))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(productService.findAll()).isEmpty();
+    }
+
+    private static void assertSameCatalog(ProductService expected, ProductService actual) {
+        assertThat(byId(actual)).isEqualTo(byId(expected));
+    }
+
+    private static Map<String, Product> byId(ProductService productService) {
+        return productService.streamAll().collect(Collectors.toMap(Product::getId, product -> product));
+    }
+}
@@ -0,0 +1,132 @@
+package co.edu.uniremington.codec;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SaleCodecTest {
+    private ProductService productService;
+    private SaleService saleService;
+    private SaleCodec codec;
+    private Product laptop;
+    private Product phone;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductServiceImpl();
+        saleService = new SaleServiceImpl(productService);
+        codec = new SaleCodec(new ProductDictionary());
+        laptop = productService.addProduct(Product.builder().name("Laptop").price(1200.0).stock(10).build());
+        phone = productService.addProduct(Product.builder().name("Phone").price(800.0).stock(10).build());
+    }
+
+    @Test
+    void shouldRoundTripRegisteredSales() {
+        Sale sale = saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(laptop).quantity(1).build(),
+                SaleItem.builder().product(phone).quantity(3).build())).build());
+
+        byte[] encoded = codec.encode(sale);
+        Sale decoded = decode(encoded);
+
+        assertThat(decoded.getId()).isEqualTo(sale.getId());
+        assertThat(decoded.getCode()).isEqualTo(sale.getCode());
+        assertThat(decoded.getDate()).isEqualTo(sale.getDate().withNano(sale.getDate().getNano() / 1_000_000 * 1_000_000));
+        assertThat(decoded.getTotal()).isEqualTo(3600.0);
+        assertThat(decoded.getItems()).extracting(item -> item.getProduct().getId()).containsExactly(laptop.getId(), phone.getId());
+        assertThat(decoded.getItems()).extracting(SaleItem::getQuantity).containsExactly(1, 3);
+        assertThat(decoded.getItems()).extracting(SaleItem::getSubtotal).containsExactly(1200.0, 2400.0);
+        assertThat(encoded.length).isEqualTo(1 + 8 + 8 + 8 + 1 + 2 * (1 + 1 + 8));
+    }
+
+    @Test
+    void shouldRoundTripArbitraryIdsCodesAndSubtotals() {
+        String uuid = UUID.randomUUID().toString();
+        Sale withUuid = new Sale(uuid, "SALE-1", LocalDateTime.of(2024, 3, 1, 10, 30), List.of(
+                new SaleItem(phone, -2, -1500.0)), -1500.0);
+        Sale withText = new Sale("Ñandú-7", null, null, List.of(), 0.0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.encode(withUuid, buffer);
+        codec.encode(withText, buffer);
+        buffer.flip();
+
+        assertThat(codec.decode(buffer, id -> productService.findById(id).orElse(null))).isEqualTo(withUuid);
+        assertThat(codec.decode(buffer, id -> null)).isEqualTo(withText);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void shouldKeepPriceOfTheMomentOfTheSale() {
+        Sale sale = saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(laptop).quantity(2).build())).build());
+        byte[] encoded = codec.encode(sale);
+        productService.updateProduct(laptop.toBuilder().price(999.0).build());
+
+        SaleItem item = decode(encoded).getItems().get(0);
+        SaleItem orphan = codec.decode(ByteBuffer.wrap(encoded), id -> null).getItems().get(0);
+
+        assertThat(item.getProduct().getPrice()).isEqualTo(1200.0);
+        assertThat(item.getProduct().getName()).isEqualTo("Laptop");
+        assertThat(item.getSubtotal()).isEqualTo(2400.0);
+        assertThat(orphan.getProduct().getId()).isEqualTo(laptop.getId());
+        assertThat(orphan.getProduct().getPrice()).isEqualTo(1200.0);
+    }
+
+    @Test
+    void shouldReadFieldsThroughViewWithoutDecoding() {
+        Sale first = saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(phone).quantity(2).build())).build());
+        Sale second = new Sale("custom", "CUSTOM", LocalDateTime.of(2024, 1, 1, 0, 0), List.of(
+                new SaleItem(laptop, 1, 1000.0),
+                new SaleItem(phone, 300, 240_000.0)), 241_000.0);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.encode(first, buffer);
+        int offset = buffer.position();
+        codec.encode(second, buffer);
+
+        SaleView view = codec.view(buffer, offset);
+
+        assertThat(codec.view(buffer, 0).length()).isEqualTo(offset);
+        assertThat(view.length()).isEqualTo(buffer.position() - offset);
+        assertThat(view.id()).isEqualTo("custom");
+        assertThat(view.code()).isEqualTo("CUSTOM");
+        assertThat(view.date()).isEqualTo(second.getDate());
+        assertThat(view.total()).isEqualTo(241_000.0);
+        assertThat(view.itemCount()).isEqualTo(2);
+        assertThat(view.productId(1)).isEqualTo(phone.getId());
+        assertThat(view.quantity(1)).isEqualTo(300);
+        assertThat(view.unitPrice(0)).isEqualTo(1200.0);
+        assertThat(view.subtotal(0)).isEqualTo(1000.0);
+        assertThat(view.subtotal(1)).isEqualTo(240_000.0);
+        assertThat(buffer.position()).isEqualTo(offset + view.length());
+    }
+
+    @Test
+    void shouldRebuildDictionaryFromSavedIds() {
+        Sale sale = saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(phone).quantity(1).build())).build());
+        byte[] encoded = codec.encode(sale);
+
+        SaleCodec restored = new SaleCodec(ProductDictionary.of(codec.products().productIds()));
+
+        assertThat(restored.view(ByteBuffer.wrap(encoded), 0).productId(0)).isEqualTo(phone.getId());
+    }
+
+    private Sale decode(byte[] encoded) {
+        return codec.decode(ByteBuffer.wrap(encoded), id -> productService.findById(id).orElse(null));
+    }
+}
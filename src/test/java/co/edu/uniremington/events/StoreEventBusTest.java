@@ -0,0 +1,109 @@
+package co.edu.uniremington.events;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoreEventBusTest {
+
+    @Test
+    void shouldDeliverSaleAndStockEventsInBatches() throws InterruptedException {
+        List<List<StoreEvent>> batches = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch received = new CountDownLatch(7);
+        try (var bus = new StoreEventBus()) {
+            bus.subscribe(4, Duration.ofMillis(20), batch -> {
+                batches.add(batch);
+                batch.forEach(event -> received.countDown());
+            });
+            var productService = new ProductServiceImpl(bus);
+            var saleService = new SaleServiceImpl(productService, bus);
+            var laptop = productService.addProduct(Product.builder().name("Laptop").price(1200.0).stock(10).build());
+
+            for (int quantity = 1; quantity <= 3; quantity++) {
+                saleService.registerSale(Sale.builder()
+                        .items(List.of(SaleItem.builder().product(laptop).quantity(quantity).build()))
+                        .build());
+            }
+
+            assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+            List<StoreEvent> events = batches.stream().flatMap(List::stream).toList();
+            assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(4));
+            assertThat(events).filteredOn(StoreEvent.StockChanged.class::isInstance).containsExactly(
+                    new StoreEvent.StockChanged(laptop.getId(), 0, 10),
+                    new StoreEvent.StockChanged(laptop.getId(), 10, 9),
+                    new StoreEvent.StockChanged(laptop.getId(), 9, 7),
+                    new StoreEvent.StockChanged(laptop.getId(), 7, 4));
+            assertThat(events).filteredOn(StoreEvent.SaleRegistered.class::isInstance)
+                    .extracting(event -> ((StoreEvent.SaleRegistered) event).sale().getTotal())
+                    .containsExactly(1200.0, 2400.0, 3600.0);
+        }
+    }
+
+    @Test
+    void shouldDropEventsForSubscriberThatFallsBehind() throws InterruptedException {
+        CountDownLatch subscribed = new CountDownLatch(1);
+        try (var executor = Executors.newSingleThreadExecutor(); var bus = new StoreEventBus(executor, 8)) {
+            bus.subscribe(new Flow.Subscriber<StoreEvent>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscribed.countDown();
+                }
+
+                @Override
+                public void onNext(StoreEvent item) {
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            assertThat(subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+
+            for (int i = 0; i < 100; i++) {
+                bus.publish(new StoreEvent.StockChanged("P" + i, 1, 0));
+            }
+
+            assertThat(bus.droppedEvents()).isGreaterThanOrEqualTo(100 - 8);
+        }
+    }
+
+    @Test
+    void shouldDeliverEveryEventInOrderToLosslessSubscribers() throws InterruptedException {
+        List<StoreEvent> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch delivered = new CountDownLatch(1_000);
+        try (var executor = Executors.newSingleThreadExecutor(); var bus = new StoreEventBus(executor, 8)) {
+            bus.subscribeLossless(16, batch -> {
+                assertThat(batch).hasSizeLessThanOrEqualTo(16);
+                received.addAll(batch);
+                batch.forEach(event -> delivered.countDown());
+            });
+            List<StoreEvent> published = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                StoreEvent event = new StoreEvent.StockChanged("P" + i, i, i + 1);
+                published.add(event);
+                bus.publish(event);
+            }
+
+            assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(received).containsExactlyElementsOf(published);
+        }
+    }
+}
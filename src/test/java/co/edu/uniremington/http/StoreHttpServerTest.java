@@ -0,0 +1,168 @@
+package co.edu.uniremington.http;
+
+import co.edu.uniremington.analytics.SalesReports;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StoreHttpServerTest {
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private ProductService productService;
+    private StoreHttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        productService = new ProductServiceImpl();
+        SaleService saleService = new SaleServiceImpl(productService);
+        server = StoreHttpServer.start(new InetSocketAddress("localhost", 0), productService, saleService, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void shouldRegisterSaleThroughJsonEndpoints() throws Exception {
+        var created = send("POST", "/products",
+                "{\"name\":\"Laptop\",\"description\":\"Gaming \\\"pro\\\"\",\"price\":1200,\"stock\":10}");
+        assertThat(created.statusCode()).isEqualTo(201);
+        String laptopId = (String) json(created).get("id");
+
+        var sale = send("POST", "/sales",
+                "{\"items\":[{\"productId\":\"" + laptopId + "\",\"quantity\":3}]}");
+        assertThat(sale.statusCode()).isEqualTo(201);
+        assertThat(json(sale)).containsEntry("total", 3600.0);
+
+        var laptop = json(send("GET", "/products/" + laptopId, null));
+        assertThat(laptop).containsEntry("stock", 7L).containsEntry("description", "Gaming \"pro\"");
+        assertThat(json(send("GET", "/products/most-sold", null))).containsEntry("id", laptopId);
+        assertThat(json(send("GET", "/sales", null))).extractingByKey("items").asList().hasSize(1);
+        assertThat(json(send("GET", "/sales?limit=1", null)))
+                .containsEntry("nextCursor", null)
+                .extractingByKey("items").asList().hasSize(1);
+        assertThat(json(send("GET", "/sales/" + json(sale).get("id"), null))).containsEntry("code", json(sale).get("code"));
+    }
+
+    @Test
+    void shouldMapFailuresToStatusCodes() throws Exception {
+        String mouseId = (String) json(send("POST", "/products",
+                "{\"name\":\"Mouse\",\"description\":\"Wireless\",\"price\":20.5,\"stock\":1}")).get("id");
+
+        assertThat(send("GET", "/products/missing", null).statusCode()).isEqualTo(404);
+        assertThat(send("POST", "/products", "{\"name\":").statusCode()).isEqualTo(400);
+        assertThat(send("DELETE", "/sales", null).statusCode()).isEqualTo(405);
+        assertThat(send("POST", "/sales",
+                "{\"items\":[{\"productId\":\"" + mouseId + "\",\"quantity\":2}]}").statusCode()).isEqualTo(409);
+        assertThat(productService.findById(mouseId).get().getStock()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectMalformedAndOversizedRequests() throws Exception {
+        assertThat(send("POST", "/products",
+                "{\"name\":\"Mouse\",\"price\":20,\"stock\":10000000000}").statusCode()).isEqualTo(400);
+        assertThat(send("POST", "/products", "{\"name\":\"Mouse\\").statusCode()).isEqualTo(400);
+        assertThat(send("POST", "/products", "{\"name\":\"\\u00").statusCode()).isEqualTo(400);
+        assertThat(send("GET", "/products?limit=1000000", null).statusCode()).isEqualTo(400);
+
+        var tooLarge = send("POST", "/products", "{\"name\":\"" + "x".repeat(2 << 20) + "\"}");
+
+        assertThat(tooLarge.statusCode()).isEqualTo(413);
+        assertThat(productService.findAll(null, 10).items()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedJsonAndUnboundedRankings() throws Exception {
+        String deep = "[".repeat(100_000) + "]".repeat(100_000);
+
+        assertThatThrownBy(() -> Json.parse(deep)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(Json.parse("[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH))).isInstanceOf(List.class);
+        assertThat(send("POST", "/sales", deep).statusCode()).isEqualTo(400);
+        assertThat(send("GET", "/products/top?n=100000", null).statusCode()).isEqualTo(400);
+        assertThat(send("GET", "/products/bottom?n=-1", null).statusCode()).isEqualTo(400);
+        assertThat(send("GET", "/products/top?n=0", null).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldPageOutOfStockProducts() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send("POST", "/products", "{\"name\":\"Agotado " + i + "\",\"price\":1,\"stock\":0}");
+        }
+        send("POST", "/products", "{\"name\":\"Disponible\",\"price\":1,\"stock\":5}");
+
+        var first = json(send("GET", "/products/out-of-stock?limit=2", null));
+        assertThat(first).extractingByKey("items").asList().hasSize(2);
+        var second = json(send("GET", "/products/out-of-stock?limit=2&cursor=" + first.get("nextCursor"), null));
+
+        assertThat(second).containsEntry("nextCursor", null).extractingByKey("items").asList().hasSize(1);
+        assertThat(send("GET", "/products/out-of-stock?limit=1000000", null).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldWriteNonFiniteNumbersAsNull() {
+        assertThat(Json.write(Map.of("average", Double.NaN))).isEqualTo("{\"average\":null}");
+        assertThat(Json.parse(Json.write(List.of(Double.POSITIVE_INFINITY, 1.5)))).isEqualTo(Arrays.asList(null, 1.5));
+    }
+
+    @Test
+    void shouldServeMaterializedReports() throws Exception {
+        server.close();
+        SalesReports reports = new SalesReports();
+        productService = new ProductServiceImpl(reports);
+        server = StoreHttpServer.start(new InetSocketAddress("localhost", 0),
+                productService, new SaleServiceImpl(productService, reports), reports, 64);
+        String teaId = (String) json(send("POST", "/products",
+                "{\"name\":\"Tea\",\"description\":\"Green\",\"price\":4,\"stock\":3}")).get("id");
+        send("POST", "/sales", "{\"items\":[{\"productId\":\"" + teaId + "\",\"quantity\":3}]}");
+
+        var week = json(send("GET", "/reports/week", null));
+        assertThat(week).containsEntry("sales", 1L).containsEntry("revenue", 12.0);
+        assertThat(week).extractingByKey("bestSeller").isEqualTo(Map.of("productId", teaId, "units", 3L));
+        assertThat(json(send("GET", "/reports", null))).containsEntry("outOfStock", 1L).containsKeys("month", "year");
+        assertThat(json(send("GET", "/sales/averages", null))).containsEntry("weekly", 12.0 / 8);
+        assertThat(send("GET", "/reports/decade", null).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void shouldRejectRequestsBeyondInFlightLimit() throws Exception {
+        server.close();
+        server = StoreHttpServer.start(new InetSocketAddress("localhost", 0),
+                productService, new SaleServiceImpl(productService), 0);
+
+        var response = send("GET", "/products", null);
+
+        assertThat(response.statusCode()).isEqualTo(503);
+        assertThat(response.headers().firstValue("Retry-After")).hasValue("1");
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> json(HttpResponse<String> response) {
+        return (Map<String, Object>) Json.parse(response.body());
+    }
+}
@@ -0,0 +1,48 @@
+package co.edu.uniremington.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldMapEveryValueIntoBucketThatContainsIt() {
+        long[] values = {0, 1, 63, 64, 65, 127, 128, 1_000, 999_999, 1L << 40, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.highestValueIn(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValueIn(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    void shouldReportPercentilesWithinRelativeError() {
+        var histogram = new LatencyHistogram("test");
+        IntStream.rangeClosed(1, 100_000).forEach(micros -> histogram.record(micros * 1_000L));
+
+        var snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(100_000);
+        assertThat(snapshot.max()).isEqualTo(100_000_000L);
+        assertThat((double) snapshot.percentile(0.50)).isCloseTo(50_000_000, within(50_000_000 / 32.0));
+        assertThat((double) snapshot.percentile(0.99)).isCloseTo(99_000_000, within(99_000_000 / 32.0));
+        assertThat(snapshot.percentile(1.0)).isEqualTo(100_000_000L);
+        assertThat(snapshot.mean()).isCloseTo(50_000_500, within(1.0));
+    }
+
+    @Test
+    void shouldStartEmptyAfterReset() {
+        var histogram = new LatencyHistogram("test");
+        histogram.record(42);
+        histogram.reset();
+
+        assertThat(histogram.snapshot().count()).isZero();
+        assertThat(histogram.snapshot().percentile(0.99)).isZero();
+    }
+}
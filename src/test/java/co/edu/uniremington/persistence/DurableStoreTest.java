@@ -0,0 +1,161 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DurableStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRecoverStateFromJournal() throws IOException {
+        String laptopId;
+        String saleId;
+        try (var store = DurableStore.open(directory)) {
+            var laptop = addLaptop(store);
+            laptopId = laptop.getId();
+            saleId = sell(store, laptop, 3).getId();
+            store.productService().updateProduct(store.productService().findById(laptopId).get()
+                    .toBuilder().price(1100.0).build());
+        }
+
+        try (var store = DurableStore.open(directory)) {
+            var laptop = store.productService().findById(laptopId).orElseThrow();
+            assertThat(laptop.getStock()).isEqualTo(7);
+            assertThat(laptop.getPrice()).isEqualTo(1100.0);
+            assertThat(store.productService().getSoldQuantity(laptopId)).isEqualTo(3);
+            assertThat(store.saleService().findById(saleId)).get()
+                    .extracting(Sale::getTotal).isEqualTo(3600.0);
+            assertThat(store.saleService().calculateWeeklyAverage()).isPositive();
+        }
+    }
+
+    @Test
+    void shouldRecoverFromSnapshotAndJournalTail() throws IOException {
+        String laptopId;
+        try (var store = DurableStore.open(directory)) {
+            var laptop = addLaptop(store);
+            laptopId = laptop.getId();
+            sell(store, laptop, 2);
+            store.checkpoint();
+            sell(store, laptop, 1);
+            store.checkpoint();
+            sell(store, laptop, 4);
+        }
+
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("snapshot-2.bin", "journal-2.log");
+        }
+
+        try (var store = DurableStore.open(directory)) {
+            assertThat(store.productService().findById(laptopId).get().getStock()).isEqualTo(3);
+            assertThat(store.productService().getSoldQuantity(laptopId)).isEqualTo(7);
+            assertThat(store.saleService().findAll()).hasSize(3);
+        }
+    }
+
+    @Test
+    void shouldKeepProductVersionsAcrossRestarts() throws IOException {
+        String laptopId;
+        long version;
+        try (var store = DurableStore.open(directory)) {
+            var laptop = addLaptop(store);
+            laptopId = laptop.getId();
+            sell(store, laptop, 1);
+            store.checkpoint();
+            sell(store, laptop, 1);
+            version = store.productService().findById(laptopId).get().getVersion();
+        }
+        assertThat(version).isEqualTo(2);
+
+        try (var store = DurableStore.open(directory)) {
+            var laptop = store.productService().findById(laptopId).orElseThrow();
+            assertThat(laptop.getVersion()).isEqualTo(version);
+            assertThatThrownBy(() -> store.productService().updateProduct(laptop.toBuilder().price(1.0).build(), 0))
+                    .isInstanceOf(ConcurrentModificationException.class);
+            assertThat(store.productService().updateProduct(laptop.toBuilder().price(1100.0).build(), version))
+                    .get().extracting(Product::getVersion).isEqualTo(version + 1);
+            store.checkpoint();
+        }
+
+        try (var store = DurableStore.open(directory)) {
+            assertThat(store.productService().findById(laptopId)).get()
+                    .extracting(Product::getPrice, Product::getVersion).containsExactly(1100.0, version + 1);
+        }
+    }
+
+    @Test
+    void shouldRejectMutationsOnceTheJournalFailsToWrite() throws IOException {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.exists(full), "requiere /dev/full");
+        Files.createSymbolicLink(Journal.file(directory, 0), full);
+
+        try (var store = DurableStore.open(directory)) {
+            assertThatThrownBy(() -> addLaptop(store)).isInstanceOf(UncheckedIOException.class);
+
+            assertThatThrownBy(() -> addLaptop(store))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining("El journal dejó de aceptar cambios");
+            assertThat(store.productService().findAll()).hasSize(1);
+            assertThatThrownBy(store::checkpoint).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void shouldDiscardTornJournalTail() throws IOException {
+        String laptopId;
+        try (var store = DurableStore.open(directory)) {
+            var laptop = addLaptop(store);
+            laptopId = laptop.getId();
+            sell(store, laptop, 1);
+        }
+        Path journal = Journal.file(directory, 0);
+        long validLength = Files.size(journal);
+        try (var channel = FileChannel.open(journal, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2, 3}));
+        }
+
+        try (var store = DurableStore.open(directory)) {
+            assertThat(store.productService().findById(laptopId).get().getStock()).isEqualTo(9);
+            sell(store, store.productService().findById(laptopId).get(), 1);
+        }
+        assertThat(Files.size(journal)).isGreaterThan(validLength);
+
+        try (var store = DurableStore.open(directory)) {
+            assertThat(store.productService().findById(laptopId).get().getStock()).isEqualTo(8);
+        }
+    }
+
+    private static Product addLaptop(DurableStore store) {
+        return store.productService().addProduct(Product.builder()
+                .name("Laptop")
+                .description("High-end laptop")
+                .price(1200.0)
+                .stock(10)
+                .build());
+    }
+
+    private static Sale sell(DurableStore store, Product product, int quantity) {
+        return store.saleService().registerSale(Sale.builder()
+                .items(List.of(SaleItem.builder().product(product).quantity(quantity).build()))
+                .build());
+    }
+}
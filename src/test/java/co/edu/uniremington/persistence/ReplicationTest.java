@@ -0,0 +1,196 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicationTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path directory;
+
+    private DurableStore primary;
+    private Replicator replicator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primary = DurableStore.open(directory.resolve("primary"));
+        replicator = Replicator.start(primary, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        replicator.close();
+        primary.close();
+    }
+
+    @Test
+    void shouldSyncStateAndThenStreamNewEntries() throws Exception {
+        Product laptop = addProduct("Laptop", 1200.0, 10);
+        Sale before = sell(laptop, 3);
+
+        try (Replica replica = Replica.connect("localhost", replicator.port())) {
+            assertThat(replica.awaitSequence(replicator.sequence(), TIMEOUT)).isTrue();
+            assertThat(replica.catchUpTime()).isPresent();
+
+            Product phone = addProduct("Phone", 800.0, 15);
+            Sale after = sell(phone, 5);
+            primary.productService().updateProduct(phone.getId(), product -> product.toBuilder().price(750.0).build());
+
+            assertThat(replica.awaitSequence(replicator.sequence(), TIMEOUT)).isTrue();
+            assertThat(replica.lagEntries()).isZero();
+            assertThat(replica.productService().findById(laptop.getId())).get()
+                    .isEqualTo(primary.productService().findById(laptop.getId()).get());
+            assertThat(replica.productService().getSoldQuantity(laptop.getId())).isEqualTo(3);
+            Product replicatedPhone = replica.productService().findById(phone.getId()).orElseThrow();
+            assertThat(replicatedPhone.getStock()).isEqualTo(10);
+            assertThat(replicatedPhone.getPrice()).isEqualTo(750.0);
+            assertThat(replica.saleService().findAll()).extracting(Sale::getId)
+                    .containsExactly(before.getId(), after.getId());
+        }
+    }
+
+    @Test
+    void shouldKeepUpWithConcurrentSalesAndPromoteToADurableStore() throws Exception {
+        Product coffee = addProduct("Coffee", 10.0, 1_000);
+
+        try (Replica replica = Replica.connect("localhost", replicator.port())) {
+            IntStream.range(0, 8).parallel().forEach(i -> {
+                for (int j = 0; j < 25; j++) {
+                    sell(coffee, 1);
+                }
+            });
+            assertThat(replica.awaitSequence(replicator.sequence(), TIMEOUT)).isTrue();
+            assertThat(replica.saleService().findAll()).hasSize(200);
+
+            try (DurableStore promoted = replica.promote(directory.resolve("standby"))) {
+                assertThat(replica.isConnected()).isFalse();
+                assertThat(promoted.productService().findById(coffee.getId()).get().getStock()).isEqualTo(800);
+                assertThat(promoted.productService().getSoldQuantity(coffee.getId())).isEqualTo(200);
+                sell(promoted, coffee, 1);
+                assertThat(promoted.saleService().findAll()).hasSize(201);
+            }
+        }
+    }
+
+    @Test
+    void shouldCountSalesRegisteredWhileTheHistoryIsStreamedOnce() throws Exception {
+        Product tea = addProduct("Tea", 2.0, 100_000);
+        for (int i = 0; i < 2_000; i++) {
+            sell(tea, 1);
+        }
+
+        CompletableFuture<Void> selling = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 250; i++) {
+                sell(tea, 1);
+                var items = List.of(SaleItem.builder().product(tea).quantity(1).build());
+                primary.saleService().registerSales(List.of(Sale.builder().items(items).build()));
+            }
+        });
+        try (Replica replica = Replica.connect("localhost", replicator.port())) {
+            selling.join();
+            assertThat(replica.awaitSequence(replicator.sequence(), TIMEOUT)).isTrue();
+
+            LocalDateTime start = LocalDateTime.now().minusDays(1);
+            LocalDateTime end = LocalDateTime.now().plusDays(1);
+            assertThat(replica.saleService().findAll()).hasSize(2_500);
+            assertThat(replica.saleService().calculateAverageSalesByPeriod(start, end))
+                    .isEqualTo(primary.saleService().calculateAverageSalesByPeriod(start, end));
+            assertThat(replica.productService().findById(tea.getId())).get()
+                    .isEqualTo(primary.productService().findById(tea.getId()).get());
+        }
+    }
+
+    @Test
+    void shouldOnlyPromoteAReplicaThatCaughtUpUnlessForced() throws Exception {
+        try (ServerSocketChannel lagging = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0))) {
+            Replica replica = Replica.connect("localhost", ((InetSocketAddress) lagging.getLocalAddress()).getPort());
+            try (SocketChannel primarySide = lagging.accept()) {
+                ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + Replicator.FRAME_HEADER_BYTES)
+                        .putInt(Replicator.FRAME_HEADER_BYTES)
+                        .putLong(1)
+                        .putLong(5)
+                        .putLong(Replicator.nowMicros())
+                        .putInt(0)
+                        .flip();
+                while (frame.hasRemaining()) {
+                    primarySide.write(frame);
+                }
+                assertThat(replica.awaitSequence(1, TIMEOUT)).isTrue();
+            }
+
+            assertThat(replica.isCaughtUp()).isFalse();
+            assertThatThrownBy(() -> replica.promote(directory.resolve("standby")))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("no está al día");
+            try (DurableStore promoted = replica.promote(directory.resolve("standby"), true)) {
+                assertThat(promoted.productService().findAll()).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void shouldReportTheEntryAReplicaFailedToApply() throws Exception {
+        try (ServerSocketChannel broken = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+             Replica replica = Replica.connect("localhost", ((InetSocketAddress) broken.getLocalAddress()).getPort());
+             SocketChannel primarySide = broken.accept()) {
+            int length = Replicator.FRAME_HEADER_BYTES + 1 + Integer.BYTES;
+            ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length)
+                    .putInt(length)
+                    .putLong(7)
+                    .putLong(7)
+                    .putLong(Replicator.nowMicros())
+                    .putInt(1)
+                    .put(JournalEntryType.PRODUCT_ADDED.code())
+                    .putInt(0)
+                    .flip();
+            while (frame.hasRemaining()) {
+                primarySide.write(frame);
+            }
+
+            assertThat(replica.awaitSequence(7, TIMEOUT)).isFalse();
+            assertThat(replica.isConnected()).isFalse();
+            assertThat(replica.failure()).get()
+                    .extracting(Throwable::getMessage).asString()
+                    .contains("PRODUCT_ADDED", "secuencia 7");
+        }
+    }
+
+    private Product addProduct(String name, double price, int stock) {
+        return primary.productService().addProduct(Product.builder()
+                .name(name)
+                .description(name)
+                .price(price)
+                .stock(stock)
+                .build());
+    }
+
+    private Sale sell(Product product, int quantity) {
+        return sell(primary, product, quantity);
+    }
+
+    private static Sale sell(DurableStore store, Product product, int quantity) {
+        var items = List.of(SaleItem.builder().product(product).quantity(quantity).build());
+        return store.saleService().registerSale(Sale.builder().items(items).build());
+    }
+}
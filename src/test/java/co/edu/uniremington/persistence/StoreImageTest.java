@@ -0,0 +1,96 @@
+package co.edu.uniremington.persistence;
+
+import co.edu.uniremington.events.StoreEvent;
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.ProductService;
+import co.edu.uniremington.service.SaleService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoreImageTest {
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private Product laptop;
+    private Product mouse;
+    private Sale laptopSale;
+    private long laptopVersion;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ProductService products = new ProductServiceImpl();
+        SaleService sales = new SaleServiceImpl(products);
+        laptop = products.addProduct(Product.builder().name("Laptop").description("Gaming laptop").price(1200.0).stock(10).build());
+        mouse = products.addProduct(Product.builder().name("Mouse").description("Wireless mouse").price(25.0).stock(0).build());
+        products.addProduct(Product.builder().name("Keyboard").description("Mechanical keyboard").price(80.0).stock(5).build());
+        laptopSale = sell(sales, laptop, 3);
+        laptopVersion = products.findById(laptop.getId()).get().getVersion();
+        file = directory.resolve("store.img");
+        StoreImage.write(file, products, sales);
+    }
+
+    @Test
+    void shouldRestoreCatalogSalesCountsAndHistory() throws IOException {
+        StoreImage image = StoreImage.open(file);
+
+        assertThat(image.productCount()).isEqualTo(3);
+        assertThat(image.productService().findById(laptop.getId())).get()
+                .extracting(Product::getStock, Product::getVersion).containsExactly(7, laptopVersion);
+        assertThat(image.productService().getSoldQuantity(laptop.getId())).isEqualTo(3);
+        assertThat(image.productService().findOutOfStock()).extracting(Product::getId).containsExactly(mouse.getId());
+        assertThat(image.productService().getMostSoldProduct()).get()
+                .extracting(Product::getId).isEqualTo(laptop.getId());
+        assertThat(image.saleService().findById(laptopSale.getId())).get()
+                .extracting(Sale::getTotal).isEqualTo(3600.0);
+        assertThat(image.saleService().calculateWeeklyAverage()).isPositive();
+    }
+
+    @Test
+    void shouldLoadOnlyTheProductsInUseUntilTheWholeCatalogIsNeeded() throws IOException {
+        List<StoreEvent> events = new CopyOnWriteArrayList<>();
+        StoreImage image = StoreImage.open(file, events::add);
+
+        Sale sale = sell(image.saleService(), image.productService().findById(laptop.getId()).orElseThrow(), 2);
+        assertThat(events).filteredOn(StoreEvent.StockChanged.class::isInstance)
+                .extracting(event -> ((StoreEvent.StockChanged) event).productId())
+                .containsOnly(laptop.getId());
+
+        assertThat(image.productService().findAll()).hasSize(3);
+        assertThat(image.productService().findById(laptop.getId()).get().getStock()).isEqualTo(5);
+        assertThat(image.productService().getSoldQuantity(laptop.getId())).isEqualTo(5);
+        assertThat(image.saleService().findAll()).extracting(Sale::getId)
+                .containsExactly(laptopSale.getId(), sale.getId());
+    }
+
+    @Test
+    void shouldWriteAnImageOfAnImage() throws IOException {
+        StoreImage image = StoreImage.open(file);
+        sell(image.saleService(), image.productService().findById(laptop.getId()).orElseThrow(), 1);
+        Path copy = directory.resolve("copy.img");
+
+        StoreImage.write(copy, image.productService(), image.saleService());
+
+        StoreImage reopened = StoreImage.open(copy);
+        assertThat(reopened.productService().findById(laptop.getId()).get().getStock()).isEqualTo(6);
+        assertThat(reopened.productService().findById("missing")).isEmpty();
+        assertThat(reopened.saleService().findAll()).hasSize(2);
+    }
+
+    private static Sale sell(SaleService sales, Product product, int quantity) {
+        var items = List.of(SaleItem.builder().product(product).quantity(quantity).build());
+        return sales.registerSale(Sale.builder().items(items).build());
+    }
+}
@@ -0,0 +1,173 @@
+package co.edu.uniremington.service;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.model.Sale;
+import co.edu.uniremington.model.SaleItem;
+import co.edu.uniremington.service.impl.SaleServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentSaleServiceTest {
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+    private static final int INITIAL_STOCK = 1_000;
+    private static final int SCARCE_STOCK = 600;
+
+    private ProductService productService;
+    private SaleService saleService;
+    private Product apple;
+    private Product pear;
+
+    private void setUp(Supplier<ProductService> implementation) {
+        productService = implementation.get();
+        saleService = new SaleServiceImpl(productService);
+
+        apple = productService.addProduct(Product.builder()
+                .name("Apple")
+                .description("Red apple")
+                .price(1.0)
+                .stock(INITIAL_STOCK)
+                .build());
+
+        pear = productService.addProduct(Product.builder()
+                .name("Pear")
+                .description("Green pear")
+                .price(2.0)
+                .stock(INITIAL_STOCK)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ProductServices.close(productService);
+    }
+
+    @ForEachProductService
+    void shouldNeverOversellUnderConcurrentSales(Supplier<ProductService> implementation) throws Exception {
+        setUp(implementation);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                var items = List.of(SaleItem.builder().product(apple).quantity(1).build());
+                try {
+                    saleService.registerSale(Sale.builder().items(items).build());
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+                assertThat(productService.findById(apple.getId()).get().getStock()).isNotNegative();
+            }
+        });
+
+        assertThat(succeeded.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD - INITIAL_STOCK);
+        assertThat(productService.findById(apple.getId()).get().getStock()).isZero();
+        assertThat(saleService.findAll()).hasSize(INITIAL_STOCK);
+    }
+
+    @ForEachProductService
+    void shouldRollBackPartialReservationsOfMultiItemSales(Supplier<ProductService> implementation) throws Exception {
+        setUp(implementation);
+        productService.updateProduct(pear.toBuilder().stock(SCARCE_STOCK).build());
+
+        runConcurrently(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                var items = List.of(
+                        SaleItem.builder().product(apple).quantity(1).build(),
+                        SaleItem.builder().product(pear).quantity(1).build());
+                try {
+                    saleService.registerSale(Sale.builder().items(items).build());
+                } catch (IllegalStateException ignored) {
+                    // Rejected sales must leave no trace in the inventory
+                }
+            }
+        });
+
+        int salesRegistered = saleService.findAll().size();
+        assertThat(salesRegistered).isEqualTo(SCARCE_STOCK);
+        assertThat(productService.findById(pear.getId()).get().getStock()).isZero();
+        assertThat(productService.findById(apple.getId()).get().getStock())
+                .isEqualTo(INITIAL_STOCK - salesRegistered);
+    }
+
+    @ForEachProductService
+    void shouldKeepConcurrentPriceEditsAndSales(Supplier<ProductService> implementation) throws Exception {
+        setUp(implementation);
+        runConcurrently(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD / 10; i++) {
+                productService.updateProduct(apple.getId(), product -> product.toBuilder().price(product.getPrice() + 1).build());
+                var items = List.of(SaleItem.builder().product(apple).quantity(1).build());
+                saleService.registerSale(Sale.builder().items(items).build());
+            }
+        });
+
+        int edits = THREADS * ATTEMPTS_PER_THREAD / 10;
+        Product stored = productService.findById(apple.getId()).get();
+        assertThat(stored.getPrice()).isEqualTo(1.0 + edits);
+        assertThat(stored.getStock()).isEqualTo(INITIAL_STOCK - edits);
+    }
+
+    @ForEachProductService
+    void shouldNeverExposePartOfAMultiItemReservation(Supplier<ProductService> implementation) throws Exception {
+        setUp(implementation);
+        productService.updateProduct(pear.toBuilder().stock(0).build());
+        AtomicBoolean selling = new AtomicBoolean(true);
+        AtomicInteger partialReads = new AtomicInteger();
+        AtomicInteger threads = new AtomicInteger();
+
+        runConcurrently(() -> {
+            if (threads.getAndIncrement() == 0) {
+                try {
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD * 20; i++) {
+                        assertThat(productService.reserveAll(Map.of(apple.getId(), 1, pear.getId(), 1))).contains(pear.getId());
+                    }
+                } finally {
+                    selling.set(false);
+                }
+            } else {
+                while (selling.get()) {
+                    if (productService.findById(apple.getId()).get().getStock() != INITIAL_STOCK) {
+                        partialReads.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        assertThat(partialReads.get()).isZero();
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
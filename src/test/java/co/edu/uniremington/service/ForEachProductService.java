@@ -0,0 +1,20 @@
+package co.edu.uniremington.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test once for each of {@link ProductServices#implementations()}, passing it
+ * the factory of the service under test.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ParameterizedTest(name = "{0}")
+@MethodSource("co.edu.uniremington.service.ProductServices#implementations")
+@interface ForEachProductService {
+}
@@ -0,0 +1,36 @@
+package co.edu.uniremington.service;
+
+import co.edu.uniremington.service.impl.CachingProductService;
+import co.edu.uniremington.service.impl.ColumnarProductService;
+import co.edu.uniremington.service.impl.ProductServiceImpl;
+import co.edu.uniremington.service.impl.ShardedProductService;
+import org.junit.jupiter.api.Named;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * The {@link ProductService} implementations the contract tests run against.
+ */
+final class ProductServices {
+
+    private ProductServices() {
+    }
+
+    static Stream<Named<Supplier<ProductService>>> implementations() {
+        return Stream.of(
+                Named.of("ProductServiceImpl", ProductServiceImpl::new),
+                Named.of("CachingProductService", () -> new CachingProductService(new ProductServiceImpl(), 1_000)),
+                Named.of("ColumnarProductService", ColumnarProductService::new),
+                Named.of("ShardedProductService", () -> new ShardedProductService(4)));
+    }
+
+    /**
+     * Stops the threads of services such as {@link ShardedProductService}.
+     */
+    static void close(ProductService productService) throws Exception {
+        if (productService instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -3,14 +3,24 @@ package co.edu.uniremington.service;
 import co.edu.uniremington.model.Product;
 import co.edu.uniremington.model.Sale;
 import co.edu.uniremington.model.SaleItem;
-import co.edu.uniremington.service.impl.ProductServiceImpl;
 import co.edu.uniremington.service.impl.SaleServiceImpl;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 
 class StoreServiceTest {
     private ProductService productService;
@@ -18,9 +28,8 @@ class StoreServiceTest {
     private Product laptop;
     private Product phone;
 
-    @BeforeEach
-    void setUp() {
-        productService = new ProductServiceImpl();
+    private void setUp(Supplier<ProductService> implementation) {
+        productService = implementation.get();
         saleService = new SaleServiceImpl(productService);
 
         // Create test products
@@ -39,8 +48,14 @@ class StoreServiceTest {
                 .build());
     }
 
-    @Test
-    void shouldAddAndFindProduct() {
+    @AfterEach
+    void tearDown() throws Exception {
+        ProductServices.close(productService);
+    }
+
+    @ForEachProductService
+    void shouldAddAndFindProduct(Supplier<ProductService> implementation) {
+        setUp(implementation);
         var product = productService.addProduct(Product.builder()
                 .name("Tablet")
                 .description("Android tablet")
@@ -54,16 +69,38 @@ class StoreServiceTest {
         assertThat(found.get().getName()).isEqualTo("Tablet");
     }
 
-    @Test
-    void shouldUpdateProduct() {
-        laptop.setPrice(1300.0);
-        var updated = productService.updateProduct(laptop);
+    @ForEachProductService
+    void shouldUpdateProduct(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var updated = productService.updateProduct(laptop.toBuilder().price(1300.0).build());
         assertThat(updated).isPresent();
         assertThat(updated.get().getPrice()).isEqualTo(1300.0);
+        assertThat(laptop.getPrice()).isEqualTo(1200.0);
+    }
+
+    @ForEachProductService
+    void shouldRejectUpdatesOfStaleVersions(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        long readVersion = laptop.getVersion();
+        saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(laptop).quantity(1).build())).build());
+
+        assertThatThrownBy(() -> productService.updateProduct(laptop.toBuilder().price(1300.0).build(), readVersion))
+                .isInstanceOf(ConcurrentModificationException.class);
+
+        var current = productService.findById(laptop.getId()).get();
+        assertThat(current.getVersion()).isNotEqualTo(readVersion);
+        assertThat(current.getPrice()).isEqualTo(1200.0);
+
+        var updated = productService.updateProduct(current.toBuilder().price(1300.0).build(), current.getVersion());
+        assertThat(updated.get().getStock()).isEqualTo(9);
+        assertThat(productService.findById(laptop.getId()).get()).isEqualTo(updated.get());
+        assertThat(productService.updateProduct(Product.builder().id("missing").build(), 0)).isEmpty();
     }
 
-    @Test
-    void shouldRegisterSale() {
+    @ForEachProductService
+    void shouldRegisterSale(Supplier<ProductService> implementation) {
+        setUp(implementation);
         var saleItems = List.of(
             SaleItem.builder()
                 .product(laptop)
@@ -92,8 +129,9 @@ class StoreServiceTest {
         assertThat(updatedPhone.getStock()).isEqualTo(13);
     }
 
-    @Test
-    void shouldFindOutOfStockProducts() {
+    @ForEachProductService
+    void shouldFindOutOfStockProducts(Supplier<ProductService> implementation) {
+        setUp(implementation);
         var noStock = productService.addProduct(Product.builder()
                 .name("Out of stock")
                 .description("No stock product")
@@ -106,8 +144,9 @@ class StoreServiceTest {
         assertThat(outOfStock.get(0).getId()).isEqualTo(noStock.getId());
     }
 
-    @Test
-    void shouldIdentifyMostAndLeastSoldProducts() {
+    @ForEachProductService
+    void shouldIdentifyMostAndLeastSoldProducts(Supplier<ProductService> implementation) {
+        setUp(implementation);
         // Register multiple sales
         for (int i = 0; i < 3; i++) {
             var saleItems = List.of(
@@ -136,8 +175,29 @@ class StoreServiceTest {
         assertThat(leastSold.get().getId()).isEqualTo(phone.getId());
     }
 
-    @Test
-    void shouldCalculateSalesAverages() {
+    @ForEachProductService
+    void shouldKeepRankingWhenSalesOfZeroUnitsAreAttempted(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(phone).quantity(2).build())).build());
+
+        assertThatThrownBy(() -> saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(phone).quantity(0).build())).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> saleService.registerSales(List.of(Sale.builder().items(List.of(
+                SaleItem.builder().product(laptop).quantity(-1).build())).build())))
+                .isInstanceOf(IllegalArgumentException.class);
+        productService.incrementProductSales(phone.getId(), 0);
+
+        assertThat(saleService.findAll()).hasSize(1);
+        assertThat(productService.getMostSoldProduct()).get().extracting(Product::getId).isEqualTo(phone.getId());
+        assertThat(productService.topN(5)).extracting(Product::getId).containsExactly(phone.getId());
+        assertThat(productService.findById(laptop.getId()).get().getStock()).isEqualTo(10);
+    }
+
+    @ForEachProductService
+    void shouldCalculateSalesAverages(Supplier<ProductService> implementation) {
+        setUp(implementation);
         // Register a sale
         var saleItems = List.of(
             SaleItem.builder()
@@ -156,4 +216,305 @@ class StoreServiceTest {
         assertThat(saleService.calculateMonthlyAverage()).isPositive();
         assertThat(saleService.calculateYearlyAverage()).isPositive();
     }
+
+    @ForEachProductService
+    void shouldRankProductsBySales(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var tablet = productService.addProduct(Product.builder()
+                .name("Tablet")
+                .description("Android tablet")
+                .price(300.0)
+                .stock(5)
+                .build());
+
+        saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(phone).quantity(3).build(),
+                SaleItem.builder().product(laptop).quantity(2).build(),
+                SaleItem.builder().product(tablet).quantity(1).build()
+        )).build());
+        saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(tablet).quantity(3).build()
+        )).build());
+
+        assertThat(productService.topN(2))
+                .extracting(Product::getId)
+                .containsExactly(tablet.getId(), phone.getId());
+        assertThat(productService.bottomN(5))
+                .extracting(Product::getId)
+                .containsExactly(laptop.getId(), phone.getId(), tablet.getId());
+    }
+
+    @ForEachProductService
+    void shouldAverageOnlySalesInsidePeriod(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var now = LocalDateTime.now();
+        registerHistoricSale("recent", now.minusDays(3), 100.0);
+        registerHistoricSale("older", now.minusDays(40), 50.0);
+        registerHistoricSale("oldest", now.minusDays(400), 25.0);
+
+        assertThat(saleService.calculateAverageSalesByPeriod(now.minusDays(10), now))
+                .isEqualTo(100.0 / 11);
+        assertThat(saleService.calculateAverageSalesByPeriod(now.minusDays(50), now))
+                .isEqualTo(150.0 / 51);
+        assertThat(saleService.calculateAverageSalesByPeriod(now.minusDays(500), now))
+                .isEqualTo(175.0 / 501);
+        assertThat(saleService.calculateAverageSalesByPeriod(now.minusDays(45), now.minusDays(35)))
+                .isEqualTo(50.0 / 11);
+    }
+
+    @ForEachProductService
+    void shouldAverageSalesDatedFarApart(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var now = LocalDateTime.now();
+        registerHistoricSale("last-year", now.minusMonths(18), 1.0);
+        registerHistoricSale("recent", now.minusDays(3), 100.0);
+        registerHistoricSale("ancient", now.minusYears(1_000), 10.0);
+        registerHistoricSale("next-year", now.plusYears(1), 5.0);
+        registerHistoricSale("future", now.plusYears(3), 7.0);
+
+        assertThat(saleService.calculateAverageSalesByPeriod(now.minusDays(10), now))
+                .isEqualTo(100.0 / 11);
+        assertThat(saleService.calculateAverageSalesByPeriod(now.minusMonths(19), now.minusMonths(17)))
+                .isPositive();
+        assertThat(saleService.calculateAverageSalesByPeriod(now.plusYears(3).minusDays(1), now.plusYears(3)))
+                .isEqualTo(7.0 / 2);
+        long days = ChronoUnit.DAYS.between(now.minusYears(2_000), now.plusYears(10)) + 1;
+        assertThat(saleService.calculateAverageSalesByPeriod(now.minusYears(2_000), now.plusYears(10)) * days)
+                .isCloseTo(123.0, within(1e-6));
+    }
+
+    private void registerHistoricSale(String id, LocalDateTime date, double total) {
+        saleService.registerSale(Sale.builder()
+                .id(id)
+                .code("SALE-" + id.toUpperCase())
+                .date(date)
+                .items(List.of(SaleItem.builder().product(phone).quantity(1).subtotal(total).build()))
+                .total(total)
+                .build());
+    }
+
+    @ForEachProductService
+    void shouldRegisterBatchOfSales(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var batch = List.of(
+                Sale.builder().items(List.of(SaleItem.builder().product(laptop).quantity(2).build())).build(),
+                Sale.builder().items(List.of(
+                        SaleItem.builder().product(laptop).quantity(1).build(),
+                        SaleItem.builder().product(phone).quantity(4).build())).build());
+
+        var registered = saleService.registerSales(batch);
+
+        assertThat(registered).hasSize(2).allSatisfy(sale -> assertThat(sale.getId()).isNotNull());
+        assertThat(registered.get(1).getTotal()).isEqualTo(1200.0 + 4 * 800.0);
+        assertThat(productService.findById(laptop.getId()).get().getStock()).isEqualTo(7);
+        assertThat(productService.findById(phone.getId()).get().getStock()).isEqualTo(11);
+        assertThat(productService.getSoldQuantity(laptop.getId())).isEqualTo(3);
+        assertThat(saleService.findAll()).hasSize(2);
+    }
+
+    @ForEachProductService
+    void shouldRejectWholeBatchWhenStockIsInsufficient(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var batch = IntStream.range(0, 6)
+                .mapToObj(i -> Sale.builder().items(List.of(
+                        SaleItem.builder().product(phone).quantity(1).build(),
+                        SaleItem.builder().product(laptop).quantity(2).build())).build())
+                .toList();
+
+        assertThatThrownBy(() -> saleService.registerSales(batch))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(saleService.findAll()).isEmpty();
+        assertThat(productService.findById(laptop.getId()).get().getStock()).isEqualTo(10);
+        assertThat(productService.findById(phone.getId()).get().getStock()).isEqualTo(15);
+    }
+
+    @ForEachProductService
+    void shouldRejectSalesWithRepeatedOrKnownIdsBeforeReserving(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        Sale first = saleService.registerSale(Sale.builder()
+                .items(List.of(SaleItem.builder().product(laptop).quantity(1).build())).build());
+        var known = new Sale(first.getId(), first.getCode(), first.getDate(), first.getItems(), first.getTotal());
+        var fresh = Sale.builder().id("fresh").date(LocalDateTime.now()).total(800.0)
+                .items(List.of(SaleItem.builder().product(phone).quantity(1).build())).build();
+
+        assertThatThrownBy(() -> saleService.registerSale(known)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> saleService.registerSales(List.of(fresh, known)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> saleService.registerSales(List.of(fresh, fresh)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(saleService.findAll()).containsExactly(first);
+        assertThat(productService.findById(laptop.getId()).get().getStock()).isEqualTo(9);
+        assertThat(productService.findById(phone.getId()).get().getStock()).isEqualTo(15);
+        assertThat(saleService.registerSales(List.of(fresh))).containsExactly(fresh);
+        assertThat(saleService.calculateAverageSalesByPeriod(LocalDateTime.now().minusDays(1), LocalDateTime.now()))
+                .isCloseTo((1200.0 + 800.0) / 2, within(1e-9));
+    }
+
+    @ForEachProductService
+    void shouldReserveStockOfAllProductsOrNone(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        assertThat(productService.reserveAll(Map.of(laptop.getId(), 4, phone.getId(), 16))).contains(phone.getId());
+        assertThat(productService.reserveAll(Map.of(laptop.getId(), 4, "missing", 1))).contains("missing");
+        assertThat(productService.findById(laptop.getId()).get().getStock()).isEqualTo(10);
+        assertThat(productService.findById(phone.getId()).get().getStock()).isEqualTo(15);
+
+        assertThat(productService.reserveAll(Map.of(laptop.getId(), 4, phone.getId(), 15))).isEmpty();
+        assertThat(productService.findById(laptop.getId()).get().getStock()).isEqualTo(6);
+        assertThat(productService.findById(phone.getId()).get().getStock()).isZero();
+
+        productService.releaseAll(Map.of(laptop.getId(), 4, phone.getId(), 15));
+        assertThat(productService.findById(phone.getId()).get().getStock()).isEqualTo(15);
+    }
+
+    @ForEachProductService
+    void shouldCheckStockOfProductsListedTwiceInASaleOnce(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var items = List.of(
+                SaleItem.builder().product(phone).quantity(1).build(),
+                SaleItem.builder().product(laptop).quantity(6).build(),
+                SaleItem.builder().product(laptop).quantity(5).build());
+
+        assertThatThrownBy(() -> saleService.registerSale(Sale.builder().items(items).build()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(laptop.getId());
+
+        assertThat(saleService.findAll()).isEmpty();
+        assertThat(productService.findById(laptop.getId()).get().getStock()).isEqualTo(10);
+        assertThat(productService.findById(phone.getId()).get().getStock()).isEqualTo(15);
+    }
+
+    @ForEachProductService
+    void shouldRegisterStreamOfSalesInBatches(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var bulk = productService.addProduct(Product.builder()
+                .name("Pen")
+                .description("Blue pen")
+                .price(1.0)
+                .stock(30_000)
+                .build());
+
+        long registered = saleService.registerSales(IntStream.range(0, 25_000)
+                .mapToObj(i -> Sale.builder()
+                        .items(List.of(SaleItem.builder().product(bulk).quantity(1).build()))
+                        .build()));
+
+        assertThat(registered).isEqualTo(25_000);
+        assertThat(productService.findById(bulk.getId()).get().getStock()).isEqualTo(5_000);
+        assertThat(productService.getSoldQuantity(bulk.getId())).isEqualTo(25_000);
+    }
+
+    @ForEachProductService
+    void shouldAddProductListedTwiceInABatchOnce(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var first = Product.builder().id("cable").name("Cable").description("USB").price(5.0).stock(0).build();
+        var last = first.toBuilder().name("Adapter").price(15.0).stock(4).build();
+
+        var added = productService.addProducts(List.of(first, last));
+
+        assertThat(added).extracting(Product::getName).containsExactly("Adapter");
+        assertThat(productService.findById("cable")).get().extracting(Product::getStock).isEqualTo(4);
+        assertThat(productService.findOutOfStock()).isEmpty();
+        assertThat(productService.findByNamePrefix("cab")).isEmpty();
+        assertThat(productService.findByNamePrefix("adap")).extracting(Product::getId).containsExactly("cable");
+        assertThat(productService.findByPriceRange(1.0, 10.0)).isEmpty();
+        assertThat(productService.findLowStock(4)).extracting(Product::getId).containsExactly("cable");
+    }
+
+    @ForEachProductService
+    void shouldQueryProductsThroughSecondaryIndexes(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        var phoneCase = productService.addProduct(Product.builder()
+                .name("phone case")
+                .description("Silicone case")
+                .price(20.0)
+                .stock(3)
+                .build());
+
+        assertThat(productService.findByNamePrefix("PHO"))
+                .extracting(Product::getId)
+                .containsExactlyInAnyOrder(phone.getId(), phoneCase.getId());
+        assertThat(productService.findByPriceRange(20.0, 800.0))
+                .extracting(Product::getId)
+                .containsExactlyInAnyOrder(phone.getId(), phoneCase.getId());
+        assertThat(productService.findLowStock(10))
+                .extracting(Product::getId)
+                .containsExactlyInAnyOrder(phoneCase.getId(), laptop.getId());
+
+        saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(phoneCase).quantity(3).build())).build());
+        productService.updateProduct(productService.findById(laptop.getId()).get()
+                .toBuilder().name("Notebook").price(900.0).build());
+
+        assertThat(productService.findOutOfStock())
+                .extracting(Product::getId)
+                .containsExactly(phoneCase.getId());
+        assertThat(productService.findLowStock(0)).hasSize(1);
+        assertThat(productService.findByNamePrefix("lap")).isEmpty();
+        assertThat(productService.findByNamePrefix("note")).hasSize(1);
+        assertThat(productService.findByPriceRange(850.0, 1000.0))
+                .extracting(Product::getId)
+                .containsExactly(laptop.getId());
+    }
+
+    @ForEachProductService
+    void shouldPaginateProductsAndSalesWithCursors(Supplier<ProductService> implementation) {
+        setUp(implementation);
+        IntStream.range(0, 23).forEach(i -> productService.addProduct(Product.builder()
+                .name("Cable " + i)
+                .description("USB cable")
+                .price(5.0)
+                .stock(10)
+                .build()));
+        IntStream.range(0, 7).forEach(i -> saleService.registerSale(Sale.builder().items(List.of(
+                SaleItem.builder().product(phone).quantity(1).build())).build()));
+
+        List<String> productIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Product> page = productService.findAll(cursor, 10);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(10);
+            page.items().forEach(product -> productIds.add(product.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(productIds).hasSize(25).doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(productService.streamAll().map(Product::getId).toList());
+
+        Page<Sale> firstSales = saleService.findAll(null, 5);
+        Page<Sale> lastSales = saleService.findAll(firstSales.nextCursor(), 5);
+        assertThat(firstSales.items()).hasSize(5);
+        assertThat(lastSales.items()).hasSize(2);
+        assertThat(lastSales.hasNext()).isFalse();
+        assertThat(saleService.streamAll().map(Sale::getId))
+                .containsExactlyElementsOf(Stream.concat(
+                        firstSales.items().stream(), lastSales.items().stream()).map(Sale::getId).toList());
+    }
+
+    @ForEachProductService
+    void shouldPaginateProductsWhileTheyAreAdded(Supplier<ProductService> implementation) throws Exception {
+        setUp(implementation);
+        var writer = CompletableFuture.runAsync(() -> IntStream.range(0, 20_000).forEach(i ->
+                productService.addProduct(Product.builder().name("Cable " + i).price(5.0).stock(10).build())));
+
+        while (!writer.isDone()) {
+            String cursor = null;
+            do {
+                Page<Product> page = productService.findAll(cursor, 500);
+                assertThat(page.items()).doesNotContainNull();
+                cursor = page.nextCursor();
+            } while (cursor != null);
+        }
+        writer.get(10, TimeUnit.SECONDS);
+
+        List<Product> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Product> page = productService.findAll(cursor, 500);
+            listed.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertThat(listed).hasSize(20_002).doesNotContainNull();
+    }
 }
@@ -0,0 +1,93 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingProductServiceTest {
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        var cache = new CachingProductService(new ProductServiceImpl(), 100);
+        var mouse = cache.addProduct(Product.builder().name("Mouse").price(20.0).stock(5).build());
+
+        IntStream.range(0, 10).forEach(i -> assertThat(cache.findById(mouse.getId())).contains(mouse));
+
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.stats().hits()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldCacheMissingIdsUntilProductIsAdded() {
+        var cache = new CachingProductService(new ProductServiceImpl(), 100);
+
+        assertThat(cache.findById("KB-01")).isEmpty();
+        assertThat(cache.findById("KB-01")).isEmpty();
+        assertThat(cache.stats().negativeHits()).isEqualTo(1);
+
+        cache.addProduct(Product.builder().id("KB-01").name("Keyboard").price(45.0).stock(3).build());
+
+        assertThat(cache.findById("KB-01")).get().extracting(Product::getName).isEqualTo("Keyboard");
+    }
+
+    @Test
+    void shouldInvalidateOnStockChanges() {
+        var cache = new CachingProductService(new ProductServiceImpl(), 100);
+        var mouse = cache.addProduct(Product.builder().name("Mouse").price(20.0).stock(5).build());
+        cache.findById(mouse.getId());
+
+        assertThat(cache.reserveStock(mouse.getId(), 2)).isTrue();
+        assertThat(cache.findById(mouse.getId()).get().getStock()).isEqualTo(3);
+
+        cache.releaseStock(mouse.getId(), 1);
+        assertThat(cache.findById(mouse.getId()).get().getStock()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldInvalidateOnUpdatesAndMultiItemReservations() {
+        var delegate = new ProductServiceImpl();
+        var cache = new CachingProductService(delegate, 100);
+        var mouse = cache.addProduct(Product.builder().name("Mouse").price(20.0).stock(5).build());
+        var pad = cache.addProduct(Product.builder().name("Pad").price(5.0).stock(5).build());
+        cache.findById(mouse.getId());
+        cache.findById(pad.getId());
+
+        cache.updateProduct(mouse.toBuilder().price(25.0).build());
+        assertThat(cache.findById(mouse.getId()).get().getPrice()).isEqualTo(25.0);
+
+        assertThat(cache.reserveAll(Map.of(mouse.getId(), 1, pad.getId(), 2))).isEmpty();
+        assertThat(cache.findById(pad.getId()).get().getStock()).isEqualTo(3);
+        cache.releaseAll(Map.of(mouse.getId(), 1, pad.getId(), 2));
+        assertThat(cache.findById(mouse.getId()).get().getStock()).isEqualTo(5);
+        assertThat(cache.findById(pad.getId()).get().getStock()).isEqualTo(5);
+
+        delegate.updateProduct(pad.toBuilder().name("Mat").build());
+        assertThat(cache.findById(pad.getId()).get().getName()).isEqualTo("Pad");
+        cache.invalidate(pad.getId());
+        assertThat(cache.findById(pad.getId()).get().getName()).isEqualTo("Mat");
+    }
+
+    @Test
+    void shouldStayWithinMaximumSizeAndKeepFrequentlyReadProducts() {
+        var cache = new CachingProductService(new ProductServiceImpl(), 64);
+        List<Product> catalog = new ArrayList<>();
+        IntStream.range(0, 1_000).forEach(i -> catalog.add(cache.addProduct(
+                Product.builder().name("P" + i).price(1.0).stock(1).build())));
+        var hot = catalog.get(0);
+        cache.findById(hot.getId());
+        cache.findById(hot.getId());
+
+        catalog.forEach(product -> cache.findById(product.getId()));
+        long missesBefore = cache.stats().misses();
+        cache.findById(hot.getId());
+
+        assertThat(cache.stats().size()).isLessThanOrEqualTo(64);
+        assertThat(cache.stats().evictions()).isPositive();
+        assertThat(cache.stats().misses()).isEqualTo(missesBefore);
+    }
+}
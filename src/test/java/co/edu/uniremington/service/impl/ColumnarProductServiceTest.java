@@ -0,0 +1,92 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.model.Product;
+import co.edu.uniremington.service.ProductService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarProductServiceTest {
+    @Test
+    void shouldFindProductsWhileTheColumnsGrow() {
+        int products = 100_000;
+        ProductService columnar = new ColumnarProductService(1);
+        AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(products);
+        AtomicInteger added = new AtomicInteger();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < products; i++) {
+                ids.set(i, columnar.addProduct(Product.builder().name("P" + i).price(1.0).stock(1).build()).getId());
+                added.set(i + 1);
+            }
+        });
+
+        long found = 0;
+        while (!writer.isDone() || found == 0) {
+            int last = added.get() - 1;
+            if (last >= 0) {
+                assertThat(columnar.findById(ids.get(last))).isPresent();
+                found++;
+            }
+        }
+        writer.join();
+        assertThat(columnar.findAll()).hasSize(products);
+    }
+
+    @Test
+    void shouldGrowPastItsCapacityInBatchesAndOneByOne() {
+        ProductService columnar = new ColumnarProductService(1);
+        int products = 40_000;
+        var added = columnar.addProducts(IntStream.range(0, products)
+                .mapToObj(i -> Product.builder().id("B" + i).name("B" + i).price(i).stock(i % 7).build())
+                .toList());
+        for (int i = 0; i < products; i++) {
+            columnar.addProduct(Product.builder().id("S" + i).name("S" + i).price(i).stock(1).build());
+        }
+
+        assertThat(added).hasSize(products);
+        assertThat(columnar.findAll()).hasSize(2 * products);
+        assertThat(columnar.findById("B39999")).get().extracting(Product::getPrice).isEqualTo(39_999.0);
+        assertThat(columnar.findById("S0")).get().extracting(Product::getStock).isEqualTo(1);
+        assertThat(columnar.findOutOfStock()).hasSize((products + 6) / 7);
+        assertThat(columnar.reserveStock("B1", 1)).isTrue();
+        assertThat(columnar.findById("B1").get().getStock()).isZero();
+    }
+
+    @Test
+    void shouldReserveSeveralProductsAtomicallyAgainstSingleReservations() {
+        ProductService columnar = new ColumnarProductService();
+        Product pen = columnar.addProduct(Product.builder().id("a-pen").name("Pen").price(1.0).stock(1_000_000).build());
+        Product ink = columnar.addProduct(Product.builder().id("b-ink").name("Ink").price(2.0).stock(5_000).build());
+        AtomicInteger bundles = new AtomicInteger();
+        AtomicInteger singles = new AtomicInteger();
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[4];
+        for (int w = 0; w < workers.length; w++) {
+            boolean bundling = w % 2 == 0;
+            workers[w] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    if (bundling && columnar.reserveAll(Map.of(pen.getId(), 1, ink.getId(), 1)).isEmpty()) {
+                        bundles.incrementAndGet();
+                    } else if (!bundling && columnar.reserveStock(ink.getId(), 1)) {
+                        singles.incrementAndGet();
+                    }
+                }
+            });
+        }
+        CompletableFuture.allOf(workers).join();
+
+        assertThat(bundles.get() + singles.get()).isEqualTo(5_000);
+        assertThat(columnar.findById(ink.getId()).get().getStock()).isZero();
+        assertThat(columnar.findById(pen.getId()).get().getStock()).isEqualTo(1_000_000 - bundles.get());
+
+        long version = columnar.findById(pen.getId()).get().getVersion();
+        assertThat(columnar.reserveAll(Map.of(pen.getId(), 1, ink.getId(), 1))).contains(ink.getId());
+        assertThat(columnar.findById(pen.getId()).get().getVersion()).isEqualTo(version);
+    }
+}
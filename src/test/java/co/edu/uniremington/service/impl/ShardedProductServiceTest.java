@@ -0,0 +1,187 @@
+package co.edu.uniremington.service.impl;
+
+import co.edu.uniremington.events.StoreEvent;
+import co.edu.uniremington.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedProductServiceTest {
+    private final List<ShardedProductService> opened = new ArrayList<>();
+
+    private ShardedProductService open(int shards) {
+        var service = new ShardedProductService(shards);
+        opened.add(service);
+        return service;
+    }
+
+    @AfterEach
+    void closeShards() {
+        opened.forEach(ShardedProductService::close);
+    }
+
+    @Test
+    void shouldWriteEveryProductOnTheThreadOfItsShard() {
+        Map<String, String> writers = new ConcurrentHashMap<>();
+        var sharded = new ShardedProductService(4, event -> {
+            if (event instanceof StoreEvent.StockChanged changed) {
+                writers.put(changed.productId(), Thread.currentThread().getName());
+            }
+        });
+        opened.add(sharded);
+        List<Product> catalog = IntStream.range(0, 200)
+                .mapToObj(i -> sharded.addProduct(Product.builder().id("P" + i).name("P" + i).price(1.0).stock(10).build()))
+                .toList();
+
+        assertThat(catalog).extracting(product -> sharded.shardOf(product.getId()))
+                .containsOnly(0, 1, 2, 3);
+        assertThat(catalog).allSatisfy(product -> {
+            assertThat(writers).containsEntry(product.getId(), "store-shard-" + sharded.shardOf(product.getId()));
+            assertThat(sharded.findById(product.getId())).contains(product);
+        });
+    }
+
+    @Test
+    void shouldMergeRankingsAcrossShards() {
+        var sharded = open(8);
+        List<Product> catalog = IntStream.range(0, 50)
+                .mapToObj(i -> sharded.addProduct(Product.builder().name("P" + i).price(1.0).stock(100).build()))
+                .toList();
+        for (int i = 0; i < catalog.size(); i++) {
+            sharded.incrementProductSales(catalog.get(i).getId(), i + 1);
+        }
+
+        assertThat(sharded.findAll()).hasSize(50);
+        assertThat(sharded.getMostSoldProduct()).contains(catalog.get(49));
+        assertThat(sharded.getLeastSoldProduct()).contains(catalog.get(0));
+        assertThat(sharded.topN(3)).containsExactly(catalog.get(49), catalog.get(48), catalog.get(47));
+    }
+
+    @Test
+    void shouldRejectWritesAfterClose() {
+        var sharded = open(2);
+        var product = sharded.addProduct(Product.builder().name("Mouse").price(20.0).stock(1).build());
+
+        sharded.close();
+
+        assertThat(sharded.findById(product.getId())).isPresent();
+        assertThatThrownBy(() -> sharded.reserveStock(product.getId(), 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRankWhileSalesAreRecorded() throws Exception {
+        var sharded = open(4);
+        List<Product> catalog = IntStream.range(0, 2_000)
+                .mapToObj(i -> sharded.addProduct(Product.builder().name("P" + i).price(1.0).stock(100).build()))
+                .toList();
+        catalog.forEach(product -> sharded.incrementProductSales(product.getId(), 1));
+        var selling = new AtomicBoolean(true);
+        var seller = CompletableFuture.runAsync(() -> {
+            var random = new SplittableRandom(7);
+            while (selling.get()) {
+                sharded.incrementProductSales(catalog.get(random.nextInt(catalog.size())).getId(), 1);
+            }
+        });
+
+        try {
+            for (int i = 0; i < 200; i++) {
+                assertThat(sharded.topN(catalog.size())).isNotEmpty();
+            }
+        } finally {
+            selling.set(false);
+        }
+        seller.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldCompleteOrRejectWritesRacingWithClose() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            var sharded = open(2);
+            var product = sharded.addProduct(Product.builder().name("Mouse").price(20.0).stock(1_000_000).build());
+            var start = new CountDownLatch(1);
+            List<CompletableFuture<Void>> writers = IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        awaitQuietly(start);
+                        for (int j = 0; j < 1_000; j++) {
+                            sharded.reserveStock(product.getId(), 1);
+                        }
+                    }))
+                    .toList();
+
+            start.countDown();
+            sharded.close();
+
+            for (CompletableFuture<Void> writer : writers) {
+                assertThatCode(() -> writer.handle((ignored, e) -> null).get(10, TimeUnit.SECONDS))
+                        .doesNotThrowAnyException();
+                if (writer.isCompletedExceptionally()) {
+                    assertThatThrownBy(writer::join).hasCauseInstanceOf(IllegalStateException.class);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldReserveProductsOfSeveralShardsAtomically() {
+        var sharded = open(4);
+        List<Product> products = IntStream.range(0, 16)
+                .mapToObj(i -> sharded.addProduct(Product.builder().id("P" + i).name("P" + i).price(1.0).stock(5_000).build()))
+                .toList();
+        var pen = products.get(0);
+        var ink = products.stream().filter(product -> sharded.shardOf(product.getId()) != sharded.shardOf(pen.getId()))
+                .findFirst().orElseThrow();
+        var paper = products.stream().filter(product -> sharded.shardOf(product.getId()) != sharded.shardOf(pen.getId())
+                && sharded.shardOf(product.getId()) != sharded.shardOf(ink.getId())).findFirst().orElseThrow();
+        var bundles = new AtomicInteger();
+
+        List<CompletableFuture<Void>> workers = IntStream.range(0, 4)
+                .mapToObj(w -> CompletableFuture.runAsync(() -> {
+                    // Half of the workers list the products in the opposite order
+                    var order = w % 2 == 0 ? List.of(pen, ink, paper) : List.of(paper, ink, pen);
+                    Map<String, Integer> bundle = new LinkedHashMap<>();
+                    order.forEach(product -> bundle.put(product.getId(), 1));
+                    for (int i = 0; i < 2_000; i++) {
+                        if (sharded.reserveAll(bundle).isEmpty()) {
+                            bundles.incrementAndGet();
+                        }
+                    }
+                }))
+                .toList();
+        workers.forEach(worker -> worker.orTimeout(30, TimeUnit.SECONDS).join());
+
+        assertThat(bundles.get()).isEqualTo(5_000);
+        assertThat(List.of(pen, ink, paper)).allSatisfy(product ->
+                assertThat(sharded.findById(product.getId()).get().getStock()).isZero());
+
+        sharded.releaseAll(Map.of(pen.getId(), 2, paper.getId(), 2));
+        long version = sharded.findById(pen.getId()).get().getVersion();
+        assertThat(sharded.reserveAll(Map.of(pen.getId(), 1, ink.getId(), 1, paper.getId(), 1))).contains(ink.getId());
+        assertThat(sharded.findById(pen.getId()).get().getVersion()).isEqualTo(version);
+        assertThat(sharded.findById(paper.getId()).get().getStock()).isEqualTo(2);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}